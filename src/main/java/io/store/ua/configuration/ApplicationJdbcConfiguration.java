@@ -0,0 +1,33 @@
+package io.store.ua.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class ApplicationJdbcConfiguration {
+    public static final String CURSOR_JDBC_TEMPLATE = "cursorJdbcTemplate";
+
+    @Bean
+    @Primary
+    public NamedParameterJdbcTemplate namedParameterJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        return new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Reads rows in chunks of the fetch size from a server-side cursor, for queries streamed straight into the output
+     */
+    @Bean(CURSOR_JDBC_TEMPLATE)
+    public NamedParameterJdbcTemplate cursorJdbcTemplate(DataSource dataSource,
+                                                         @Value("${jdbc.cursor.fetchSize:1000}") int fetchSize) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+
+        return new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import io.store.ua.utility.KeysetCursor;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpHeaders;
@@ -32,6 +33,7 @@ public class ApplicationCrossOriginFilter extends OncePerRequestFilter {
                                 HttpMethod.OPTIONS.name()));
         response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS,
                 "%s, %s".formatted(HttpHeaders.AUTHORIZATION, HttpHeaders.CONTENT_TYPE));
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, KeysetCursor.NEXT_CURSOR_HEADER);
         response.setHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE, String.valueOf(Duration.ofHours(1L).toSeconds()));
         response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
 
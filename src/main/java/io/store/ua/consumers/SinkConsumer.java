@@ -5,10 +5,13 @@ import io.store.ua.models.dto.ShipmentDTO;
 import io.store.ua.models.dto.TransactionDTO;
 import io.store.ua.producers.SinkProducer;
 import io.store.ua.service.ShipmentService;
+import io.store.ua.service.SinkDeduplicationService;
 import io.store.ua.service.TransactionService;
 import io.store.ua.utility.RegularObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
@@ -17,6 +20,7 @@ import org.springframework.stereotype.Component;
 public class SinkConsumer {
     private final ShipmentService shipmentService;
     private final TransactionService transactionService;
+    private final SinkDeduplicationService sinkDeduplicationService;
 
     @KafkaListener(topics = SinkProducer.SHIPMENT_TOPIC, groupId = SinkProducer.SHIPMENT_TOPIC)
     public void consumeShipment(@Payload String shipmentDTO) throws JsonProcessingException {
@@ -24,8 +28,23 @@ public class SinkConsumer {
     }
 
     @KafkaListener(topics = SinkProducer.TRANSACTION_TOPIC, groupId = SinkProducer.TRANSACTION_TOPIC)
-    public void consumeTransaction(@Payload String transactionDTO) throws JsonProcessingException {
-        transactionService.synchroniseTransaction(RegularObjectMapper.read(transactionDTO, TransactionDTO.class));
+    public void consumeTransaction(@Payload String transactionDTO,
+                                   @Header(name = KafkaHeaders.RECEIVED_KEY, required = false) String key) throws JsonProcessingException {
+        if (!sinkDeduplicationService.claim(SinkProducer.TRANSACTION_TOPIC, key)) {
+            return;
+        }
+
+        try {
+            TransactionDTO message = RegularObjectMapper.read(transactionDTO, TransactionDTO.class);
+            // The record key is stored with the transaction, so a redelivery the dedup window missed isn't saved twice
+            message.setIdempotencyKey(key);
+
+            boolean stored = transactionService.synchroniseTransaction(message);
+            sinkDeduplicationService.complete(SinkProducer.TRANSACTION_TOPIC, key, stored);
+        } catch (JsonProcessingException | RuntimeException e) {
+            sinkDeduplicationService.release(SinkProducer.TRANSACTION_TOPIC, key);
+            throw e;
+        }
     }
 
 }
@@ -1,8 +1,14 @@
 package io.store.ua.controllers;
 
+import io.store.ua.enums.ExportFormat;
+import io.store.ua.enums.SalesRankingMetric;
+import io.store.ua.enums.SalesRankingPartition;
 import io.store.ua.models.data.BeneficiaryFinancialFlowStatistic;
+import io.store.ua.models.data.ItemSalesRank;
 import io.store.ua.models.data.ItemSellingStatistic;
 import io.store.ua.service.AnalyticsService;
+import io.store.ua.utility.EnumParser;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -11,7 +17,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/analytics")
@@ -34,6 +43,47 @@ public class AnalyticsController {
                 page));
     }
 
+    @GetMapping("/fetchItemSellingStatistics")
+    public void fetchItemSellingStatistics(@RequestParam(name = "stockItemId", required = false) List<Long> stockItemIds,
+                                           @RequestParam(name = "productId", required = false) List<Long> productIds,
+                                           @RequestParam(name = "warehouseId", required = false) List<Long> warehouseIds,
+                                           @RequestParam(name = "from", required = false)
+                                           @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate from,
+                                           @RequestParam(name = "to", required = false)
+                                           @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate to,
+                                           @RequestParam(name = "groupByProduct", required = false, defaultValue = "false") boolean groupByProduct,
+                                           HttpServletResponse response) throws IOException {
+        response.setContentType(ExportFormat.NDJSON.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        analyticsService.streamItemSellingStatistics(stockItemIds,
+                productIds,
+                warehouseIds,
+                from,
+                to,
+                groupByProduct,
+                response.getOutputStream());
+    }
+
+    @GetMapping("/rankItemSales")
+    public ResponseEntity<List<ItemSalesRank>> rankItemSales(@RequestParam(name = "warehouseId", required = false) List<Long> warehouseIds,
+                                                             @RequestParam(name = "stockItemGroupId", required = false) List<Long> stockItemGroupIds,
+                                                             @RequestParam(name = "partitionBy", required = false, defaultValue = "warehouse") String partitionBy,
+                                                             @RequestParam(name = "metric", required = false, defaultValue = "quantity") String metric,
+                                                             @RequestParam(name = "from", required = false)
+                                                             @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate from,
+                                                             @RequestParam(name = "to", required = false)
+                                                             @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate to,
+                                                             @RequestParam(name = "limit", required = false, defaultValue = "10") int limit) {
+        return ResponseEntity.ok(analyticsService.rankItemSales(warehouseIds,
+                stockItemGroupIds,
+                EnumParser.parse(partitionBy, SalesRankingPartition.class, "ranking partition"),
+                EnumParser.parse(metric, SalesRankingMetric.class, "ranking metric"),
+                from,
+                to,
+                limit));
+    }
+
     @GetMapping("/fetchBeneficiaryFinancialStatistic")
     public ResponseEntity<BeneficiaryFinancialFlowStatistic> fetchBeneficiaryFinancialStatistic(@RequestParam(name = "beneficiaryId") Long beneficiaryId,
                                                                                                 @RequestParam(name = "from", required = false)
@@ -48,4 +98,17 @@ public class AnalyticsController {
                 pageSize,
                 page));
     }
+
+    @GetMapping("/fetchNormalizedBeneficiaryFinancialStatistic")
+    public ResponseEntity<BeneficiaryFinancialFlowStatistic> fetchNormalizedBeneficiaryFinancialStatistic(@RequestParam(name = "beneficiaryId") Long beneficiaryId,
+                                                                                                          @RequestParam(name = "from", required = false)
+                                                                                                          @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate from,
+                                                                                                          @RequestParam(name = "to", required = false)
+                                                                                                          @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate to,
+                                                                                                          @RequestParam(name = "targetCurrency") String targetCurrency) {
+        return ResponseEntity.ok(analyticsService.fetchNormalizedBeneficiaryFinancialStatistic(beneficiaryId,
+                from,
+                to,
+                targetCurrency));
+    }
 }
@@ -3,6 +3,7 @@ package io.store.ua.controllers;
 import io.store.ua.entity.Product;
 import io.store.ua.models.dto.ProductDTO;
 import io.store.ua.service.ProductService;
+import io.store.ua.utility.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -29,18 +30,22 @@ public class ProductController {
                                                 @DateTimeFormat(pattern = "dd-MM-yyyy'At'HH:mm:ss") LocalDateTime from,
                                                 @RequestParam(value = "to", required = false)
                                                 @DateTimeFormat(pattern = "dd-MM-yyyy'At'HH:mm:ss") LocalDateTime to,
+                                                @RequestParam(value = "cursor", required = false) String cursor,
                                                 @RequestParam("pageSize") int pageSize,
-                                                @RequestParam("page") int pageNumber) {
-        return ResponseEntity.ok(productService.findBy(titlePart,
-                codePart,
-                minimumPrice,
-                maximumPrice,
-                currency,
-                tagIds,
-                from,
-                to,
+                                                @RequestParam(value = "page", required = false, defaultValue = "1") int pageNumber) {
+        return KeysetCursor.respond(productService.findBy(titlePart,
+                        codePart,
+                        minimumPrice,
+                        maximumPrice,
+                        currency,
+                        tagIds,
+                        from,
+                        to,
+                        cursor,
+                        pageSize,
+                        pageNumber),
                 pageSize,
-                pageNumber));
+                Product::getId);
     }
 
     @PostMapping
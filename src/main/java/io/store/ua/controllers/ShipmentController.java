@@ -3,6 +3,7 @@ package io.store.ua.controllers;
 import io.store.ua.entity.Shipment;
 import io.store.ua.models.dto.ShipmentDTO;
 import io.store.ua.service.ShipmentService;
+import io.store.ua.utility.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -27,17 +28,22 @@ public class ShipmentController {
                                                  @DateTimeFormat(pattern = "dd-MM-yyyy'At'HH:mm:ss") LocalDateTime from,
                                                  @RequestParam(value = "to", required = false)
                                                  @DateTimeFormat(pattern = "dd-MM-yyyy'At'HH:mm:ss") LocalDateTime to,
+                                                 @RequestParam(value = "cursor", required = false) String cursor,
                                                  @RequestParam("pageSize") int pageSize,
-                                                 @RequestParam("page") int page) {
-        return ResponseEntity.ok(shipmentService.findBy(warehouseIdSender,
-                warehouseIdRecipient,
-                stockItemId,
-                status,
-                shipmentDirection,
-                from,
-                to,
+                                                 @RequestParam(value = "page", required = false, defaultValue = "1") int page) {
+        return KeysetCursor.respond(shipmentService.findBy(warehouseIdSender,
+                        warehouseIdRecipient,
+                        stockItemId,
+                        status,
+                        shipmentDirection,
+                        from,
+                        to,
+                        cursor,
+                        pageSize,
+                        page),
                 pageSize,
-                page));
+                Shipment::getCreatedAt,
+                Shipment::getId);
     }
 
     @PostMapping
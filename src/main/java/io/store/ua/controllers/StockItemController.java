@@ -1,13 +1,27 @@
 package io.store.ua.controllers;
 
 import io.store.ua.entity.StockItem;
-import io.store.ua.models.data.StockItemVersionGroup;
+import io.store.ua.enums.StockItemView;
+import io.store.ua.exceptions.BusinessException;
+import io.store.ua.models.data.InventoryPosition;
+import io.store.ua.models.data.ProductAvailability;
+import io.store.ua.models.data.StockForecast;
+import io.store.ua.models.data.StockItemQuantityChange;
+import io.store.ua.models.data.StockItemSummary;
+import io.store.ua.models.dto.StockItemActionResultDTO;
 import io.store.ua.models.dto.StockItemDTO;
+import io.store.ua.service.InventorySnapshotService;
+import io.store.ua.service.StockForecastService;
+import io.store.ua.service.StockItemAvailabilityService;
 import io.store.ua.service.StockItemService;
+import io.store.ua.utility.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -15,41 +29,78 @@ import java.util.List;
 @RequiredArgsConstructor
 public class StockItemController {
     private final StockItemService stockItemService;
+    private final StockItemAvailabilityService stockItemAvailabilityService;
+    private final InventorySnapshotService inventorySnapshotService;
+    private final StockForecastService stockForecastService;
 
     @GetMapping("/findBy")
-    public ResponseEntity<List<StockItem>> findBy(@RequestParam(name = "warehouseId", required = false) List<Long> warehouseIds,
-                                                  @RequestParam(name = "productId", required = false) List<Long> productIds,
-                                                  @RequestParam(name = "stockItemGroupId", required = false) List<Long> stockItemGroupIds,
-                                                  @RequestParam(name = "status", required = false) List<String> statuses,
-                                                  @RequestParam(name = "storageSectionId", required = false) List<Long> storageSectionIds,
-                                                  @RequestParam(name = "codePart", required = false) String codePart,
-                                                  @RequestParam(name = "isItemActive", required = false) Boolean isItemActive,
-                                                  @RequestParam(name = "isItemGroupActive", required = false) Boolean isItemGroupActive,
-                                                  @RequestParam(name = "pageSize") int pageSize,
-                                                  @RequestParam(name = "page") int page) {
-        return ResponseEntity.ok(stockItemService.findBy(warehouseIds,
-                productIds,
-                stockItemGroupIds,
-                statuses,
-                storageSectionIds,
-                codePart,
-                isItemActive,
-                isItemGroupActive,
+    public ResponseEntity<?> findBy(@RequestParam(name = "warehouseId", required = false) List<Long> warehouseIds,
+                                    @RequestParam(name = "productId", required = false) List<Long> productIds,
+                                    @RequestParam(name = "stockItemGroupId", required = false) List<Long> stockItemGroupIds,
+                                    @RequestParam(name = "status", required = false) List<String> statuses,
+                                    @RequestParam(name = "storageSectionId", required = false) List<Long> storageSectionIds,
+                                    @RequestParam(name = "codePart", required = false) String codePart,
+                                    @RequestParam(name = "isItemActive", required = false) Boolean isItemActive,
+                                    @RequestParam(name = "isItemGroupActive", required = false) Boolean isItemGroupActive,
+                                    @RequestParam(name = "cursor", required = false) String cursor,
+                                    @RequestParam(name = "pageSize") int pageSize,
+                                    @RequestParam(name = "page", required = false, defaultValue = "1") int page,
+                                    @RequestParam(name = "view", required = false, defaultValue = "full") String view) {
+        if (parseView(view) == StockItemView.SUMMARY) {
+            return KeysetCursor.respond(stockItemService.findSummaryBy(warehouseIds,
+                            productIds,
+                            stockItemGroupIds,
+                            statuses,
+                            storageSectionIds,
+                            codePart,
+                            isItemActive,
+                            isItemGroupActive,
+                            cursor,
+                            pageSize,
+                            page),
+                    pageSize,
+                    StockItemSummary::id);
+        }
+
+        return KeysetCursor.respond(stockItemService.findBy(warehouseIds,
+                        productIds,
+                        stockItemGroupIds,
+                        statuses,
+                        storageSectionIds,
+                        codePart,
+                        isItemActive,
+                        isItemGroupActive,
+                        cursor,
+                        pageSize,
+                        page),
                 pageSize,
-                page));
+                StockItem::getId);
     }
 
     @GetMapping("/findVersionBatch")
-    public ResponseEntity<List<StockItemVersionGroup>> findVersionBatch(@RequestParam(name = "warehouseId", required = false) List<Long> warehouseIds,
-                                                                        @RequestParam(name = "productId", required = false) List<Long> productIds,
-                                                                        @RequestParam(name = "stockItemGroupId", required = false) List<Long> stockItemGroupIds,
-                                                                        @RequestParam(name = "status", required = false) List<String> statuses,
-                                                                        @RequestParam(name = "storageSectionId", required = false) List<Long> storageSectionIds,
-                                                                        @RequestParam(name = "codePart", required = false) String codePart,
-                                                                        @RequestParam(name = "isItemActive", required = false) Boolean isItemActive,
-                                                                        @RequestParam(name = "isItemGroupActive", required = false) Boolean isItemGroupActive,
-                                                                        @RequestParam(name = "pageSize") int pageSize,
-                                                                        @RequestParam(name = "page") int page) {
+    public ResponseEntity<?> findVersionBatch(@RequestParam(name = "warehouseId", required = false) List<Long> warehouseIds,
+                                              @RequestParam(name = "productId", required = false) List<Long> productIds,
+                                              @RequestParam(name = "stockItemGroupId", required = false) List<Long> stockItemGroupIds,
+                                              @RequestParam(name = "status", required = false) List<String> statuses,
+                                              @RequestParam(name = "storageSectionId", required = false) List<Long> storageSectionIds,
+                                              @RequestParam(name = "codePart", required = false) String codePart,
+                                              @RequestParam(name = "isItemActive", required = false) Boolean isItemActive,
+                                              @RequestParam(name = "isItemGroupActive", required = false) Boolean isItemGroupActive,
+                                              @RequestParam(name = "pageSize") int pageSize,
+                                              @RequestParam(name = "page") int page,
+                                              @RequestParam(name = "view", required = false, defaultValue = "full") String view) {
+        if (parseView(view) == StockItemView.SUMMARY) {
+            return ResponseEntity.ok(stockItemService.findSummaryVersionBatch(warehouseIds,
+                    productIds,
+                    stockItemGroupIds,
+                    statuses,
+                    storageSectionIds,
+                    codePart,
+                    isItemActive,
+                    isItemGroupActive,
+                    pageSize,
+                    page));
+        }
 
         return ResponseEntity.ok(stockItemService.findVersionBatch(warehouseIds,
                 productIds,
@@ -63,13 +114,50 @@ public class StockItemController {
                 page));
     }
 
+    @GetMapping("/availability")
+    public ResponseEntity<List<ProductAvailability>> findAvailability(@RequestParam(name = "productId") Long productId,
+                                                                      @RequestParam(name = "warehouseId", required = false) List<Long> warehouseIds) {
+        return ResponseEntity.ok(stockItemAvailabilityService.findAvailability(productId, warehouseIds));
+    }
+
+    @GetMapping("/inventory")
+    public ResponseEntity<List<InventoryPosition>> findInventoryAsOf(@RequestParam(name = "warehouseId") Long warehouseId,
+                                                                     @RequestParam(name = "asOf")
+                                                                     @DateTimeFormat(pattern = "dd-MM-yyyy'At'HH:mm:ss") LocalDateTime asOf) {
+        return ResponseEntity.ok(inventorySnapshotService.findInventoryAsOf(warehouseId, asOf));
+    }
+
+    @GetMapping("/forecasts")
+    public ResponseEntity<List<StockForecast>> findForecasts(@RequestParam(name = "warehouseId") Long warehouseId,
+                                                             @RequestParam(name = "maxDaysOfSupply", required = false) BigDecimal maxDaysOfSupply) {
+        return ResponseEntity.ok(stockForecastService.findForecasts(warehouseId, maxDaysOfSupply));
+    }
+
     @PostMapping
     public ResponseEntity<StockItem> create(@RequestBody StockItemDTO stockItemDTO) {
         return ResponseEntity.ok(stockItemService.create(stockItemDTO));
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<List<StockItemActionResultDTO>> createAll(@RequestBody List<StockItemDTO> stockItemDTOs) {
+        return ResponseEntity.ok(stockItemService.createAll(stockItemDTOs));
+    }
+
     @PutMapping
     public ResponseEntity<StockItem> update(@RequestBody StockItemDTO stockItemDTO) {
         return ResponseEntity.ok(stockItemService.update(stockItemDTO));
     }
+
+    @PutMapping("/count")
+    public ResponseEntity<List<StockItemQuantityChange>> adjustAvailableQuantities(@RequestBody List<StockItemDTO> stockItemDTOs) {
+        return ResponseEntity.ok(stockItemService.adjustAvailableQuantities(stockItemDTOs));
+    }
+
+    private StockItemView parseView(String view) {
+        try {
+            return StockItemView.valueOf(view.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid stock item view");
+        }
+    }
 }
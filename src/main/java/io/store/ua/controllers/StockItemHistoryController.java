@@ -1,15 +1,23 @@
 package io.store.ua.controllers;
 
 import io.store.ua.entity.immutable.StockItemHistory;
+import io.store.ua.enums.ExportFormat;
+import io.store.ua.service.ExportService;
 import io.store.ua.service.StockItemHistoryService;
+import io.store.ua.utility.EnumParser;
+import io.store.ua.utility.KeysetCursor;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,6 +26,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class StockItemHistoryController {
     private final StockItemHistoryService stockItemHistoryService;
+    private final ExportService exportService;
 
     @GetMapping("/findBy")
     public ResponseEntity<List<StockItemHistory>> findBy(@RequestParam(name = "stock_item_id", required = false) Long stockItemId,
@@ -25,12 +34,34 @@ public class StockItemHistoryController {
                                                          @DateTimeFormat(pattern = "dd-MM-yyyy'At'HH:mm:ss") LocalDateTime from,
                                                          @RequestParam(name = "to", required = false)
                                                          @DateTimeFormat(pattern = "dd-MM-yyyy'At'HH:mm:ss") LocalDateTime to,
+                                                         @RequestParam(name = "cursor", required = false) String cursor,
                                                          @RequestParam(name = "pageSize") int pageSize,
-                                                         @RequestParam(name = "page") int page) {
-        return ResponseEntity.ok(stockItemHistoryService.findBy(stockItemId,
-                from,
-                to,
+                                                         @RequestParam(name = "page", required = false, defaultValue = "1") int page) {
+        return KeysetCursor.respond(stockItemHistoryService.findBy(stockItemId,
+                        from,
+                        to,
+                        cursor,
+                        pageSize,
+                        page),
                 pageSize,
-                page));
+                StockItemHistory::getLoggedAt,
+                StockItemHistory::getId);
+    }
+
+    @GetMapping("/export")
+    public void export(@RequestParam(name = "stock_item_id", required = false) Long stockItemId,
+                       @RequestParam(name = "from", required = false)
+                       @DateTimeFormat(pattern = "dd-MM-yyyy'At'HH:mm:ss") LocalDateTime from,
+                       @RequestParam(name = "to", required = false)
+                       @DateTimeFormat(pattern = "dd-MM-yyyy'At'HH:mm:ss") LocalDateTime to,
+                       @RequestParam(name = "format", required = false, defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = EnumParser.parse(format, ExportFormat.class, "export format");
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"stock-items-history.%s\"".formatted(exportFormat.getExtension()));
+
+        exportService.exportStockItemHistory(stockItemId, from, to, exportFormat, response.getOutputStream());
     }
 }
@@ -1,15 +1,26 @@
 package io.store.ua.controllers;
 
 import io.store.ua.entity.Transaction;
+import io.store.ua.enums.ExportFormat;
 import io.store.ua.models.data.CheckoutFinancialInformation;
+import io.store.ua.models.data.PaymentInitiation;
+import io.store.ua.models.dto.TransactionActionResultDTO;
 import io.store.ua.models.dto.TransactionDTO;
+import io.store.ua.service.ExportService;
+import io.store.ua.service.PaymentInitiationService;
 import io.store.ua.service.TransactionService;
+import io.store.ua.utility.EnumParser;
+import io.store.ua.utility.KeysetCursor;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,6 +29,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TransactionController {
     private final TransactionService transactionService;
+    private final ExportService exportService;
+    private final PaymentInitiationService paymentInitiationService;
 
     @GetMapping("/findBy")
     public ResponseEntity<List<Transaction>> findBy(@RequestParam(name = "transactionId", required = false) String transactionId,
@@ -38,24 +51,47 @@ public class TransactionController {
                                                     @RequestParam(name = "status", required = false) String status,
                                                     @RequestParam(name = "beneficiaryId", required = false) Long beneficiaryId,
                                                     @RequestParam(name = "paymentProvider", required = false) String paymentProvider,
+                                                    @RequestParam(name = "cursor", required = false) String cursor,
                                                     @RequestParam(name = "pageSize") int pageSize,
-                                                    @RequestParam(name = "page") int page) {
-        return ResponseEntity.ok(transactionService.findBy(transactionId,
-                reference,
-                currency,
-                amountFrom,
-                amountTo,
-                createdFrom,
-                createdTo,
-                paidFrom,
-                paidTo,
-                flowType,
-                purpose,
-                status,
-                beneficiaryId,
-                paymentProvider,
+                                                    @RequestParam(name = "page", required = false, defaultValue = "1") int page) {
+        return KeysetCursor.respond(transactionService.findBy(transactionId,
+                        reference,
+                        currency,
+                        amountFrom,
+                        amountTo,
+                        createdFrom,
+                        createdTo,
+                        paidFrom,
+                        paidTo,
+                        flowType,
+                        purpose,
+                        status,
+                        beneficiaryId,
+                        paymentProvider,
+                        cursor,
+                        pageSize,
+                        page),
                 pageSize,
-                page));
+                Transaction::getCreatedAt,
+                Transaction::getId);
+    }
+
+    @GetMapping("/export")
+    public void export(@RequestParam(name = "createdFrom", required = false)
+                       @DateTimeFormat(pattern = "dd-MM-yyyy'At'HH:mm:ss") LocalDateTime createdFrom,
+                       @RequestParam(name = "createdTo", required = false)
+                       @DateTimeFormat(pattern = "dd-MM-yyyy'At'HH:mm:ss") LocalDateTime createdTo,
+                       @RequestParam(name = "status", required = false) String status,
+                       @RequestParam(name = "flowType", required = false) String flowType,
+                       @RequestParam(name = "format", required = false, defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = EnumParser.parse(format, ExportFormat.class, "export format");
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions.%s\"".formatted(exportFormat.getExtension()));
+
+        exportService.exportTransactions(createdFrom, createdTo, status, flowType, exportFormat, response.getOutputStream());
     }
 
     @PostMapping("/incoming/initiate")
@@ -70,11 +106,35 @@ public class TransactionController {
         return ResponseEntity.ok(transactionService.initiateOutcomingPayment(transactionDTO, autoSettle));
     }
 
+    @PostMapping("/incoming/initiateAsync")
+    public ResponseEntity<PaymentInitiation> initiateIncomingAsync(@RequestBody TransactionDTO transactionDTO,
+                                                                   @RequestParam(name = "autoSettle", required = false) Boolean autoSettle) {
+        return ResponseEntity.accepted()
+                .body(transactionService.initiateIncomingPaymentAsync(transactionDTO, autoSettle));
+    }
+
+    @PostMapping("/outgoing/initiateAsync")
+    public ResponseEntity<PaymentInitiation> initiateOutgoingAsync(@RequestBody TransactionDTO transactionDTO,
+                                                                   @RequestParam(name = "autoSettle", required = false) Boolean autoSettle) {
+        return ResponseEntity.accepted()
+                .body(transactionService.initiateOutcomingPaymentAsync(transactionDTO, autoSettle));
+    }
+
+    @GetMapping("/initiations")
+    public ResponseEntity<PaymentInitiation> findInitiation(@RequestParam(name = "id") Long id) {
+        return ResponseEntity.ok(paymentInitiationService.findById(id));
+    }
+
     @PostMapping("/settle")
     public ResponseEntity<Transaction> settle(@RequestBody TransactionDTO transactionDTO) {
         return ResponseEntity.ok(transactionService.settlePayment(transactionDTO));
     }
 
+    @PostMapping("/settle/all")
+    public ResponseEntity<List<TransactionActionResultDTO>> settleAll(@RequestBody List<TransactionDTO> transactionDTOs) {
+        return ResponseEntity.ok(transactionService.settlePayments(transactionDTOs));
+    }
+
     @PostMapping("/cancel")
     public ResponseEntity<Transaction> cancel(@RequestBody TransactionDTO transactionDTO) {
         return ResponseEntity.ok(transactionService.cancelPayment(transactionDTO));
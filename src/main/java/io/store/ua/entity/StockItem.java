@@ -57,4 +57,7 @@ public class StockItem {
     private Boolean isActive;
     @Column(name = "storage_section_id")
     private Long storageSectionId;
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
@@ -59,4 +59,6 @@ public class Transaction {
     @Enumerated(EnumType.STRING)
     @Column(name = "payment_provider")
     private PaymentProvider paymentProvider;
+    @Column(name = "idempotency_key", unique = true, updatable = false)
+    private String idempotencyKey;
 }
@@ -0,0 +1,16 @@
+package io.store.ua.enums;
+
+public enum PaymentInitiationStatus {
+    /**
+     * Waiting for the provider call or its result
+     */
+    PENDING,
+    /**
+     * Provider accepted the payment, the transaction holds its references
+     */
+    COMPLETED,
+    /**
+     * Provider rejected the payment or its outcome is unknown, the transaction is failed
+     */
+    FAILED
+}
@@ -0,0 +1,6 @@
+package io.store.ua.enums;
+
+public enum SalesRankingMetric {
+    QUANTITY,
+    REVENUE
+}
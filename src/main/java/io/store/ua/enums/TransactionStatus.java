@@ -1,6 +1,10 @@
 package io.store.ua.enums;
 
 public enum TransactionStatus {
+    /**
+     * Saved, but not yet sent to the payment provider
+     */
+    PENDING,
     INITIATED,
     SETTLED,
     FAILED,
@@ -5,7 +5,11 @@ import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
 public enum WebSocketTopic {
-    STOCK_ITEM_OUT_OF_STOCK("/stock_items");
+    STOCK_ITEM_OUT_OF_STOCK("/stock_items"),
+    STOCK_ITEM_EXPIRED("/stock_items/expired"),
+    STOCK_ITEMS_OUT_OF_STOCK("/stock_items/out_of_stock"),
+    STOCK_ITEMS_LOW_SUPPLY("/stock_items/low_supply"),
+    PAYMENT_INITIATIONS("/transactions/initiations");
 
     @Getter
     private final String topic;
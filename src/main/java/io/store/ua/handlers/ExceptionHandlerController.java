@@ -5,6 +5,7 @@ import io.store.ua.exceptions.ApplicationAuthenticationException;
 import jakarta.validation.ValidationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -44,6 +45,9 @@ public class ExceptionHandlerController {
                 || e instanceof HttpMessageNotReadableException || e instanceof HandlerMethodValidationException) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ApplicationException(e.getMessage(), HttpStatus.BAD_REQUEST));
+        } else if (e instanceof OptimisticLockingFailureException) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApplicationException("Resource was modified concurrently, reload it and try again", HttpStatus.CONFLICT));
         } else if (e instanceof AccessDeniedException || e instanceof AuthorizationDeniedException) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new ApplicationException(e.getMessage(), HttpStatus.FORBIDDEN));
@@ -0,0 +1,56 @@
+package io.store.ua.models.data;
+
+import io.store.ua.exceptions.NotFoundException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of currency rates, converts without touching the rate storage
+ */
+public record CurrencyRates(Map<String, BigDecimal> rates, LocalDateTime takenAt) {
+    public CurrencyRates {
+        rates = Map.copyOf(rates);
+    }
+
+    public boolean contains(String currency) {
+        return rates.containsKey(currency);
+    }
+
+    /**
+     * @param amount amount in cents of the base currency
+     * @return amount in cents of the target currency
+     */
+    public BigInteger convert(String baseCurrency, String targetCurrency, BigInteger amount) {
+        if (baseCurrency.equals(targetCurrency) || amount.signum() == 0) {
+            return amount;
+        }
+
+        BigDecimal targetRate = rates.get(targetCurrency);
+
+        if (targetRate == null) {
+            throw new NotFoundException("Unknown target currency: %s".formatted(targetCurrency));
+        }
+
+        BigDecimal baseRate = rates.get(baseCurrency);
+
+        if (baseRate == null) {
+            throw new NotFoundException("Unknown base currency: %s".formatted(baseCurrency));
+        }
+
+        return convert(amount, baseRate, targetRate);
+    }
+
+    public static BigInteger convert(BigInteger amount, BigDecimal baseRate, BigDecimal targetRate) {
+        return new BigDecimal(amount)
+                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP)
+                .multiply(targetRate)
+                .divide(baseRate, 2, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100))
+                .setScale(0, RoundingMode.HALF_UP)
+                .toBigIntegerExact();
+    }
+}
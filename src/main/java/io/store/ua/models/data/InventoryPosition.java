@@ -0,0 +1,15 @@
+package io.store.ua.models.data;
+
+import io.store.ua.enums.StockItemStatus;
+
+import java.math.BigInteger;
+
+/**
+ * State of a stock item at some point in time
+ */
+public record InventoryPosition(Long stockItemId,
+                                Long productId,
+                                Long warehouseId,
+                                BigInteger availableQuantity,
+                                StockItemStatus status) {
+}
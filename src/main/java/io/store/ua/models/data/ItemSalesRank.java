@@ -0,0 +1,29 @@
+package io.store.ua.models.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigInteger;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemSalesRank {
+    /**
+     * Warehouse or stock item group ID, depending on the ranking partition
+     */
+    private Long partitionId;
+    private Long stockItemId;
+    private Long productId;
+    private String currency;
+    private BigInteger soldQuantity;
+    private BigInteger totalRevenueAmount;
+    /**
+     * TOP for best-sellers, BOTTOM for slow-movers
+     */
+    private String direction;
+    private Long rank;
+}
@@ -0,0 +1,33 @@
+package io.store.ua.models.data;
+
+import io.store.ua.entity.Transaction;
+import io.store.ua.enums.PaymentInitiationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldNameConstants;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a payment initiated without waiting for the provider
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldNameConstants
+public class PaymentInitiation {
+    private Long id;
+    private PaymentInitiationStatus status;
+    private Integer attempts;
+    private Transaction transaction;
+    /**
+     * Set for completed incoming payments only
+     */
+    private CheckoutFinancialInformation checkout;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,24 @@
+package io.store.ua.models.data;
+
+import io.store.ua.entity.StockItem;
+import io.store.ua.enums.StockItemStatus;
+
+import java.math.BigInteger;
+
+/**
+ * Available quantity of product at warehouse, summed across active batches
+ */
+public record ProductAvailability(Long warehouseId, Long productId, BigInteger availableQuantity) {
+    /**
+     * @return part of the stock item quantity counted as available, inactive and switched off batches count as zero
+     */
+    public static ProductAvailability of(StockItem stockItem) {
+        return new ProductAvailability(stockItem.getWarehouseId(),
+                stockItem.getProductId(),
+                isCounted(stockItem.getIsActive(), stockItem.getStatus()) ? stockItem.getAvailableQuantity() : BigInteger.ZERO);
+    }
+
+    public static boolean isCounted(Boolean isActive, StockItemStatus status) {
+        return Boolean.TRUE.equals(isActive) && status != StockItemStatus.OUT_OF_SERVICE;
+    }
+}
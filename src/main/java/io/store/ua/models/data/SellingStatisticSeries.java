@@ -0,0 +1,21 @@
+package io.store.ua.models.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SellingStatisticSeries {
+    /**
+     * Null when the series aggregates all stock items of the product
+     */
+    private Long stockItemId;
+    private Long productId;
+    private List<ItemSellingStatistic.Statistic> statistics;
+}
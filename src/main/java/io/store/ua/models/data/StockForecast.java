@@ -0,0 +1,30 @@
+package io.store.ua.models.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+/**
+ * Projected supply of a product in a warehouse
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockForecast {
+    private Long warehouseId;
+    private Long productId;
+    private BigInteger availableQuantity;
+    private BigDecimal averageDailyOutflow;
+    /**
+     * Null when the product had no outflow during the forecast window
+     */
+    private BigDecimal daysOfSupply;
+    private BigInteger reorderPoint;
+    private LocalDateTime computedAt;
+}
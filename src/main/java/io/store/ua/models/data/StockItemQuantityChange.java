@@ -0,0 +1,28 @@
+package io.store.ua.models.data;
+
+import io.store.ua.enums.StockItemStatus;
+
+import java.math.BigInteger;
+
+public record StockItemQuantityChange(Long stockItemId,
+                                      Long productId,
+                                      Long warehouseId,
+                                      Boolean isActive,
+                                      BigInteger quantityBefore,
+                                      BigInteger quantityAfter,
+                                      StockItemStatus statusBefore,
+                                      StockItemStatus statusAfter) {
+    public boolean isOutOfStock() {
+        return statusBefore == StockItemStatus.AVAILABLE && statusAfter == StockItemStatus.OUT_OF_STOCK;
+    }
+
+    public ProductAvailability availabilityBefore() {
+        return new ProductAvailability(warehouseId, productId,
+                ProductAvailability.isCounted(isActive, statusBefore) ? quantityBefore : BigInteger.ZERO);
+    }
+
+    public ProductAvailability availabilityAfter() {
+        return new ProductAvailability(warehouseId, productId,
+                ProductAvailability.isCounted(isActive, statusAfter) ? quantityAfter : BigInteger.ZERO);
+    }
+}
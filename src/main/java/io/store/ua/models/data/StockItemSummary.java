@@ -0,0 +1,25 @@
+package io.store.ua.models.data;
+
+import io.store.ua.enums.StockItemStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+
+/**
+ * Flat read model of stock item with product code and title, used instead of the full entity graph
+ */
+public record StockItemSummary(Long id,
+                               String code,
+                               Long batchVersion,
+                               Long productId,
+                               String productCode,
+                               String productTitle,
+                               Long stockItemGroupId,
+                               Long warehouseId,
+                               Long storageSectionId,
+                               @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate expiryDate,
+                               BigInteger availableQuantity,
+                               StockItemStatus status,
+                               Boolean isActive) {
+}
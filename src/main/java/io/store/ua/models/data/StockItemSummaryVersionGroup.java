@@ -0,0 +1,6 @@
+package io.store.ua.models.data;
+
+import java.util.List;
+
+public record StockItemSummaryVersionGroup(StockItemSummary baseVersion, List<StockItemSummary> otherVersions) {
+}
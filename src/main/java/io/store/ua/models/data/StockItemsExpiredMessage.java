@@ -0,0 +1,22 @@
+package io.store.ua.models.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldNameConstants;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldNameConstants
+public class StockItemsExpiredMessage {
+    private Long warehouseId;
+    private Long expiredCount;
+    /**
+     * Stock items still in service that expire within the sweep horizon
+     */
+    private Long expiringCount;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package io.store.ua.models.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldNameConstants;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldNameConstants
+public class StockItemsLowSupplyMessage {
+    private Long warehouseId;
+    private List<StockForecast> forecasts;
+    private String message;
+}
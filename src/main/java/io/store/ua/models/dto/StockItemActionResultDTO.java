@@ -0,0 +1,17 @@
+package io.store.ua.models.dto;
+
+import io.store.ua.entity.StockItem;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockItemActionResultDTO {
+    private StockItem stockItem;
+    private Boolean success;
+    private Throwable error;
+}
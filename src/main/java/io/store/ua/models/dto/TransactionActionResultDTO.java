@@ -0,0 +1,17 @@
+package io.store.ua.models.dto;
+
+import io.store.ua.entity.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionActionResultDTO {
+    private Transaction transaction;
+    private Boolean success;
+    private Throwable error;
+}
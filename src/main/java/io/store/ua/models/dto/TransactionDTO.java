@@ -9,6 +9,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldNameConstants;
+import org.hibernate.validator.constraints.Length;
 
 import java.math.BigInteger;
 
@@ -37,4 +38,9 @@ public class TransactionDTO {
     private Long beneficiaryId;
     @NotNull(message = "Payment provider can't be null")
     private String paymentProvider;
+    /**
+     * Client supplied key of a synchronised transaction, repeated messages with the same key are dropped
+     */
+    @Length(min = 1, max = 128, message = "Idempotency key length should be in range [1; 128]")
+    private String idempotencyKey;
 }
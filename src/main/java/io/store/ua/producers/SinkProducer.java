@@ -42,7 +42,11 @@ public class SinkProducer {
                 TransactionDTO.Fields.currency,
                 TransactionDTO.Fields.beneficiaryId,
                 TransactionDTO.Fields.paymentProvider);
-        var key = CodeGenerator.KafkaCodeGenerator.generate(UUID.randomUUID().toString());
+        fieldValidator.validate(transactionDTO, TransactionDTO.Fields.idempotencyKey, false);
+        // The key is what the consumer deduplicates by, so a client retry with the same idempotency key gets the same one
+        var key = transactionDTO.getIdempotencyKey() != null
+                ? transactionDTO.getIdempotencyKey()
+                : CodeGenerator.KafkaCodeGenerator.generate(UUID.randomUUID().toString());
 
         kafkaTemplate.send(TRANSACTION_TOPIC, key, transactionDTO);
 
@@ -3,8 +3,14 @@ package io.store.ua.repository;
 import io.store.ua.entity.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Optional<Transaction> findByTransactionId(String transactionId);
+
+    boolean existsByIdempotencyKey(String idempotencyKey);
+
+    List<Transaction> findAllByTransactionIdIn(Collection<String> transactionIds);
 }
@@ -0,0 +1,241 @@
+package io.store.ua.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.store.ua.utility.RegularObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache of analytics results: a small in-process LRU tier in front of Redis.
+ * Keys carry a generation of their owner (a stock item or a beneficiary),
+ * the database notifies about committed writes that change an owner's results and the generation is bumped,
+ * so stale entries are never read again and simply expire
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyticsCacheService {
+    public static final String ITEM_SCOPE = "item";
+    public static final String BENEFICIARY_SCOPE = "beneficiary";
+
+    private static final String CHANNEL = "analytics_invalidation";
+    private static final String KEY_PREFIX = "analytics:";
+    private static final String EPOCH_KEY = KEY_PREFIX + "epoch";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${analytics.cache.enabled:true}")
+    private boolean enabled;
+    @Value("${analytics.cache.local.maxEntries:1000}")
+    private int localMaxEntries;
+    @Value("${analytics.cache.local.ttlSeconds:60}")
+    private long localTtlSeconds;
+    @Value("${analytics.cache.redis.ttlSeconds:900}")
+    private long redisTtlSeconds;
+
+    private final Map<String, Long> localGenerations = new ConcurrentHashMap<>();
+    private Map<String, LocalEntry> localEntries;
+    private volatile long localEpoch;
+    private Thread listenerThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+
+        localEntries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+                return size() > localMaxEntries;
+            }
+        };
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("analytics-cache-invalidation")
+                .daemon()
+                .start(this::listen);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        running = false;
+        listenerThread.interrupt();
+        listenerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * @param scope      kind of the owner, {@link #ITEM_SCOPE} or {@link #BENEFICIARY_SCOPE}
+     * @param ownerId    ID of the owner whose writes invalidate the result
+     * @param parameters the rest of the query parameters
+     * @param loader     computes the result on a miss
+     */
+    public <T> T get(String scope, Long ownerId, String parameters, Class<T> type, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String owner = scope + ":" + ownerId;
+        String localKey = "%s:%s:%s:%s".formatted(owner, localEpoch, localGenerations.getOrDefault(owner, 0L), parameters);
+        long now = System.currentTimeMillis();
+
+        synchronized (localEntries) {
+            LocalEntry localEntry = localEntries.get(localKey);
+
+            if (localEntry != null && localEntry.expiresAt() > now) {
+                count(scope, "local_hit");
+                return type.cast(localEntry.value());
+            }
+        }
+
+        String redisKey = null;
+
+        try {
+            List<String> generations = stringRedisTemplate.opsForValue().multiGet(List.of(EPOCH_KEY, generationKey(owner)));
+            redisKey = "%s%s:%s:%s:%s".formatted(KEY_PREFIX,
+                    owner,
+                    Objects.requireNonNullElse(generations.get(0), "0"),
+                    Objects.requireNonNullElse(generations.get(1), "0"),
+                    parameters);
+            String cached = stringRedisTemplate.opsForValue().get(redisKey);
+
+            if (cached != null) {
+                T value = RegularObjectMapper.read(cached, type);
+                putLocal(localKey, value, now);
+                count(scope, "redis_hit");
+                return value;
+            }
+        } catch (Exception e) {
+            log.warn("Analytics cache can't be read from Redis: {}", e.getMessage());
+        }
+
+        count(scope, "miss");
+        T value = loader.get();
+        putLocal(localKey, value, now);
+
+        if (redisKey != null) {
+            try {
+                stringRedisTemplate.opsForValue().set(redisKey, RegularObjectMapper.writeToString(value), Duration.ofSeconds(redisTtlSeconds));
+            } catch (Exception e) {
+                log.warn("Analytics cache can't be written to Redis: {}", e.getMessage());
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Makes every cached result of the owner stale, on this instance and in Redis
+     */
+    public void invalidate(String scope, Long ownerId) {
+        String owner = scope + ":" + ownerId;
+
+        try {
+            stringRedisTemplate.opsForValue().increment(generationKey(owner));
+        } catch (Exception e) {
+            log.warn("Analytics cache generation of '{}' can't be bumped in Redis: {}", owner, e.getMessage());
+        }
+
+        localGenerations.merge(owner, 1L, Long::sum);
+    }
+
+    private void listen() {
+        boolean reconnected = false;
+
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                // Notifications sent while the listener was disconnected are lost, nothing cached before can be trusted
+                if (reconnected) {
+                    invalidateAll();
+                }
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+
+                    if (notifications == null) {
+                        continue;
+                    }
+
+                    for (PGNotification notification : notifications) {
+                        String[] owner = notification.getParameter().split(":", 2);
+                        invalidate(owner[0], Long.valueOf(owner[1]));
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+
+                log.warn("Analytics cache invalidation listener was disconnected", e);
+                reconnected = true;
+
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(5));
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void invalidateAll() {
+        try {
+            stringRedisTemplate.opsForValue().increment(EPOCH_KEY);
+        } catch (Exception e) {
+            log.warn("Analytics cache epoch can't be bumped in Redis: {}", e.getMessage());
+        }
+
+        synchronized (localEntries) {
+            localEpoch++;
+            localEntries.clear();
+        }
+    }
+
+    private void putLocal(String localKey, Object value, long now) {
+        synchronized (localEntries) {
+            localEntries.put(localKey, new LocalEntry(value, now + TimeUnit.SECONDS.toMillis(localTtlSeconds)));
+        }
+    }
+
+    private void count(String scope, String result) {
+        meterRegistry.counter("analytics.cache.requests", "scope", scope, "result", result).increment();
+    }
+
+    private static String generationKey(String owner) {
+        return KEY_PREFIX + "generation:" + owner;
+    }
+
+    private record LocalEntry(Object value, long expiresAt) {
+    }
+}
@@ -1,34 +1,70 @@
 package io.store.ua.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.store.ua.configuration.ApplicationJdbcConfiguration;
 import io.store.ua.entity.Beneficiary;
 import io.store.ua.entity.Transaction;
-import io.store.ua.entity.immutable.StockItemHistory;
+import io.store.ua.enums.SalesRankingMetric;
+import io.store.ua.enums.SalesRankingPartition;
 import io.store.ua.enums.TransactionFlowType;
 import io.store.ua.enums.TransactionStatus;
+import io.store.ua.exceptions.NotFoundException;
 import io.store.ua.models.data.BeneficiaryFinancialFlowStatistic;
+import io.store.ua.models.data.CurrencyRates;
 import io.store.ua.models.data.FinancialStatistic;
+import io.store.ua.models.data.ItemSalesRank;
 import io.store.ua.models.data.ItemSellingStatistic;
+import io.store.ua.models.data.SellingStatisticSeries;
+import io.store.ua.utility.RegularObjectMapper;
+import io.store.ua.utility.SqlResourceReader;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ValidationException;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
 import org.springframework.validation.annotation.Validated;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigInteger;
+import java.sql.Types;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
 @Validated
 public class AnalyticsService {
     private final EntityManager entityManager;
-
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Qualifier(ApplicationJdbcConfiguration.CURSOR_JDBC_TEMPLATE)
+    private final NamedParameterJdbcTemplate cursorJdbcTemplate;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final CurrencyRateService currencyRateService;
+
+    @Value("${analytics.conversion.parallelThreshold:1000}")
+    private int parallelConversionThreshold;
+
+    /**
+     * Reads the daily sales rollup and merges sales not rolled up yet, so the result is always up to date.
+     * Results are cached until a new sale of the stock item is written
+     */
     public ItemSellingStatistic fetchItemSellingStatistic(@NotNull(message = "Stock item ID can't be null")
                                                           @Min(value = 1, message = "Stock item ID can't be less than 1")
                                                           Long stockItemId,
@@ -40,65 +76,156 @@ public class AnalyticsService {
             throw new IllegalArgumentException("A 'from' must not be after 'to'");
         }
 
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<ItemSellingStatistic.Statistic> criteriaQuery = criteriaBuilder.createQuery(ItemSellingStatistic.Statistic.class);
-        Root<StockItemHistory> root = criteriaQuery.from(StockItemHistory.class);
-
-        Expression<BigInteger> quantityBefore = criteriaBuilder.<BigInteger>coalesce()
-                .value(root.get(StockItemHistory.Fields.quantityBefore)).value(BigInteger.ZERO);
-        Expression<BigInteger> quantityAfter = criteriaBuilder.<BigInteger>coalesce()
-                .value(root.get(StockItemHistory.Fields.quantityAfter)).value(BigInteger.ZERO);
-
-        Expression<BigInteger> delta = criteriaBuilder.diff(quantityBefore, quantityAfter);
-        Expression<BigInteger> zero = criteriaBuilder.literal(BigInteger.ZERO);
-
-        Path<Long> stockItemIdPath = root.get(StockItemHistory.Fields.stockItemId);
-        Path<LocalDateTime> loggedAtPath = root.get(StockItemHistory.Fields.loggedAt);
-        Path<String> currencyPath = root.get(StockItemHistory.Fields.currency);
+        return analyticsCacheService.get(AnalyticsCacheService.ITEM_SCOPE,
+                stockItemId,
+                "%s:%s:%s:%s".formatted(from, to, pageSize, page),
+                ItemSellingStatistic.class,
+                () -> loadItemSellingStatistic(stockItemId, from, to, pageSize, page));
+    }
 
-        Expression<LocalDate> startDateExpression = criteriaBuilder.function("DATE", LocalDate.class, loggedAtPath);
+    private ItemSellingStatistic loadItemSellingStatistic(Long stockItemId, LocalDate from, LocalDate to, int pageSize, int page) {
+        List<ItemSellingStatistic.Statistic> statistics = namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("findItemSellingStatistic"),
+                new MapSqlParameterSource()
+                        .addValue("stockItemId", stockItemId)
+                        .addValue("from", from, Types.DATE)
+                        .addValue("to", to, Types.DATE)
+                        .addValue("limit", pageSize)
+                        .addValue("offset", (page - 1) * pageSize),
+                (resultSet, ignore) -> new ItemSellingStatistic.Statistic(resultSet.getObject("sale_date", LocalDate.class),
+                        resultSet.getBigDecimal("sold_quantity").toBigInteger(),
+                        resultSet.getBigDecimal("total_revenue_amount").toBigInteger(),
+                        resultSet.getString("currency")));
 
-        List<Predicate> predicates = new ArrayList<>();
-        predicates.add(criteriaBuilder.equal(stockItemIdPath, stockItemId));
+        return ItemSellingStatistic.builder()
+                .stockItemId(stockItemId)
+                .statistics(statistics)
+                .build();
+    }
 
-        if (from != null) {
-            predicates.add(criteriaBuilder.greaterThanOrEqualTo(loggedAtPath, from.atStartOfDay()));
+    /**
+     * Computes the selling statistic of every matched stock item in a single query
+     * and writes it as NDJSON, one series per stock item or per product, only the current series is held in memory
+     *
+     * @param groupByProduct aggregates all stock items of a product into one series
+     * @return amount of written series
+     */
+    @Transactional
+    public long streamItemSellingStatistics(List<Long> stockItemIds,
+                                            List<Long> productIds,
+                                            List<Long> warehouseIds,
+                                            LocalDate from,
+                                            LocalDate to,
+                                            boolean groupByProduct,
+                                            @NotNull(message = "Output can't be null") OutputStream outputStream) {
+        if (CollectionUtils.isEmpty(stockItemIds) && CollectionUtils.isEmpty(productIds) && CollectionUtils.isEmpty(warehouseIds)) {
+            throw new ValidationException("At least one stock item, product or warehouse ID must be provided");
         }
-        if (to != null) {
-            predicates.add(criteriaBuilder.lessThan(loggedAtPath, to.plusDays(1).atStartOfDay()));
+
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("A 'from' must not be after 'to'");
         }
 
-        predicates.add(criteriaBuilder.greaterThan(
-                root.get(StockItemHistory.Fields.quantityBefore),
-                root.get(StockItemHistory.Fields.quantityAfter)));
+        try (JsonGenerator jsonGenerator = RegularObjectMapper.INSTANCE.getFactory().createGenerator(outputStream)) {
+            jsonGenerator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            jsonGenerator.setRootValueSeparator(new SerializedString("\n"));
+
+            long written = cursorJdbcTemplate.query(SqlResourceReader.getSQL("findItemSellingStatistics"),
+                    new MapSqlParameterSource()
+                            .addValue("stockItemIds", toArray(stockItemIds))
+                            .addValue("productIds", toArray(productIds))
+                            .addValue("warehouseIds", toArray(warehouseIds))
+                            .addValue("groupByProduct", groupByProduct)
+                            .addValue("from", from, Types.DATE)
+                            .addValue("to", to, Types.DATE),
+                    resultSet -> {
+                        long series = 0;
+                        SellingStatisticSeries current = null;
+
+                        while (resultSet.next()) {
+                            Long productId = resultSet.getLong("product_id");
+                            Long stockItemId = resultSet.getObject("stock_item_id", Long.class);
+
+                            if (current == null
+                                    || !current.getProductId().equals(productId)
+                                    || !Objects.equals(current.getStockItemId(), stockItemId)) {
+                                if (current != null) {
+                                    writeSeries(jsonGenerator, current);
+                                    series++;
+                                }
+
+                                current = SellingStatisticSeries.builder()
+                                        .stockItemId(stockItemId)
+                                        .productId(productId)
+                                        .statistics(new ArrayList<>())
+                                        .build();
+                            }
+
+                            current.getStatistics().add(new ItemSellingStatistic.Statistic(resultSet.getObject("sale_date", LocalDate.class),
+                                    resultSet.getBigDecimal("sold_quantity").toBigInteger(),
+                                    resultSet.getBigDecimal("total_revenue_amount").toBigInteger(),
+                                    resultSet.getString("currency")));
+                        }
+
+                        if (current != null) {
+                            writeSeries(jsonGenerator, current);
+                            series++;
+                        }
+
+                        return series;
+                    });
+
+            if (written > 0) {
+                jsonGenerator.writeRaw('\n');
+            }
+
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        Expression<BigInteger> soldQuantityExpression = criteriaBuilder.<BigInteger>selectCase()
-                .when(criteriaBuilder.greaterThan(delta, zero), delta)
-                .otherwise(zero);
+    /**
+     * Ranks stock items of every warehouse or group by sold quantity or revenue in one query,
+     * stock items without sales in the range are ranked as well, so they show up as slow-movers.
+     * Revenue is ranked within a currency of the product, amounts of different currencies aren't comparable
+     *
+     * @return best-sellers and slow-movers, ordered by partition, direction and rank
+     */
+    public List<ItemSalesRank> rankItemSales(List<Long> warehouseIds,
+                                             List<Long> stockItemGroupIds,
+                                             @NotNull(message = "Ranking partition can't be null") SalesRankingPartition partitionBy,
+                                             @NotNull(message = "Ranking metric can't be null") SalesRankingMetric metric,
+                                             LocalDate from,
+                                             LocalDate to,
+                                             @Min(value = 1, message = "Limit can't be less than 1")
+                                             @Max(value = 100, message = "Limit can't be greater than 100") int limit) {
+        if (CollectionUtils.isEmpty(warehouseIds) && CollectionUtils.isEmpty(stockItemGroupIds)) {
+            throw new ValidationException("At least one warehouse or stock item group ID must be provided");
+        }
 
-        Path<BigInteger> currentProductPricePath = root.get(StockItemHistory.Fields.currentProductPrice);
-        Expression<BigInteger> totalRevenueAmountExpression = criteriaBuilder.prod(currentProductPricePath, soldQuantityExpression);
-
-        criteriaQuery.select(criteriaBuilder.construct(
-                        ItemSellingStatistic.Statistic.class,
-                        startDateExpression,
-                        criteriaBuilder.sum(soldQuantityExpression),
-                        criteriaBuilder.sum(totalRevenueAmountExpression),
-                        currencyPath
-                ))
-                .where(predicates.toArray(Predicate[]::new))
-                .groupBy(startDateExpression, currencyPath)
-                .orderBy(criteriaBuilder.desc(startDateExpression), criteriaBuilder.asc(currencyPath));
-
-        List<ItemSellingStatistic.Statistic> statistics = entityManager.createQuery(criteriaQuery)
-                .setMaxResults(pageSize)
-                .setFirstResult((page - 1) * pageSize)
-                .getResultList();
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("A 'from' must not be after 'to'");
+        }
 
-        return ItemSellingStatistic.builder()
-                .stockItemId(stockItemId)
-                .statistics(statistics)
-                .build();
+        return namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("rankItemSales"),
+                new MapSqlParameterSource()
+                        .addValue("warehouseIds", toArray(warehouseIds))
+                        .addValue("groupIds", toArray(stockItemGroupIds))
+                        .addValue("partitionBy", partitionBy.name())
+                        .addValue("metric", metric.name())
+                        .addValue("from", from, Types.DATE)
+                        .addValue("to", to, Types.DATE)
+                        .addValue("limit", limit),
+                (resultSet, ignore) -> ItemSalesRank.builder()
+                        .partitionId(resultSet.getLong("partition_id"))
+                        .stockItemId(resultSet.getLong("stock_item_id"))
+                        .productId(resultSet.getLong("product_id"))
+                        .currency(resultSet.getString("currency"))
+                        .soldQuantity(resultSet.getBigDecimal("sold_quantity").toBigInteger())
+                        .totalRevenueAmount(resultSet.getBigDecimal("total_revenue_amount").toBigInteger())
+                        .direction(resultSet.getString("direction"))
+                        .rank(resultSet.getLong("rank"))
+                        .build());
     }
 
     public BeneficiaryFinancialFlowStatistic fetchBeneficiaryFinancialStatistic(@NotNull(message = "Beneficiary ID can't be null")
@@ -112,6 +239,62 @@ public class AnalyticsService {
             throw new IllegalArgumentException("A 'from' must not be after 'to'");
         }
 
+        return analyticsCacheService.get(AnalyticsCacheService.BENEFICIARY_SCOPE,
+                beneficiaryId,
+                "%s:%s:%s:%s".formatted(from, to, pageSize, page),
+                BeneficiaryFinancialFlowStatistic.class,
+                () -> loadBeneficiaryFinancialStatistic(beneficiaryId, from, to, pageSize, page));
+    }
+
+    /**
+     * Sums debit and credit of all currencies into the target currency,
+     * every per-currency total is converted against one in-memory snapshot of the rates
+     */
+    public BeneficiaryFinancialFlowStatistic fetchNormalizedBeneficiaryFinancialStatistic(@NotNull(message = "Beneficiary ID can't be null")
+                                                                                          @Min(value = 1, message = "Beneficiary ID can't be less than 1")
+                                                                                          Long beneficiaryId,
+                                                                                          LocalDate from,
+                                                                                          LocalDate to,
+                                                                                          @NotBlank(message = "Target currency can't be blank")
+                                                                                          String targetCurrency) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("A 'from' must not be after 'to'");
+        }
+
+        String currency = targetCurrency.trim().toUpperCase();
+        CurrencyRates currencyRates = currencyRateService.snapshotRates();
+
+        if (!currencyRates.contains(currency)) {
+            throw new NotFoundException("Unknown target currency: %s".formatted(currency));
+        }
+
+        BeneficiaryFinancialFlowStatistic statistic = analyticsCacheService.get(AnalyticsCacheService.BENEFICIARY_SCOPE,
+                beneficiaryId,
+                "%s:%s:all".formatted(from, to),
+                BeneficiaryFinancialFlowStatistic.class,
+                () -> loadBeneficiaryFinancialStatistic(beneficiaryId, from, to, Integer.MAX_VALUE, 1));
+
+        List<FinancialStatistic> rows = statistic.getFinancialStatistic();
+        FinancialStatistic normalized = (rows.size() >= parallelConversionThreshold ? rows.parallelStream() : rows.stream())
+                .map(row -> new FinancialStatistic(currency,
+                        currencyRates.convert(row.getCurrency(), currency, row.getTotalDebit()),
+                        currencyRates.convert(row.getCurrency(), currency, row.getTotalCredit())))
+                .reduce(new FinancialStatistic(currency, BigInteger.ZERO, BigInteger.ZERO),
+                        (left, right) -> new FinancialStatistic(currency,
+                                left.getTotalDebit().add(right.getTotalDebit()),
+                                left.getTotalCredit().add(right.getTotalCredit())));
+
+        return BeneficiaryFinancialFlowStatistic.builder()
+                .beneficiary(statistic.getBeneficiary())
+                .financialStatistic(List.of(normalized))
+                .build();
+    }
+
+    private BeneficiaryFinancialFlowStatistic loadBeneficiaryFinancialStatistic(Long beneficiaryId,
+                                                                                LocalDate from,
+                                                                                LocalDate to,
+                                                                                int pageSize,
+                                                                                int page) {
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
         CriteriaQuery<FinancialStatistic> criteriaQuery =
                 criteriaBuilder.createQuery(FinancialStatistic.class);
@@ -183,4 +366,16 @@ public class AnalyticsService {
                 .financialStatistic(statistics)
                 .build();
     }
+
+    private static void writeSeries(JsonGenerator jsonGenerator, SellingStatisticSeries series) {
+        try {
+            RegularObjectMapper.INSTANCE.writeValue(jsonGenerator, series);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Long[] toArray(List<Long> ids) {
+        return ids == null ? new Long[0] : ids.toArray(Long[]::new);
+    }
 }
@@ -3,6 +3,7 @@ package io.store.ua.service;
 import io.store.ua.entity.cache.CurrencyRate;
 import io.store.ua.exceptions.HealthCheckException;
 import io.store.ua.exceptions.NotFoundException;
+import io.store.ua.models.data.CurrencyRates;
 import io.store.ua.repository.cache.CurrencyRateRepository;
 import io.store.ua.service.external.OpenExchangeRateAPIService;
 import jakarta.validation.constraints.Min;
@@ -19,8 +20,11 @@ import org.springframework.validation.annotation.Validated;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -66,13 +70,22 @@ public class CurrencyRateService {
                 .map(CurrencyRate::getRate)
                 .orElseThrow(() -> new NotFoundException("Unknown base currency: %s".formatted(baseCurrency)));
 
-        return new BigDecimal(amount)
-                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP)
-                .multiply(targetRate)
-                .divide(baseRate, 2, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100))
-                .setScale(0, RoundingMode.HALF_UP)
-                .toBigIntegerExact();
+        return CurrencyRates.convert(amount, baseRate, targetRate);
+    }
+
+    /**
+     * Reads all rates at once into memory, for converting many amounts without a lookup per amount
+     */
+    public CurrencyRates snapshotRates() {
+        Map<String, BigDecimal> rates = new HashMap<>();
+
+        for (CurrencyRate currencyRate : currencyRateRepository.findAll()) {
+            if (currencyRate != null && currencyRate.getRate() != null) {
+                rates.put(currencyRate.getCurrencyCode(), currencyRate.getRate());
+            }
+        }
+
+        return new CurrencyRates(rates, LocalDateTime.now(Clock.systemUTC()));
     }
 
     public BigDecimal convertFromCentsToCurrencyUnit(@NotBlank(message = "Base currency can't be blank") String baseCurrency,
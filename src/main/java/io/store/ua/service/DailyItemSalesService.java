@@ -0,0 +1,79 @@
+package io.store.ua.service;
+
+import io.store.ua.utility.SqlResourceReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the daily item sales rollup up to date.
+ * Every quantity-decreasing history row is recorded as a pending sale by a trigger,
+ * pending sales are added to the rollup in batches, history written before the trigger existed is backfilled in ID ranges
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyItemSalesService {
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${analytics.itemSales.batchSize:5000}")
+    private int batchSize;
+    @Value("${analytics.itemSales.backfill.batchSize:50000}")
+    private int backfillBatchSize;
+    /**
+     * Limits a single run, so the backfill of a large history doesn't hold the scheduler
+     */
+    @Value("${analytics.itemSales.backfill.maxBatchesPerRun:20}")
+    private int backfillMaxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${analytics.itemSales.rollupIntervalSeconds:30}", timeUnit = TimeUnit.SECONDS, initialDelay = 0)
+    public void rollUp() {
+        rollUpPending();
+        backfill(backfillMaxBatchesPerRun);
+    }
+
+    /**
+     * @return amount of pending sales added to the rollup
+     */
+    public long rollUpPending() {
+        long rolledUp = 0;
+        long rolledUpInBatch;
+
+        do {
+            rolledUpInBatch = namedParameterJdbcTemplate.queryForObject(SqlResourceReader.getSQL("rollUpDailyItemSales"),
+                    new MapSqlParameterSource("batchSize", batchSize),
+                    Long.class);
+            rolledUp += rolledUpInBatch;
+        } while (rolledUpInBatch == batchSize);
+
+        return rolledUp;
+    }
+
+    /**
+     * @return amount of processed history ID ranges
+     */
+    public int backfill(int maxBatches) {
+        int batches = 0;
+
+        while (batches < maxBatches) {
+            Long backfilledUpTo = namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("backfillDailyItemSales"),
+                    new MapSqlParameterSource("batchSize", backfillBatchSize),
+                    resultSet -> resultSet.next() ? resultSet.getLong("to_id") : null);
+
+            if (backfilledUpTo == null) {
+                break;
+            }
+
+            batches++;
+            log.debug("Daily item sales were backfilled up to history ID '{}'", backfilledUpTo);
+        }
+
+        return batches;
+    }
+}
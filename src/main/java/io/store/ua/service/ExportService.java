@@ -0,0 +1,85 @@
+package io.store.ua.service;
+
+import io.store.ua.configuration.ApplicationJdbcConfiguration;
+import io.store.ua.enums.ExportFormat;
+import io.store.ua.enums.TransactionFlowType;
+import io.store.ua.enums.TransactionStatus;
+import io.store.ua.utility.EnumParser;
+import io.store.ua.utility.ResultSetExporter;
+import io.store.ua.utility.SqlResourceReader;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ValidationException;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.io.OutputStream;
+import java.sql.Types;
+import java.time.LocalDateTime;
+
+/**
+ * Streams history and transaction rows straight from a server-side cursor into the output,
+ * rows are fetched in chunks of the configured fetch size, so memory use doesn't depend on the export size
+ */
+@Service
+@RequiredArgsConstructor
+@Validated
+public class ExportService {
+    @Qualifier(ApplicationJdbcConfiguration.CURSOR_JDBC_TEMPLATE)
+    private final NamedParameterJdbcTemplate cursorJdbcTemplate;
+
+    /**
+     * PostgreSQL driver uses a cursor for a fetch size only with auto-commit off, hence the transaction
+     *
+     * @return amount of exported rows
+     */
+    @Transactional
+    public long exportStockItemHistory(Long stockItemId,
+                                       LocalDateTime from,
+                                       LocalDateTime to,
+                                       @NotNull(message = "Export format can't be null") ExportFormat format,
+                                       @NotNull(message = "Output can't be null") OutputStream outputStream) {
+        validateRange(from, to);
+
+        return cursorJdbcTemplate.query(SqlResourceReader.getSQL("exportStockItemHistory"),
+                new MapSqlParameterSource()
+                        .addValue("stockItemId", stockItemId, Types.BIGINT)
+                        .addValue("from", from, Types.TIMESTAMP)
+                        .addValue("to", to, Types.TIMESTAMP),
+                new ResultSetExporter(format, outputStream));
+    }
+
+    /**
+     * @return amount of exported rows
+     */
+    @Transactional
+    public long exportTransactions(LocalDateTime createdFrom,
+                                   LocalDateTime createdTo,
+                                   String status,
+                                   String flowType,
+                                   @NotNull(message = "Export format can't be null") ExportFormat format,
+                                   @NotNull(message = "Output can't be null") OutputStream outputStream) {
+        validateRange(createdFrom, createdTo);
+
+        return cursorJdbcTemplate.query(SqlResourceReader.getSQL("exportTransactions"),
+                new MapSqlParameterSource()
+                        .addValue("createdFrom", createdFrom, Types.TIMESTAMP)
+                        .addValue("createdTo", createdTo, Types.TIMESTAMP)
+                        .addValue("status", StringUtils.isBlank(status) ? null
+                                : EnumParser.parse(status, TransactionStatus.class, "status").name(), Types.VARCHAR)
+                        .addValue("flowType", StringUtils.isBlank(flowType) ? null
+                                : EnumParser.parse(flowType, TransactionFlowType.class, "flow type").name(), Types.VARCHAR),
+                new ResultSetExporter(format, outputStream));
+    }
+
+    private static void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ValidationException("A 'from' must not be after 'to'");
+        }
+    }
+}
@@ -2,11 +2,19 @@ package io.store.ua.service;
 
 import io.store.ua.entity.Transaction;
 import io.store.ua.enums.PaymentProvider;
+import io.store.ua.enums.TransactionStatus;
 import io.store.ua.models.data.CheckoutFinancialInformation;
 
 public interface FinancialAPIService {
     PaymentProvider provider();
 
+    /**
+     * Whether a payment can be settled right away when it's initiated
+     */
+    default boolean supportsSettlementOnInitiation() {
+        return true;
+    }
+
     default CheckoutFinancialInformation initiateIncomingPayment(Transaction transaction, boolean settleOnInitiation) {
         throw new UnsupportedOperationException("Not supported yet.");
     }
@@ -18,4 +26,20 @@ public interface FinancialAPIService {
     default Transaction settlePayment(Transaction transaction) {
         throw new UnsupportedOperationException("Not supported yet.");
     }
+
+    /**
+     * Whether {@link #checkPaymentStatus(Transaction)} is implemented, so initiated transactions can be reconciled
+     */
+    default boolean supportsPaymentStatusCheck() {
+        return false;
+    }
+
+    /**
+     * Asks the provider for the current state of an initiated transaction without changing it
+     *
+     * @return {@link TransactionStatus#INITIATED} while the provider hasn't finalised the payment
+     */
+    default TransactionStatus checkPaymentStatus(Transaction transaction) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
 }
@@ -0,0 +1,141 @@
+package io.store.ua.service;
+
+import io.store.ua.enums.StockItemStatus;
+import io.store.ua.models.data.InventoryPosition;
+import io.store.ua.utility.SqlResourceReader;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ValidationException;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.math.BigInteger;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers "what was the stock of every batch in a warehouse at a given time".
+ * Periodic snapshots hold stock item quantities, the state at the requested time is rebuilt from the nearest snapshot
+ * by applying only the history rows logged between the snapshot and that time,
+ * forward from an earlier snapshot or backward from a later snapshot or the current stock.
+ * Every snapshot keeps the database snapshot its statement read the stock items with, and every history row
+ * the ID of the transaction that wrote it. A history row is part of a snapshot when that transaction is visible in it,
+ * so changes committing while or after a snapshot is taken are replayed whatever their timestamp or row ID
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Validated
+public class InventorySnapshotService {
+    private static final RowMapper<InventoryPosition> POSITION_MAPPER = (resultSet, ignore) -> new InventoryPosition(
+            resultSet.getLong("stock_item_id"),
+            resultSet.getLong("product_id"),
+            resultSet.getLong("warehouse_id"),
+            BigInteger.valueOf(resultSet.getLong("available_quantity")),
+            StockItemStatus.valueOf(resultSet.getString("status")));
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${inventory.snapshot.keep:60}")
+    private int keepSnapshots;
+
+    @Scheduled(fixedRateString = "${inventory.snapshot.intervalHours:24}", initialDelayString = "${inventory.snapshot.intervalHours:24}", timeUnit = TimeUnit.HOURS)
+    public void takeScheduledSnapshot() {
+        long snapshotId = takeSnapshot();
+        int deleted = namedParameterJdbcTemplate.update(SqlResourceReader.getSQL("deleteStaleStockItemSnapshots"),
+                new MapSqlParameterSource("keep", keepSnapshots));
+
+        log.info("Inventory snapshot '{}' was taken, stale snapshots deleted: {}", snapshotId, deleted);
+    }
+
+    /**
+     * @return ID of the taken snapshot
+     */
+    @Transactional
+    public long takeSnapshot() {
+        return namedParameterJdbcTemplate.queryForObject(SqlResourceReader.getSQL("createStockItemSnapshot"),
+                new MapSqlParameterSource("takenAt", LocalDateTime.now(Clock.systemUTC())),
+                (resultSet, ignore) -> resultSet.getLong("id"));
+    }
+
+    /**
+     * @param asOf UTC time the inventory is rebuilt for
+     * @return state of every stock item placed in the warehouse at that time, ordered by stock item ID
+     */
+    @Transactional
+    public List<InventoryPosition> findInventoryAsOf(@NotNull(message = "Warehouse ID can't be null") Long warehouseId,
+                                                     @NotNull(message = "A point in time can't be null") LocalDateTime asOf) {
+        LocalDateTime now = LocalDateTime.now(Clock.systemUTC());
+
+        if (asOf.isAfter(now)) {
+            throw new ValidationException("A point in time can't be in the future");
+        }
+
+        Snapshot previous = null;
+        Snapshot next = null;
+
+        for (var snapshot : namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("findStockItemSnapshotsAround"),
+                new MapSqlParameterSource("asOf", asOf),
+                (resultSet, ignore) -> new Snapshot(resultSet.getLong("id"),
+                        resultSet.getObject("taken_at", LocalDateTime.class),
+                        "PREVIOUS".equals(resultSet.getString("position"))))) {
+            if (snapshot.previous()) {
+                previous = snapshot;
+            } else {
+                next = snapshot;
+            }
+        }
+
+        Duration backwardWindow = Duration.between(asOf, next == null ? now : next.takenAt());
+        List<InventoryPosition> positions = new ArrayList<>();
+
+        if (previous != null && Duration.between(previous.takenAt(), asOf).compareTo(backwardWindow) <= 0) {
+            positions.addAll(namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("replayInventoryForward"),
+                    new MapSqlParameterSource()
+                            .addValue("snapshotId", previous.id())
+                            .addValue("asOf", asOf)
+                            .addValue("warehouseId", warehouseId),
+                    POSITION_MAPPER));
+            // Batches created after the snapshot aren't in it, their state is rebuilt backward from the current stock
+            positions.addAll(replayBackward(warehouseId, asOf, null, previous.takenAt()));
+        } else {
+            positions.addAll(replayBackward(warehouseId,
+                    asOf,
+                    next == null ? null : next.id(),
+                    null));
+        }
+
+        positions.sort(Comparator.comparing(InventoryPosition::stockItemId));
+
+        return positions;
+    }
+
+    private List<InventoryPosition> replayBackward(Long warehouseId,
+                                                   LocalDateTime asOf,
+                                                   Long snapshotId,
+                                                   LocalDateTime createdAfter) {
+        return namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("replayInventoryBackward"),
+                new MapSqlParameterSource()
+                        .addValue("warehouseId", warehouseId)
+                        .addValue("asOf", asOf)
+                        .addValue("snapshotId", snapshotId, Types.BIGINT)
+                        .addValue("createdAfter", createdAfter, Types.TIMESTAMP),
+                POSITION_MAPPER);
+    }
+
+    private record Snapshot(Long id, LocalDateTime takenAt, boolean previous) {
+    }
+}
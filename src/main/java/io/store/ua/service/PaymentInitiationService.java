@@ -0,0 +1,294 @@
+package io.store.ua.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.store.ua.entity.Transaction;
+import io.store.ua.enums.PaymentInitiationStatus;
+import io.store.ua.enums.PaymentProvider;
+import io.store.ua.enums.TransactionFlowType;
+import io.store.ua.enums.WebSocketTopic;
+import io.store.ua.exceptions.HealthCheckException;
+import io.store.ua.exceptions.NotFoundException;
+import io.store.ua.models.data.CheckoutFinancialInformation;
+import io.store.ua.models.data.PaymentInitiation;
+import io.store.ua.repository.TransactionRepository;
+import io.store.ua.utility.RegularObjectMapper;
+import io.store.ua.utility.SocketService;
+import io.store.ua.utility.SqlResourceReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.validation.annotation.Validated;
+
+import java.sql.Types;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Initiates payments without holding the request thread.
+ * The transaction is saved as {@link io.store.ua.enums.TransactionStatus#PENDING} together with an outbox row,
+ * after commit the provider is called on a virtual thread, at most a bounded amount of calls per provider at once,
+ * and the transaction is updated with the result. Outbox rows the dispatcher never picked up are dispatched by the scheduled recovery.
+ * A row leased by a call that never reported back is failed instead of retried, the provider might have accepted the payment
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Validated
+public class PaymentInitiationService {
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionRepository transactionRepository;
+    private final TransactionAdapterService transactionAdapterService;
+    private final SocketService socketService;
+
+    @Value("${transaction.async.maxConcurrentCallsPerProvider:16}")
+    private int maxConcurrentCallsPerProvider;
+    /**
+     * Should exceed the provider call timeout, a row with an expired lease is failed
+     */
+    @Value("${transaction.async.leaseSeconds:120}")
+    private long leaseSeconds;
+    @Value("${transaction.async.maxAttempts:5}")
+    private int maxAttempts;
+    @Value("${transaction.async.retryDelaySeconds:30}")
+    private long retryDelaySeconds;
+    @Value("${transaction.async.recoveryBatchSize:100}")
+    private int recoveryBatchSize;
+
+    private final Map<PaymentProvider, Semaphore> providerPermits = new EnumMap<>(PaymentProvider.class);
+    private ExecutorService executorService;
+
+    @PostConstruct
+    void start() {
+        for (PaymentProvider paymentProvider : PaymentProvider.values()) {
+            providerPermits.put(paymentProvider, new Semaphore(maxConcurrentCallsPerProvider));
+        }
+
+        executorService = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                .name("payment-initiation-", 0)
+                .factory());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executorService.shutdown();
+        executorService.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Saves the outbox row of a pending transaction, the provider is called once the surrounding transaction commits
+     */
+    public PaymentInitiation enqueue(@NotNull Transaction transaction, boolean autoSettle) {
+        PaymentInitiation paymentInitiation = namedParameterJdbcTemplate.queryForObject(SqlResourceReader.getSQL("insertPaymentInitiation"),
+                new MapSqlParameterSource()
+                        .addValue("transactionId", transaction.getId())
+                        .addValue("paymentProvider", transaction.getPaymentProvider().name())
+                        .addValue("autoSettle", autoSettle)
+                        .addValue("createdAt", LocalDateTime.now(Clock.systemUTC())),
+                initiationMapper(transaction));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(paymentInitiation.getId(), transaction.getPaymentProvider());
+                }
+            });
+        } else {
+            dispatch(paymentInitiation.getId(), transaction.getPaymentProvider());
+        }
+
+        return paymentInitiation;
+    }
+
+    public PaymentInitiation findById(@NotNull(message = "Payment initiation ID can't be null") Long id) {
+        return namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("findPaymentInitiation"),
+                        new MapSqlParameterSource("id", id),
+                        initiationMapper(null))
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Payment initiation with ID '%s' was not found".formatted(id)));
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.async.recoveryIntervalSeconds:30}", timeUnit = TimeUnit.SECONDS, initialDelay = 0)
+    public void recover() {
+        LocalDateTime now = LocalDateTime.now(Clock.systemUTC());
+
+        for (PaymentInitiation failed : namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("failPaymentInitiations"),
+                new MapSqlParameterSource()
+                        .addValue("id", null, Types.BIGINT)
+                        .addValue("error", "Provider call didn't report back in time, the outcome is unknown")
+                        .addValue("now", now),
+                initiationMapper(null))) {
+            log.warn("Payment initiation '{}' was failed after its lease expired", failed.getId());
+            socketService.pushToTopic(WebSocketTopic.PAYMENT_INITIATIONS.getTopic(), failed);
+        }
+
+        namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("findDuePaymentInitiations"),
+                new MapSqlParameterSource()
+                        .addValue("now", now)
+                        .addValue("batchSize", recoveryBatchSize),
+                resultSet -> dispatch(resultSet.getLong("id"), PaymentProvider.valueOf(resultSet.getString("payment_provider"))));
+    }
+
+    private void dispatch(long id, PaymentProvider paymentProvider) {
+        if (executorService.isShutdown()) {
+            return;
+        }
+
+        executorService.execute(() -> {
+            Semaphore permits = providerPermits.get(paymentProvider);
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                process(id);
+            } catch (Exception e) {
+                log.error("Payment initiation '{}' can't be processed, it's left for recovery", id, e);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    void process(long id) {
+        LocalDateTime now = LocalDateTime.now(Clock.systemUTC());
+        List<Claim> claimed = namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("claimPaymentInitiation"),
+                new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("lockedUntil", now.plusSeconds(leaseSeconds))
+                        .addValue("now", now),
+                (resultSet, ignore) -> new Claim(resultSet.getLong("transaction_id"),
+                        resultSet.getBoolean("auto_settle"),
+                        resultSet.getInt("attempts")));
+
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        Claim claim = claimed.getFirst();
+        Transaction transaction = transactionRepository.findById(claim.transactionId())
+                .orElseThrow(() -> new NotFoundException("Transaction with ID '%s' was not found".formatted(claim.transactionId())));
+        PaymentProvider paymentProvider = transaction.getPaymentProvider();
+        PaymentInitiation result;
+
+        try {
+            CheckoutFinancialInformation checkout = null;
+
+            if (transaction.getFlowType() == TransactionFlowType.CREDIT) {
+                checkout = transactionAdapterService.initiateIncomingPayment(transaction, claim.autoSettle(), paymentProvider);
+            } else {
+                transaction = transactionAdapterService.initiateOutcomingPayment(transaction, claim.autoSettle(), paymentProvider);
+            }
+
+            result = complete(id, transaction, checkout);
+        } catch (HealthCheckException e) {
+            // The provider wasn't called, so another attempt can't initiate the payment twice
+            if (claim.attempts() < maxAttempts) {
+                namedParameterJdbcTemplate.update(SqlResourceReader.getSQL("retryPaymentInitiation"),
+                        new MapSqlParameterSource()
+                                .addValue("id", id)
+                                .addValue("nextAttemptAt", LocalDateTime.now(Clock.systemUTC())
+                                        .plusSeconds(retryDelaySeconds * claim.attempts()))
+                                .addValue("error", e.getMessage()));
+                return;
+            }
+
+            result = fail(id, e);
+        } catch (RuntimeException e) {
+            result = fail(id, e);
+        }
+
+        if (result != null) {
+            socketService.pushToTopic(WebSocketTopic.PAYMENT_INITIATIONS.getTopic(), result);
+        }
+    }
+
+    private PaymentInitiation complete(long id, Transaction transaction, CheckoutFinancialInformation checkout) {
+        try {
+            return namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("completePaymentInitiation"),
+                            new MapSqlParameterSource()
+                                    .addValue("id", id)
+                                    .addValue("transactionId", transaction.getId())
+                                    .addValue("externalTransactionId", transaction.getTransactionId())
+                                    .addValue("reference", transaction.getReference())
+                                    .addValue("transactionStatus", transaction.getStatus().name())
+                                    .addValue("externalReferences", transaction.getExternalReferences() == null
+                                            ? null
+                                            : RegularObjectMapper.writeToString(transaction.getExternalReferences()), Types.VARCHAR)
+                                    .addValue("paidAt", transaction.getPaidAt(), Types.TIMESTAMP)
+                                    .addValue("checkout", checkout == null ? null : RegularObjectMapper.writeToString(checkout), Types.VARCHAR)
+                                    .addValue("now", LocalDateTime.now(Clock.systemUTC())),
+                            initiationMapper(transaction))
+                    .stream()
+                    .findFirst()
+                    .orElse(null);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private PaymentInitiation fail(long id, Exception cause) {
+        log.warn("Payment initiation '{}' failed", id, cause);
+
+        return namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("failPaymentInitiations"),
+                        new MapSqlParameterSource()
+                                .addValue("id", id, Types.BIGINT)
+                                .addValue("error", cause.getMessage(), Types.VARCHAR)
+                                .addValue("now", LocalDateTime.now(Clock.systemUTC())),
+                        initiationMapper(null))
+                .stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @param transaction the initiation's transaction if it's already loaded, otherwise it's read from the repository
+     */
+    private RowMapper<PaymentInitiation> initiationMapper(Transaction transaction) {
+        return (resultSet, ignore) -> {
+            String checkout = resultSet.getString("checkout");
+
+            try {
+                return PaymentInitiation.builder()
+                        .id(resultSet.getLong("id"))
+                        .status(PaymentInitiationStatus.valueOf(resultSet.getString("status")))
+                        .attempts(resultSet.getInt("attempts"))
+                        .transaction(transaction != null
+                                ? transaction
+                                : transactionRepository.findById(resultSet.getLong("transaction_id")).orElse(null))
+                        .checkout(checkout == null ? null : RegularObjectMapper.read(checkout, CheckoutFinancialInformation.class))
+                        .error(resultSet.getString("error"))
+                        .createdAt(resultSet.getObject("created_at", LocalDateTime.class))
+                        .completedAt(resultSet.getObject("completed_at", LocalDateTime.class))
+                        .build();
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    private record Claim(long transactionId, boolean autoSettle, int attempts) {
+    }
+}
@@ -7,6 +7,8 @@ import io.store.ua.models.dto.ProductDTO;
 import io.store.ua.repository.ProductRepository;
 import io.store.ua.repository.TagRepository;
 import io.store.ua.utility.CodeGenerator;
+import io.store.ua.utility.KeysetCursor;
+import io.store.ua.utility.SearchPredicates;
 import io.store.ua.validations.FieldValidator;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.*;
@@ -44,6 +46,31 @@ public class ProductService {
                                 LocalDateTime to,
                                 @Min(value = 1, message = "A size of page can't be less than one") int pageSize,
                                 @Min(value = 1, message = "A number of page can't be less than one") int pageNumber) {
+        return findBy(titlePart,
+                codePart,
+                minimumPrice,
+                maximumPrice,
+                currency,
+                tagIds,
+                from,
+                to,
+                null,
+                pageSize,
+                pageNumber);
+    }
+
+    public List<Product> findBy(String titlePart,
+                                String codePart,
+                                BigInteger minimumPrice,
+                                BigInteger maximumPrice,
+                                String currency,
+                                List<@NotNull(message = "Tag ID can't be null")
+                                @Min(value = 1, message = "Tag ID can't be less than 1") Long> tagIds,
+                                LocalDateTime from,
+                                LocalDateTime to,
+                                String cursor,
+                                @Min(value = 1, message = "A size of page can't be less than one") int pageSize,
+                                @Min(value = 1, message = "A number of page can't be less than one") int pageNumber) {
         if (to != null && from != null && to.isBefore(from)) {
             throw new ValidationException("A 'to' can't be before 'from'");
         }
@@ -54,18 +81,11 @@ public class ProductService {
         List<Predicate> predicateList = new ArrayList<>();
 
         if (!StringUtils.isBlank(titlePart)) {
-            predicateList.add(criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get(Product.Fields.title)),
-                    "%" + titlePart.toLowerCase() + "%"));
+            predicateList.add(SearchPredicates.containsIgnoreCase(criteriaBuilder, root.get(Product.Fields.title), titlePart));
         }
 
         if (!StringUtils.isBlank(codePart)) {
-            predicateList.add(
-                    criteriaBuilder.like(
-                            criteriaBuilder.lower(root.get(Product.Fields.code)),
-                            "%" + codePart.toLowerCase() + "%"
-                    )
-            );
+            predicateList.add(SearchPredicates.containsIgnoreCase(criteriaBuilder, root.get(Product.Fields.code), codePart));
         }
 
         if (Objects.nonNull(minimumPrice) && Objects.nonNull(maximumPrice) && minimumPrice.compareTo(maximumPrice) > 0) {
@@ -92,6 +112,10 @@ public class ProductService {
             predicateList.add(criteriaBuilder.lessThanOrEqualTo(root.get(Product.Fields.createdAt), to));
         }
 
+        if (StringUtils.isNotBlank(cursor)) {
+            predicateList.add(KeysetCursor.seek(criteriaBuilder, root.get(Product.Fields.id), cursor));
+        }
+
         Join<Product, Tag> tagsJoin;
         Expression<Long> distinctTagCount;
 
@@ -109,7 +133,7 @@ public class ProductService {
                 .orderBy(criteriaBuilder.asc(root.get(Product.Fields.id)));
 
         return entityManager.createQuery(criteriaQuery)
-                .setFirstResult(pageSize * (pageNumber - 1))
+                .setFirstResult(StringUtils.isNotBlank(cursor) ? 0 : pageSize * (pageNumber - 1))
                 .setMaxResults(pageSize)
                 .getResultList();
     }
@@ -11,6 +11,7 @@ import io.store.ua.models.dto.StockItemDTO;
 import io.store.ua.repository.ShipmentRepository;
 import io.store.ua.repository.WarehouseRepository;
 import io.store.ua.utility.CodeGenerator;
+import io.store.ua.utility.KeysetCursor;
 import io.store.ua.validations.FieldValidator;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.CriteriaBuilder;
@@ -71,6 +72,28 @@ public class ShipmentService {
                                  LocalDateTime to,
                                  @Min(value = 1, message = "Size of page can't be less than 1") int pageSize,
                                  @Min(value = 1, message = "A page number can't be less than 1") int page) {
+        return findBy(warehouseIdSender,
+                warehouseIdRecipient,
+                stockItemId,
+                status,
+                shipmentDirection,
+                from,
+                to,
+                null,
+                pageSize,
+                page);
+    }
+
+    public List<Shipment> findBy(Long warehouseIdSender,
+                                 Long warehouseIdRecipient,
+                                 Long stockItemId,
+                                 String status,
+                                 String shipmentDirection,
+                                 LocalDateTime from,
+                                 LocalDateTime to,
+                                 String cursor,
+                                 @Min(value = 1, message = "Size of page can't be less than 1") int pageSize,
+                                 @Min(value = 1, message = "A page number can't be less than 1") int page) {
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
         CriteriaQuery<Shipment> criteriaQuery = criteriaBuilder.createQuery(Shipment.class);
         Root<Shipment> shipmentRoot = criteriaQuery.from(Shipment.class);
@@ -106,13 +129,22 @@ public class ShipmentService {
             predicates.add(criteriaBuilder.lessThanOrEqualTo(shipmentRoot.get(Shipment.Fields.createdAt), to));
         }
 
+        if (StringUtils.isNotBlank(cursor)) {
+            predicates.add(KeysetCursor.seek(criteriaBuilder,
+                    shipmentRoot.get(Shipment.Fields.createdAt),
+                    shipmentRoot.get(Shipment.Fields.id),
+                    cursor,
+                    true));
+        }
+
         criteriaQuery
                 .select(shipmentRoot)
                 .where(predicates.toArray(new Predicate[0]))
-                .orderBy(criteriaBuilder.desc(shipmentRoot.get(Shipment.Fields.createdAt)));
+                .orderBy(criteriaBuilder.desc(shipmentRoot.get(Shipment.Fields.createdAt)),
+                        criteriaBuilder.desc(shipmentRoot.get(Shipment.Fields.id)));
 
         return entityManager.createQuery(criteriaQuery)
-                .setFirstResult((page - 1) * pageSize)
+                .setFirstResult(StringUtils.isNotBlank(cursor) ? 0 : (page - 1) * pageSize)
                 .setMaxResults(pageSize)
                 .getResultList();
     }
@@ -320,16 +352,7 @@ public class ShipmentService {
         BigInteger shipmentQuantity = BigInteger.valueOf(shipment.getStockItemQuantity());
 
         if (shipment.getStatus() == ShipmentStatus.SENT && shipment.getShipmentDirection() == ShipmentDirection.OUTCOMING) {
-            if (stockItem.getAvailableQuantity().compareTo(shipmentQuantity) < 0) {
-                throw new BusinessException("Shipment quantity can't be greater than available quantity");
-            }
-
-            StockItemDTO updateSender = StockItemDTO.builder()
-                    .stockItemId(stockItem.getId())
-                    .availableQuantity(stockItem.getAvailableQuantity().subtract(shipmentQuantity))
-                    .build();
-
-            stockItemService.update(updateSender);
+            stockItemService.decreaseAvailableQuantity(stockItem.getId(), shipmentQuantity);
         } else if (shipment.getStatus() == ShipmentStatus.DELIVERED) {
             if (shipment.getWarehouseIdRecipient() != null) {
                 StockItemDTO stockItemDTO = StockItemDTO.builder()
@@ -343,12 +366,7 @@ public class ShipmentService {
                 stockItemService.create(stockItemDTO);
             }
         } else if (shipment.getStatus() == ShipmentStatus.ROLLBACK && shipment.getShipmentDirection() == ShipmentDirection.OUTCOMING) {
-            StockItemDTO updateSender = StockItemDTO.builder()
-                    .stockItemId(stockItem.getId())
-                    .availableQuantity(stockItem.getAvailableQuantity().add(shipmentQuantity))
-                    .build();
-
-            stockItemService.update(updateSender);
+            stockItemService.increaseAvailableQuantity(stockItem.getId(), shipmentQuantity);
         }
     }
 }
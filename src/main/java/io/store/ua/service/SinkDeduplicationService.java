@@ -0,0 +1,125 @@
+package io.store.ua.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Drops redelivered sink messages before they reach the database.
+ * The key of a message is claimed in Redis with an atomic SET NX and a short processing TTL, once the message is stored
+ * the key is marked as done for the whole dedup window and later deliveries are dropped.
+ * A delivery finding the key still in processing goes on, the previous one may have died before storing the message,
+ * the idempotency key stored with the transaction keeps it from being saved twice
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SinkDeduplicationService {
+    private static final String KEY_PREFIX = "sink:dedup:";
+    private static final String PROCESSING = "processing";
+    private static final String DONE = "done";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${sink.deduplication.ttlHours:24}")
+    private long ttlHours;
+    /**
+     * Should exceed the time a message takes to be processed
+     */
+    @Value("${sink.deduplication.processingTtlSeconds:60}")
+    private long processingTtlSeconds;
+
+    /**
+     * @return whether the message should be processed, {@code false} for a duplicate
+     */
+    public boolean claim(String topic, String key) {
+        if (key == null) {
+            count(topic, "unkeyed");
+            return true;
+        }
+
+        try {
+            String redisKey = redisKey(topic, key);
+
+            if (Boolean.FALSE.equals(stringRedisTemplate.opsForValue().setIfAbsent(redisKey, PROCESSING, Duration.ofSeconds(processingTtlSeconds)))) {
+                if (DONE.equals(stringRedisTemplate.opsForValue().get(redisKey))) {
+                    count(topic, "duplicate");
+                    return false;
+                }
+
+                count(topic, "in_flight");
+                return true;
+            }
+        } catch (Exception e) {
+            // Losing a message is worse than a rare duplicate, so the message is processed when Redis isn't reachable
+            log.warn("Sink message '{}' of '{}' can't be deduplicated: {}", key, topic, e.getMessage());
+            count(topic, "unchecked");
+            return true;
+        }
+
+        count(topic, "accepted");
+        return true;
+    }
+
+    /**
+     * Marks the key as done for the whole dedup window, inside a transaction only after it commits
+     *
+     * @param stored whether this delivery stored the message, {@code false} when the database already had it
+     */
+    public void complete(String topic, String key, boolean stored) {
+        if (!stored) {
+            count(topic, "duplicate_stored");
+        }
+
+        if (key == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markDone(topic, key);
+                }
+            });
+        } else {
+            markDone(topic, key);
+        }
+    }
+
+    public void release(String topic, String key) {
+        if (key == null) {
+            return;
+        }
+
+        try {
+            stringRedisTemplate.delete(redisKey(topic, key));
+        } catch (Exception e) {
+            log.warn("Sink message '{}' of '{}' can't be released: {}", key, topic, e.getMessage());
+        }
+    }
+
+    private void markDone(String topic, String key) {
+        try {
+            stringRedisTemplate.opsForValue().set(redisKey(topic, key), DONE, Duration.ofHours(ttlHours));
+        } catch (Exception e) {
+            log.warn("Sink message '{}' of '{}' can't be marked as done: {}", key, topic, e.getMessage());
+        }
+    }
+
+    private void count(String topic, String result) {
+        meterRegistry.counter("sink.deduplication.messages", "topic", topic, "result", result).increment();
+    }
+
+    private static String redisKey(String topic, String key) {
+        return KEY_PREFIX + topic + ":" + key;
+    }
+}
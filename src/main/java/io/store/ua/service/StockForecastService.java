@@ -0,0 +1,160 @@
+package io.store.ua.service;
+
+import io.store.ua.enums.WebSocketTopic;
+import io.store.ua.models.data.StockForecast;
+import io.store.ua.models.data.StockItemsLowSupplyMessage;
+import io.store.ua.utility.SocketService;
+import io.store.ua.utility.SqlResourceReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Precomputes days of supply and reorder points of every product in every warehouse.
+ * Outflow is the average daily amount of quantity decreases over a trailing window, taken from the daily item sales rollup,
+ * warehouses are forecast in parallel, each one by a single statement that replaces its forecasts and returns products that just ran low
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Validated
+public class StockForecastService {
+    private static final RowMapper<StockForecast> FORECAST_MAPPER = (resultSet, ignore) -> StockForecast.builder()
+            .warehouseId(resultSet.getLong("warehouse_id"))
+            .productId(resultSet.getLong("product_id"))
+            .availableQuantity(BigInteger.valueOf(resultSet.getLong("available_quantity")))
+            .averageDailyOutflow(resultSet.getBigDecimal("average_daily_outflow"))
+            .daysOfSupply(resultSet.getBigDecimal("days_of_supply"))
+            .reorderPoint(BigInteger.valueOf(resultSet.getLong("reorder_point")))
+            .computedAt(resultSet.getObject("computed_at", LocalDateTime.class))
+            .build();
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final SocketService socketService;
+
+    @Value("${stockItem.forecast.windowDays:28}")
+    private int windowDays;
+    @Value("${stockItem.forecast.leadTimeDays:7}")
+    private int leadTimeDays;
+    @Value("${stockItem.forecast.safetyStockDays:3}")
+    private int safetyStockDays;
+    @Value("${stockItem.forecast.lowDaysOfSupply:7}")
+    private BigDecimal lowDaysOfSupply;
+    /**
+     * Every warehouse in progress holds a connection, keep it below the connection pool size
+     */
+    @Value("${stockItem.forecast.parallelism:4}")
+    private int parallelism;
+
+    private ForkJoinPool forkJoinPool;
+
+    @PostConstruct
+    void start() {
+        forkJoinPool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    void stop() {
+        forkJoinPool.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${stockItem.forecast.intervalMinutes:60}", timeUnit = TimeUnit.MINUTES, initialDelay = 0)
+    public void forecastScheduled() {
+        List<StockItemsLowSupplyMessage> messages = forecast();
+
+        log.info("Stock forecasts were computed, warehouses with products running low: {}", messages.size());
+    }
+
+    /**
+     * @return messages pushed, one per warehouse with products whose days of supply dropped below the threshold since the previous run
+     */
+    public List<StockItemsLowSupplyMessage> forecast() {
+        LocalDateTime computedAt = LocalDateTime.now(Clock.systemUTC());
+        List<Long> warehouseIds = namedParameterJdbcTemplate.queryForList(SqlResourceReader.getSQL("findActiveWarehouseIds"),
+                new MapSqlParameterSource(),
+                Long.class);
+        namedParameterJdbcTemplate.update(SqlResourceReader.getSQL("deleteStaleStockForecasts"), new MapSqlParameterSource());
+
+        try {
+            return forkJoinPool.submit(() -> warehouseIds.parallelStream()
+                            .map(warehouseId -> forecastWarehouse(warehouseId, computedAt))
+                            .filter(Objects::nonNull)
+                            .toList())
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Stock forecasts can't be computed", e.getCause());
+        }
+    }
+
+    /**
+     * @param maxDaysOfSupply if set, only forecasts with days of supply not above it are returned
+     * @return forecasts of the warehouse, the shortest supply first
+     */
+    public List<StockForecast> findForecasts(@NotNull(message = "Warehouse ID can't be null") Long warehouseId,
+                                             @PositiveOrZero(message = "Days of supply can't be negative") BigDecimal maxDaysOfSupply) {
+        return namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("findStockForecasts"),
+                new MapSqlParameterSource()
+                        .addValue("warehouseId", warehouseId)
+                        .addValue("maxDaysOfSupply", maxDaysOfSupply, Types.NUMERIC),
+                FORECAST_MAPPER);
+    }
+
+    private StockItemsLowSupplyMessage forecastWarehouse(Long warehouseId, LocalDateTime computedAt) {
+        List<StockForecast> runningLow;
+
+        try {
+            runningLow = namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("computeStockForecasts"),
+                    new MapSqlParameterSource()
+                            .addValue("warehouseId", warehouseId)
+                            .addValue("windowStart", computedAt.toLocalDate().minusDays(windowDays))
+                            .addValue("windowDays", windowDays)
+                            .addValue("leadTimeDays", leadTimeDays)
+                            .addValue("safetyStockDays", safetyStockDays)
+                            .addValue("lowDaysOfSupply", lowDaysOfSupply)
+                            .addValue("computedAt", computedAt),
+                    FORECAST_MAPPER);
+        } catch (Exception e) {
+            log.warn("Stock forecasts of warehouse with ID '{}' can't be computed", warehouseId, e);
+            return null;
+        }
+
+        if (runningLow.isEmpty()) {
+            return null;
+        }
+
+        StockItemsLowSupplyMessage message = StockItemsLowSupplyMessage.builder()
+                .warehouseId(warehouseId)
+                .forecasts(runningLow)
+                .message("%s product(s) in warehouse with ID '%s' have less than %s days of supply"
+                        .formatted(runningLow.size(), warehouseId, lowDaysOfSupply))
+                .build();
+
+        socketService.pushToTopic(WebSocketTopic.STOCK_ITEMS_LOW_SUPPLY.getTopic(), message);
+
+        return message;
+    }
+}
@@ -0,0 +1,225 @@
+package io.store.ua.service;
+
+import io.store.ua.models.data.ProductAvailability;
+import io.store.ua.utility.LongLongHashMap;
+import io.store.ua.utility.SqlResourceReader;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.validation.annotation.Validated;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index of available quantities per product and warehouse, summed across active batches.
+ * Seeded and periodically reconciled from the database, kept up to date by stock item changes after their commit.
+ * Sums are signed, as changes of concurrent transactions can arrive in any order, a sum that isn't positive reads as unavailable
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Validated
+public class StockItemAvailabilityService {
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Product ID to slot in {@link #warehouseQuantities}
+     */
+    private LongLongHashMap productSlots = new LongLongHashMap();
+    /**
+     * Warehouse ID to available quantity, one map per product slot
+     */
+    private List<LongLongHashMap> warehouseQuantities = new ArrayList<>();
+    /**
+     * Changes applied while a reconciliation reads the database, replayed onto its result before it replaces the index
+     */
+    private List<ProductAvailability[]> reconcileChanges;
+
+    @Scheduled(fixedDelayString = "${stockItem.availability.reconcileIntervalMinutes:5}", timeUnit = TimeUnit.MINUTES, initialDelay = 0)
+    public synchronized void reconcile() {
+        LongLongHashMap freshProductSlots = new LongLongHashMap();
+        List<LongLongHashMap> freshWarehouseQuantities = new ArrayList<>();
+
+        lock.writeLock().lock();
+
+        try {
+            reconcileChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            jdbcTemplate.query(SqlResourceReader.getSQL("findStockItemAvailability"), resultSet -> {
+                add(freshProductSlots,
+                        freshWarehouseQuantities,
+                        resultSet.getLong("warehouse_id"),
+                        resultSet.getLong("product_id"),
+                        resultSet.getLong("available_quantity"));
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+
+            try {
+                reconcileChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            throw e;
+        }
+
+        lock.writeLock().lock();
+
+        try {
+            // A change committed just before the query may already be in its result, the next reconciliation corrects that
+            for (ProductAvailability[] change : reconcileChanges) {
+                apply(freshProductSlots, freshWarehouseQuantities, change[0], change[1]);
+            }
+
+            for (LongLongHashMap quantities : freshWarehouseQuantities) {
+                List<Long> emptyWarehouseIds = new ArrayList<>();
+                quantities.forEach((warehouseId, quantity) -> {
+                    if (quantity == 0) {
+                        emptyWarehouseIds.add(warehouseId);
+                    }
+                });
+                emptyWarehouseIds.forEach(quantities::remove);
+            }
+
+            productSlots = freshProductSlots;
+            warehouseQuantities = freshWarehouseQuantities;
+            reconcileChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.debug("Stock item availability index was reconciled, products indexed: {}", freshProductSlots.size());
+    }
+
+    public BigInteger findAvailableQuantity(@NotNull(message = "Warehouse ID can't be null") Long warehouseId,
+                                            @NotNull(message = "Product ID can't be null") Long productId) {
+        lock.readLock().lock();
+
+        try {
+            long slot = productSlots.get(productId, -1);
+
+            return BigInteger.valueOf(slot < 0 ? 0 : Math.max(warehouseQuantities.get((int) slot).get(warehouseId, 0), 0));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param warehouseIds warehouses to look at, when empty every warehouse holding the product in stock is returned
+     */
+    public List<ProductAvailability> findAvailability(@NotNull(message = "Product ID can't be null") Long productId,
+                                                      List<@NotNull(message = "Warehouse ID can't be null") Long> warehouseIds) {
+        List<ProductAvailability> availabilities = new ArrayList<>();
+
+        lock.readLock().lock();
+
+        try {
+            long slot = productSlots.get(productId, -1);
+            LongLongHashMap quantities = slot < 0 ? new LongLongHashMap() : warehouseQuantities.get((int) slot);
+
+            if (warehouseIds == null || warehouseIds.isEmpty()) {
+                quantities.forEach((warehouseId, quantity) -> {
+                    if (quantity > 0) {
+                        availabilities.add(new ProductAvailability(warehouseId, productId, BigInteger.valueOf(quantity)));
+                    }
+                });
+            } else {
+                for (Long warehouseId : warehouseIds) {
+                    availabilities.add(new ProductAvailability(warehouseId, productId,
+                            BigInteger.valueOf(Math.max(quantities.get(warehouseId, 0), 0))));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return availabilities;
+    }
+
+    /**
+     * Moves availability of one stock item from its previous to its current state,
+     * inside a transaction the index is changed only after commit
+     *
+     * @param before state before the change, null for new stock items
+     * @param after  state after the change
+     */
+    public void registerChange(ProductAvailability before, ProductAvailability after) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyChange(before, after);
+                }
+            });
+        } else {
+            applyChange(before, after);
+        }
+    }
+
+    private void applyChange(ProductAvailability before, ProductAvailability after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+
+        lock.writeLock().lock();
+
+        try {
+            apply(productSlots, warehouseQuantities, before, after);
+
+            if (reconcileChanges != null) {
+                reconcileChanges.add(new ProductAvailability[]{before, after});
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(LongLongHashMap productSlots,
+                              List<LongLongHashMap> warehouseQuantities,
+                              ProductAvailability before,
+                              ProductAvailability after) {
+        if (before != null) {
+            add(productSlots, warehouseQuantities, before.warehouseId(), before.productId(), -before.availableQuantity().longValueExact());
+        }
+
+        if (after != null) {
+            add(productSlots, warehouseQuantities, after.warehouseId(), after.productId(), after.availableQuantity().longValueExact());
+        }
+    }
+
+    private static void add(LongLongHashMap productSlots,
+                            List<LongLongHashMap> warehouseQuantities,
+                            long warehouseId,
+                            long productId,
+                            long quantity) {
+        if (quantity == 0) {
+            return;
+        }
+
+        long slot = productSlots.get(productId, -1);
+
+        if (slot < 0) {
+            slot = warehouseQuantities.size();
+            productSlots.put(productId, slot);
+            warehouseQuantities.add(new LongLongHashMap());
+        }
+
+        warehouseQuantities.get((int) slot).addTo(warehouseId, quantity);
+    }
+}
@@ -0,0 +1,133 @@
+package io.store.ua.service;
+
+import io.store.ua.enums.StockItemStatus;
+import io.store.ua.enums.WebSocketTopic;
+import io.store.ua.models.data.ProductAvailability;
+import io.store.ua.models.data.StockItemsExpiredMessage;
+import io.store.ua.utility.SocketService;
+import io.store.ua.utility.SqlResourceReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.math.BigInteger;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes stock items past their expiry date out of service and reports the ones expiring within the horizon, which stay in service.
+ * Works in chunks, each chunk is a single statement that switches the status and writes the history rows,
+ * so only the per-warehouse totals are kept in memory
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Validated
+public class StockItemExpiryService {
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final StockItemAvailabilityService stockItemAvailabilityService;
+    private final SocketService socketService;
+
+    @Value("${stockItem.expiry.horizonDays:0}")
+    private int horizonDays;
+    @Value("${stockItem.expiry.chunkSize:1000}")
+    private int chunkSize;
+
+    /**
+     * The scheduled sweep calls {@link #sweep(int)} on this instance, past the method validation, so the configured
+     * horizon is checked here
+     */
+    @PostConstruct
+    void init() {
+        if (horizonDays < 0) {
+            throw new IllegalStateException("stockItem.expiry.horizonDays can't be negative, was %s".formatted(horizonDays));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stockItem.expiry.sweepIntervalMinutes:60}", timeUnit = TimeUnit.MINUTES, initialDelay = 0)
+    public void sweep() {
+        sweep(horizonDays);
+    }
+
+    /**
+     * @param horizonDays stock items expiring within that many days are reported, only expired ones are taken out of service
+     * @return messages pushed, one per warehouse with expired or expiring stock items
+     */
+    public List<StockItemsExpiredMessage> sweep(@Min(value = 0, message = "Horizon can't be negative") int horizonDays) {
+        Map<Long, Long> expiredPerWarehouse = new TreeMap<>();
+        Map<Long, Long> expiringPerWarehouse = new TreeMap<>();
+        int expiredInChunk;
+
+        do {
+            expiredInChunk = expireChunk(expiredPerWarehouse);
+        } while (expiredInChunk == chunkSize);
+
+        if (horizonDays > 0) {
+            namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("findExpiringStockItems"),
+                    new MapSqlParameterSource("horizonDays", horizonDays),
+                    resultSet -> {
+                        expiringPerWarehouse.put(resultSet.getLong("warehouse_id"), resultSet.getLong("expiring_count"));
+                    });
+        }
+
+        Set<Long> warehouseIds = new TreeSet<>(expiredPerWarehouse.keySet());
+        warehouseIds.addAll(expiringPerWarehouse.keySet());
+        List<StockItemsExpiredMessage> messages = new ArrayList<>();
+
+        for (Long warehouseId : warehouseIds) {
+            long expiredCount = expiredPerWarehouse.getOrDefault(warehouseId, 0L);
+            long expiringCount = expiringPerWarehouse.getOrDefault(warehouseId, 0L);
+            StockItemsExpiredMessage message = StockItemsExpiredMessage.builder()
+                    .warehouseId(warehouseId)
+                    .expiredCount(expiredCount)
+                    .expiringCount(expiringCount)
+                    .message("%s stock item(s) in warehouse with ID '%s' expired and were taken out of service, %s more expire within %s day(s)"
+                            .formatted(expiredCount, warehouseId, expiringCount, horizonDays))
+                    .build();
+
+            socketService.pushToTopic(WebSocketTopic.STOCK_ITEM_EXPIRED.getTopic(), message);
+            messages.add(message);
+        }
+
+        if (!expiredPerWarehouse.isEmpty()) {
+            log.info("Expired stock items were taken out of service in {} warehouse(s)", expiredPerWarehouse.size());
+        }
+
+        return messages;
+    }
+
+    private int expireChunk(Map<Long, Long> expiredPerWarehouse) {
+        List<ProductAvailability> released = namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("expireStockItems"),
+                new MapSqlParameterSource()
+                        .addValue("chunkSize", chunkSize)
+                        .addValue("loggedAt", LocalDateTime.now(Clock.systemUTC())),
+                (resultSet, ignore) -> new ProductAvailability(resultSet.getLong("warehouse_id"),
+                        resultSet.getLong("product_id"),
+                        ProductAvailability.isCounted(resultSet.getBoolean("is_active"),
+                                StockItemStatus.valueOf(resultSet.getString("status_before")))
+                                ? BigInteger.valueOf(resultSet.getLong("available_quantity"))
+                                : BigInteger.ZERO));
+
+        for (ProductAvailability availability : released) {
+            expiredPerWarehouse.merge(availability.warehouseId(), 1L, Long::sum);
+            stockItemAvailabilityService.registerChange(availability,
+                    new ProductAvailability(availability.warehouseId(), availability.productId(), BigInteger.ZERO));
+        }
+
+        return released.size();
+    }
+}
@@ -5,6 +5,7 @@ import io.store.ua.exceptions.NotFoundException;
 import io.store.ua.models.dto.StockItemGroupDTO;
 import io.store.ua.repository.StockItemGroupRepository;
 import io.store.ua.utility.CodeGenerator;
+import io.store.ua.utility.SearchPredicates;
 import io.store.ua.validations.FieldValidator;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.CriteriaBuilder;
@@ -42,8 +43,7 @@ public class StockItemGroupService {
         List<Predicate> predicates = new ArrayList<>();
 
         if (StringUtils.isNotBlank(codePart)) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get(StockItemGroup.Fields.code)),
-                    "%" + "%s".formatted(codePart).toLowerCase() + "%"));
+            predicates.add(SearchPredicates.containsIgnoreCase(criteriaBuilder, root.get(StockItemGroup.Fields.code), codePart));
         }
 
         if (isActive != null) {
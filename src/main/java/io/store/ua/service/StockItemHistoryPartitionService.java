@@ -0,0 +1,95 @@
+package io.store.ua.service;
+
+import io.store.ua.utility.SqlResourceReader;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains monthly partitions of the stock item history table:
+ * creates partitions for upcoming months and detaches months older than the retention period
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Validated
+public class StockItemHistoryPartitionService {
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${stockItem.history.partitions.monthsAhead:3}")
+    private int monthsAhead;
+    /**
+     * Full months of history kept attached, 0 keeps everything
+     */
+    @Value("${stockItem.history.retention.months:0}")
+    private int retentionMonths;
+    /**
+     * Drops detached partitions instead of keeping them as archive tables
+     */
+    @Value("${stockItem.history.retention.dropDetached:false}")
+    private boolean dropDetached;
+
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.DAYS, initialDelay = 0)
+    public void maintain() {
+        LocalDate today = LocalDate.now(Clock.systemUTC());
+
+        createPartitions(today, today.plusMonths(monthsAhead));
+
+        if (retentionMonths > 0) {
+            detachPartitions(today.withDayOfMonth(1).minusMonths(retentionMonths));
+        }
+    }
+
+    /**
+     * Creates missing month partitions, rows of these months are moved out of the default partition
+     *
+     * @return amount of created partitions
+     */
+    public long createPartitions(@NotNull(message = "A 'from' can't be null") LocalDate from,
+                                 @NotNull(message = "A 'to' can't be null") LocalDate to) {
+        long created = namedParameterJdbcTemplate.queryForList(SqlResourceReader.getSQL("createStockItemHistoryPartitions"),
+                        new MapSqlParameterSource()
+                                .addValue("from", from)
+                                .addValue("to", to),
+                        Boolean.class)
+                .stream()
+                .filter(Boolean.TRUE::equals)
+                .count();
+
+        if (created > 0) {
+            log.info("Stock item history partitions created: {}", created);
+        }
+
+        return created;
+    }
+
+    /**
+     * Detaches month partitions ending on or before the cutoff, so queries and vacuum no longer touch them
+     *
+     * @return names of detached partitions
+     */
+    public List<String> detachPartitions(@NotNull(message = "Cutoff date can't be null") LocalDate cutoff) {
+        List<String> detached = namedParameterJdbcTemplate.queryForList(SqlResourceReader.getSQL("detachStockItemHistoryPartitions"),
+                new MapSqlParameterSource()
+                        .addValue("cutoff", cutoff)
+                        .addValue("dropDetached", dropDetached),
+                String.class);
+
+        if (!detached.isEmpty()) {
+            log.info("Stock item history partitions detached{}: {}", dropDetached ? " and dropped" : "", detached);
+        }
+
+        return detached;
+    }
+}
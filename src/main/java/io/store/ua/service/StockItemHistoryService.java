@@ -1,5 +1,6 @@
 package io.store.ua.service;
 
+import io.store.ua.entity.Product;
 import io.store.ua.entity.StockItem;
 import io.store.ua.entity.immutable.StockItemHistory;
 import io.store.ua.enums.StockItemStatus;
@@ -7,6 +8,7 @@ import io.store.ua.exceptions.NotFoundException;
 import io.store.ua.models.dto.StockItemHistoryDTO;
 import io.store.ua.repository.StockItemHistoryRepository;
 import io.store.ua.repository.StockItemRepository;
+import io.store.ua.utility.KeysetCursor;
 import io.store.ua.validations.FieldValidator;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.CriteriaBuilder;
@@ -17,6 +19,7 @@ import jakarta.validation.ValidationException;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
@@ -31,6 +34,7 @@ import java.util.List;
 public class StockItemHistoryService {
     private final StockItemHistoryRepository stockItemHistoryRepository;
     private final StockItemRepository stockItemRepository;
+    private final StockItemHistoryWriter stockItemHistoryWriter;
     private final FieldValidator fieldValidator;
     private final EntityManager entityManager;
 
@@ -57,6 +61,15 @@ public class StockItemHistoryService {
                                          LocalDateTime to,
                                          @Min(value = 1, message = "Size of page can't be less than 1") int pageSize,
                                          @Min(value = 1, message = "A page number can't be less than 1") int page) {
+        return findBy(stockItemId, from, to, null, pageSize, page);
+    }
+
+    public List<StockItemHistory> findBy(Long stockItemId,
+                                         LocalDateTime from,
+                                         LocalDateTime to,
+                                         String cursor,
+                                         @Min(value = 1, message = "Size of page can't be less than 1") int pageSize,
+                                         @Min(value = 1, message = "A page number can't be less than 1") int page) {
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
         CriteriaQuery<StockItemHistory> criteriaQuery = criteriaBuilder.createQuery(StockItemHistory.class);
         Root<StockItemHistory> root = criteriaQuery.from(StockItemHistory.class);
@@ -75,28 +88,52 @@ public class StockItemHistoryService {
             predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get(StockItemHistory.Fields.loggedAt), to));
         }
 
+        if (StringUtils.isNotBlank(cursor)) {
+            predicates.add(KeysetCursor.seek(criteriaBuilder,
+                    root.get(StockItemHistory.Fields.loggedAt),
+                    root.get(StockItemHistory.Fields.id),
+                    cursor,
+                    true));
+        }
+
         criteriaQuery
                 .select(root)
                 .where(predicates.toArray(new Predicate[0]))
-                .orderBy(criteriaBuilder.desc(root.get(StockItemHistory.Fields.loggedAt)));
+                .orderBy(criteriaBuilder.desc(root.get(StockItemHistory.Fields.loggedAt)),
+                        criteriaBuilder.desc(root.get(StockItemHistory.Fields.id)));
 
         return entityManager.createQuery(criteriaQuery)
-                .setFirstResult((page - 1) * pageSize)
+                .setFirstResult(StringUtils.isNotBlank(cursor) ? 0 : (page - 1) * pageSize)
                 .setMaxResults(pageSize)
                 .getResultList();
     }
 
+    /**
+     * @see #save(StockItemHistoryDTO, Product)
+     */
     public StockItemHistory save(@NotNull StockItemHistoryDTO stockItemHistoryDTO) {
         fieldValidator.validate(stockItemHistoryDTO, StockItemHistoryDTO.Fields.stockItemId, true);
         StockItem stockItem = stockItemRepository.findById(stockItemHistoryDTO.getStockItemId())
                 .orElseThrow(() -> new NotFoundException("Stock item with ID '%s' was not found"
                         .formatted(stockItemHistoryDTO.getStockItemId())));
 
+        return save(stockItemHistoryDTO, stockItem.getProduct());
+    }
+
+    /**
+     * Saves history of the stock item with the product already loaded by the caller, skips re-reading the stock item.
+     * In write-behind mode the row reaches the history table asynchronously
+     *
+     * @return the saved history row, in write-behind mode a row that isn't in the history table yet and has no ID
+     */
+    public StockItemHistory save(@NotNull StockItemHistoryDTO stockItemHistoryDTO, @NotNull Product product) {
+        fieldValidator.validate(stockItemHistoryDTO, StockItemHistoryDTO.Fields.stockItemId, true);
+
         StockItemHistory.StockItemHistoryBuilder stockItemHistoryBuilder = StockItemHistory.builder();
         stockItemHistoryBuilder.stockItemId(stockItemHistoryDTO.getStockItemId());
-        stockItemHistoryBuilder.title(stockItem.getProduct().getTitle());
-        stockItemHistoryBuilder.currentProductPrice(stockItem.getProduct().getPrice());
-        stockItemHistoryBuilder.currency(stockItem.getProduct().getCurrency());
+        stockItemHistoryBuilder.title(product.getTitle());
+        stockItemHistoryBuilder.currentProductPrice(product.getPrice());
+        stockItemHistoryBuilder.currency(product.getCurrency());
 
         if (stockItemHistoryDTO.getOldStockItemGroupId() != null && stockItemHistoryDTO.getNewStockItemGroupId() != null) {
             fieldValidator.validate(stockItemHistoryDTO, true, StockItemHistoryDTO.Fields.oldStockItemGroupId, StockItemHistoryDTO.Fields.newStockItemGroupId);
@@ -153,6 +190,10 @@ public class StockItemHistoryService {
             stockItemHistoryBuilder.loggedAt(LocalDateTime.now(Clock.systemUTC()));
         }
 
+        if (stockItemHistoryWriter.isEnabled()) {
+            return stockItemHistoryWriter.enqueue(stockItemHistoryBuilder.build());
+        }
+
         return stockItemHistoryRepository.save(stockItemHistoryBuilder.build());
     }
 }
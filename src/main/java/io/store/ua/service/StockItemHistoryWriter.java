@@ -0,0 +1,211 @@
+package io.store.ua.service;
+
+import io.store.ua.entity.immutable.StockItemHistory;
+import io.store.ua.utility.SqlResourceReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigInteger;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind pipeline for stock item history.
+ * The history row is written to the outbox table inside the caller's transaction, so it commits or rolls back
+ * together with the stock item change. After the commit the outbox ID is queued in memory and a background writer
+ * moves queued rows into the history table in batches. Rows the queue rejects, rows of a failed batch
+ * and rows still queued when the process stops stay in the outbox and are moved by the scheduled recovery
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockItemHistoryWriter {
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${stockItem.history.writeBehind.enabled:false}")
+    private boolean enabled;
+    @Value("${stockItem.history.writeBehind.queueCapacity:10000}")
+    private int queueCapacity;
+    @Value("${stockItem.history.writeBehind.batchSize:500}")
+    private int batchSize;
+    @Value("${stockItem.history.writeBehind.flushIntervalMillis:200}")
+    private long flushIntervalMillis;
+    @Value("${stockItem.history.writeBehind.recoveryMinAgeSeconds:60}")
+    private long recoveryMinAgeSeconds;
+
+    private BlockingQueue<Long> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = Thread.ofPlatform()
+                .name("stock-item-history-writer")
+                .daemon()
+                .start(this::drain);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Writes the history row to the outbox within the surrounding transaction, a failed write fails the transaction.
+     * The row is queued for the history table once the transaction commits
+     *
+     * @return the history row, not yet persisted to the history table and without an ID
+     */
+    public StockItemHistory enqueue(StockItemHistory stockItemHistory) {
+        Long outboxId = namedParameterJdbcTemplate.queryForObject(SqlResourceReader.getSQL("insertStockItemHistoryOutbox"),
+                parameters(stockItemHistory),
+                Long.class);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(outboxId);
+                }
+            });
+        } else {
+            offer(outboxId);
+        }
+
+        return stockItemHistory;
+    }
+
+    /**
+     * Moves outbox rows left behind by the writer into the history table
+     */
+    @Scheduled(fixedDelayString = "${stockItem.history.writeBehind.recoveryIntervalSeconds:30}", timeUnit = TimeUnit.SECONDS, initialDelay = 0)
+    public void recover() {
+        recover(recoveryMinAgeSeconds);
+    }
+
+    /**
+     * @param minAgeSeconds only outbox rows older than this are moved
+     * @return amount of moved rows
+     */
+    public int recover(long minAgeSeconds) {
+        int recovered = 0;
+        int moved;
+
+        do {
+            moved = namedParameterJdbcTemplate.update(SqlResourceReader.getSQL("recoverStockItemHistoryOutbox"),
+                    new MapSqlParameterSource()
+                            .addValue("minAgeSeconds", minAgeSeconds)
+                            .addValue("batchSize", batchSize));
+            recovered += moved;
+        } while (moved == batchSize);
+
+        if (recovered > 0) {
+            log.warn("Stock item history rows recovered from outbox: {}", recovered);
+        }
+
+        return recovered;
+    }
+
+    /**
+     * Never blocks the committing thread, a row the queue doesn't take right away is left to the recovery
+     */
+    private void offer(Long outboxId) {
+        if (running && queue.offer(outboxId)) {
+            return;
+        }
+
+        log.debug("Stock item history queue rejected outbox row '{}', it's left to the recovery", outboxId);
+    }
+
+    private void drain() {
+        List<Long> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                Long outboxId = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+                if (outboxId == null) {
+                    continue;
+                }
+
+                batch.add(outboxId);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Deleting from the outbox and inserting into history is one statement, so a row is never moved twice
+     * even when the recovery picks it up at the same time
+     */
+    private void flush(List<Long> batch) {
+        try {
+            namedParameterJdbcTemplate.update(SqlResourceReader.getSQL("moveStockItemHistoryOutbox"),
+                    new MapSqlParameterSource("ids", batch));
+        } catch (RuntimeException e) {
+            log.error("Failed to move {} stock item history row(s) from the outbox, they're left to the recovery", batch.size(), e);
+        }
+    }
+
+    private static MapSqlParameterSource parameters(StockItemHistory stockItemHistory) {
+        return new MapSqlParameterSource()
+                .addValue("stockItemId", stockItemHistory.getStockItemId())
+                .addValue("title", stockItemHistory.getTitle())
+                .addValue("currentProductPrice", toLong(stockItemHistory.getCurrentProductPrice()), Types.BIGINT)
+                .addValue("currency", stockItemHistory.getCurrency())
+                .addValue("loggedAt", stockItemHistory.getLoggedAt())
+                .addValue("oldGroupId", stockItemHistory.getOldGroupId(), Types.BIGINT)
+                .addValue("newGroupId", stockItemHistory.getNewGroupId(), Types.BIGINT)
+                .addValue("oldWarehouseId", stockItemHistory.getOldWarehouseId(), Types.BIGINT)
+                .addValue("newWarehouseId", stockItemHistory.getNewWarehouseId(), Types.BIGINT)
+                .addValue("quantityBefore", toLong(stockItemHistory.getQuantityBefore()), Types.BIGINT)
+                .addValue("quantityAfter", toLong(stockItemHistory.getQuantityAfter()), Types.BIGINT)
+                .addValue("oldExpiration", stockItemHistory.getOldExpiration(), Types.DATE)
+                .addValue("newExpiration", stockItemHistory.getNewExpiration(), Types.DATE)
+                .addValue("oldStatus", Objects.toString(stockItemHistory.getOldStatus(), null), Types.VARCHAR)
+                .addValue("newStatus", Objects.toString(stockItemHistory.getNewStatus(), null), Types.VARCHAR)
+                .addValue("oldSectionId", stockItemHistory.getOldSectionId(), Types.BIGINT)
+                .addValue("newSectionId", stockItemHistory.getNewSectionId(), Types.BIGINT)
+                .addValue("oldActivity", stockItemHistory.getOldActivity(), Types.BOOLEAN)
+                .addValue("newActivity", stockItemHistory.getNewActivity(), Types.BOOLEAN);
+    }
+
+    private static Long toLong(BigInteger value) {
+        return value == null ? null : value.longValueExact();
+    }
+}
@@ -1,5 +1,6 @@
 package io.store.ua.service;
 
+import io.store.ua.entity.Product;
 import io.store.ua.entity.StockItem;
 import io.store.ua.entity.StockItemGroup;
 import io.store.ua.enums.StockItemStatus;
@@ -7,28 +8,50 @@ import io.store.ua.enums.WebSocketTopic;
 import io.store.ua.exceptions.BusinessException;
 import io.store.ua.exceptions.NotFoundException;
 import io.store.ua.models.data.ItemOutOfStockMessage;
+import io.store.ua.models.data.ProductAvailability;
 import io.store.ua.models.data.StockItemBatchKey;
+import io.store.ua.models.data.StockItemQuantityChange;
+import io.store.ua.models.data.StockItemSummary;
+import io.store.ua.models.data.StockItemSummaryVersionGroup;
 import io.store.ua.models.data.StockItemVersionGroup;
+import io.store.ua.models.data.StockItemsOutOfStockMessage;
+import io.store.ua.models.dto.StockItemActionResultDTO;
 import io.store.ua.models.dto.StockItemDTO;
 import io.store.ua.models.dto.StockItemHistoryDTO;
 import io.store.ua.repository.StockItemRepository;
 import io.store.ua.repository.StorageSectionRepository;
 import io.store.ua.utility.CodeGenerator;
+import io.store.ua.utility.KeysetCursor;
+import io.store.ua.utility.SearchPredicates;
 import io.store.ua.utility.SocketService;
+import io.store.ua.utility.SqlResourceReader;
 import io.store.ua.validations.FieldValidator;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.*;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ValidationException;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -40,6 +63,10 @@ public class StockItemService {
     private final EntityManager entityManager;
     private final StockItemHistoryService stockItemHistoryService;
     private final SocketService socketService;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final StockItemAvailabilityService stockItemAvailabilityService;
+    @Value("${stockItem.bulk.batchSize:500}")
+    private int bulkBatchSize;
 
     public List<StockItem> findBy(List<@NotNull(message = "Warehouse ID can't be null") Long> warehouseIDs,
                                   List<@NotNull(message = "Product ID can't be null") Long> productIDs,
@@ -51,58 +78,102 @@ public class StockItemService {
                                   Boolean isItemGroupActive,
                                   @Min(value = 1, message = "Size of page can't be less than 1") int pageSize,
                                   @Min(value = 1, message = "A page number can't be less than 1") int page) {
+        return findBy(warehouseIDs,
+                productIDs,
+                stockItemGroupIDs,
+                statuses,
+                storageSectionIDs,
+                codePart,
+                isItemActive,
+                isItemGroupActive,
+                null,
+                pageSize,
+                page);
+    }
+
+    public List<StockItem> findBy(List<@NotNull(message = "Warehouse ID can't be null") Long> warehouseIDs,
+                                  List<@NotNull(message = "Product ID can't be null") Long> productIDs,
+                                  List<@NotNull(message = "Stock item group ID can't be null") Long> stockItemGroupIDs,
+                                  List<@NotNull(message = "Status can't be null") String> statuses,
+                                  List<@NotNull(message = "Storage section ID can't be null") Long> storageSectionIDs,
+                                  String codePart,
+                                  Boolean isItemActive,
+                                  Boolean isItemGroupActive,
+                                  String cursor,
+                                  @Min(value = 1, message = "Size of page can't be less than 1") int pageSize,
+                                  @Min(value = 1, message = "A page number can't be less than 1") int page) {
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
         CriteriaQuery<StockItem> criteriaQuery = criteriaBuilder.createQuery(StockItem.class);
         Root<StockItem> root = criteriaQuery.from(StockItem.class);
 
-        List<Predicate> predicates = new ArrayList<>();
-
-        if (warehouseIDs != null && !warehouseIDs.isEmpty()) {
-            predicates.add(root.get(StockItem.Fields.warehouseId).in(warehouseIDs));
-        }
-
-        if (productIDs != null && !productIDs.isEmpty()) {
-            predicates.add(root.get(StockItem.Fields.productId).in(productIDs));
+        List<Predicate> predicates = buildPredicates(criteriaBuilder,
+                root,
+                warehouseIDs,
+                productIDs,
+                stockItemGroupIDs,
+                statuses,
+                storageSectionIDs,
+                codePart,
+                isItemActive,
+                isItemGroupActive);
+
+        if (StringUtils.isNotBlank(cursor)) {
+            predicates.add(KeysetCursor.seek(criteriaBuilder, root.get(StockItem.Fields.id), cursor));
         }
 
-        if (stockItemGroupIDs != null && !stockItemGroupIDs.isEmpty()) {
-            predicates.add(root.get(StockItem.Fields.stockItemGroupId).in(stockItemGroupIDs));
-        }
-
-        if (statuses != null && !statuses.isEmpty()) {
-            try {
-                predicates.add(root.get(StockItem.Fields.status).in(statuses.stream().map(status ->
-                        StockItemStatus.valueOf(status.toUpperCase())).toList()));
-            } catch (IllegalArgumentException e) {
-                throw new BusinessException("Invalid stock item status");
-            }
-        }
+        criteriaQuery
+                .select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(criteriaBuilder.asc(root.get(StockItem.Fields.id)));
 
-        if (storageSectionIDs != null && !storageSectionIDs.isEmpty()) {
-            predicates.add(root.get(StockItem.Fields.storageSectionId).in(storageSectionIDs));
-        }
 
-        if (StringUtils.isNotBlank(codePart)) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get(StockItem.Fields.code)), "%" + codePart.toLowerCase() + "%"));
-        }
+        return entityManager.createQuery(criteriaQuery)
+                .setFirstResult(StringUtils.isNotBlank(cursor) ? 0 : (page - 1) * pageSize)
+                .setMaxResults(pageSize)
+                .getResultList();
+    }
 
-        if (isItemActive != null) {
-            predicates.add(criteriaBuilder.equal(root.get(StockItem.Fields.isActive), isItemActive));
-        }
+    /**
+     * Same search as {@link #findBy}, but selects only stock columns with product code and title in one statement,
+     * without loading product, group and section entity graphs
+     */
+    public List<StockItemSummary> findSummaryBy(List<@NotNull(message = "Warehouse ID can't be null") Long> warehouseIDs,
+                                                List<@NotNull(message = "Product ID can't be null") Long> productIDs,
+                                                List<@NotNull(message = "Stock item group ID can't be null") Long> stockItemGroupIDs,
+                                                List<@NotNull(message = "Status can't be null") String> statuses,
+                                                List<@NotNull(message = "Storage section ID can't be null") Long> storageSectionIDs,
+                                                String codePart,
+                                                Boolean isItemActive,
+                                                Boolean isItemGroupActive,
+                                                String cursor,
+                                                @Min(value = 1, message = "Size of page can't be less than 1") int pageSize,
+                                                @Min(value = 1, message = "A page number can't be less than 1") int page) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StockItemSummary> criteriaQuery = criteriaBuilder.createQuery(StockItemSummary.class);
+        Root<StockItem> root = criteriaQuery.from(StockItem.class);
 
-        if (isItemGroupActive != null) {
-            Join<StockItem, StockItemGroup> groupJoin = root.join(StockItem.Fields.stockItemGroup, JoinType.INNER);
-            predicates.add(criteriaBuilder.equal(groupJoin.get(StockItemGroup.Fields.isActive), isItemGroupActive));
+        List<Predicate> predicates = buildPredicates(criteriaBuilder,
+                root,
+                warehouseIDs,
+                productIDs,
+                stockItemGroupIDs,
+                statuses,
+                storageSectionIDs,
+                codePart,
+                isItemActive,
+                isItemGroupActive);
+
+        if (StringUtils.isNotBlank(cursor)) {
+            predicates.add(KeysetCursor.seek(criteriaBuilder, root.get(StockItem.Fields.id), cursor));
         }
 
         criteriaQuery
-                .select(root)
+                .select(selectSummary(criteriaBuilder, root))
                 .where(predicates.toArray(new Predicate[0]))
                 .orderBy(criteriaBuilder.asc(root.get(StockItem.Fields.id)));
 
-
         return entityManager.createQuery(criteriaQuery)
-                .setFirstResult((page - 1) * pageSize)
+                .setFirstResult(StringUtils.isNotBlank(cursor) ? 0 : (page - 1) * pageSize)
                 .setMaxResults(pageSize)
                 .getResultList();
     }
@@ -117,54 +188,36 @@ public class StockItemService {
                                                         Boolean isItemGroupActive,
                                                         @Min(value = 1, message = "Size of page can't be less than 1") int pageSize,
                                                         @Min(value = 1, message = "A page number can't be less than 1") int page) {
+        List<StockItemBatchKey> batchKeys = findBatchKeys(warehouseIDs,
+                productIDs,
+                stockItemGroupIDs,
+                statuses,
+                storageSectionIDs,
+                codePart,
+                isItemActive,
+                isItemGroupActive,
+                pageSize,
+                page);
+
+        if (batchKeys.isEmpty()) {
+            return List.of();
+        }
+
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
         CriteriaQuery<StockItem> criteriaQuery = criteriaBuilder.createQuery(StockItem.class);
         Root<StockItem> root = criteriaQuery.from(StockItem.class);
 
-        List<Predicate> predicates = new ArrayList<>();
-
-        if (warehouseIDs != null && !warehouseIDs.isEmpty()) {
-            predicates.add(root.get(StockItem.Fields.warehouseId).in(warehouseIDs));
-        }
-
-        if (productIDs != null && !productIDs.isEmpty()) {
-            predicates.add(root.get(StockItem.Fields.productId).in(productIDs));
-        }
-
-        if (stockItemGroupIDs != null && !stockItemGroupIDs.isEmpty()) {
-            predicates.add(root.get(StockItem.Fields.stockItemGroupId).in(stockItemGroupIDs));
-        }
-
-        if (statuses != null && !statuses.isEmpty()) {
-            try {
-                predicates.add(root.get(StockItem.Fields.status)
-                        .in(statuses.stream()
-                                .map(status -> StockItemStatus.valueOf(status.toUpperCase()))
-                                .toList()));
-            } catch (IllegalArgumentException e) {
-                throw new BusinessException("Invalid stock item status");
-            }
-        }
-
-        if (storageSectionIDs != null && !storageSectionIDs.isEmpty()) {
-            predicates.add(root.get(StockItem.Fields.storageSectionId).in(storageSectionIDs));
-        }
-
-        if (StringUtils.isNotBlank(codePart)) {
-            predicates.add(criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get(StockItem.Fields.code)),
-                    "%" + codePart.toLowerCase() + "%"
-            ));
-        }
-
-        if (isItemActive != null) {
-            predicates.add(criteriaBuilder.equal(root.get(StockItem.Fields.isActive), isItemActive));
-        }
-
-        if (isItemGroupActive != null) {
-            Join<StockItem, StockItemGroup> groupJoin = root.join(StockItem.Fields.stockItemGroup, JoinType.INNER);
-            predicates.add(criteriaBuilder.equal(groupJoin.get(StockItemGroup.Fields.isActive), isItemGroupActive));
-        }
+        List<Predicate> predicates = buildPredicates(criteriaBuilder,
+                root,
+                warehouseIDs,
+                productIDs,
+                stockItemGroupIDs,
+                statuses,
+                storageSectionIDs,
+                codePart,
+                isItemActive,
+                isItemGroupActive);
+        predicates.add(batchKeysPredicate(criteriaBuilder, root, batchKeys));
 
         criteriaQuery.select(root)
                 .where(predicates.toArray(new Predicate[0]))
@@ -172,45 +225,72 @@ public class StockItemService {
                         criteriaBuilder.asc(root.get(StockItem.Fields.productId)),
                         criteriaBuilder.asc(root.get(StockItem.Fields.batchVersion)));
 
-        List<StockItem> flat = entityManager.createQuery(criteriaQuery)
-                .setFirstResult((page - 1) * pageSize)
-                .setMaxResults(pageSize)
-                .getResultList();
-
-        Map<StockItemBatchKey, List<StockItem>> grouped = flat.stream()
-                .collect(Collectors.groupingBy(
-                        si -> new StockItemBatchKey(si.getWarehouseId(), si.getProductId()),
-                        LinkedHashMap::new,
-                        Collectors.toList()
-                ));
-
-        List<StockItemVersionGroup> result = new ArrayList<>();
-
-        for (List<StockItem> group : grouped.values()) {
-            if (group.isEmpty()) {
-                continue;
-            }
-
-            group.sort(Comparator.comparing(StockItem::getBatchVersion));
+        return groupVersions(entityManager.createQuery(criteriaQuery).getResultList(),
+                stockItem -> new StockItemBatchKey(stockItem.getWarehouseId(), stockItem.getProductId()),
+                StockItemVersionGroup::new);
+    }
 
-            StockItem base = group.getFirst();
+    /**
+     * Same grouping as {@link #findVersionBatch}, but over flat {@link StockItemSummary} rows
+     */
+    public List<StockItemSummaryVersionGroup> findSummaryVersionBatch(List<@NotNull(message = "Warehouse ID can't be null") Long> warehouseIDs,
+                                                                      List<@NotNull(message = "Product ID can't be null") Long> productIDs,
+                                                                      List<@NotNull(message = "Stock item group ID can't be null") Long> stockItemGroupIDs,
+                                                                      List<@NotNull(message = "Status can't be null") String> statuses,
+                                                                      List<@NotNull(message = "Storage section ID can't be null") Long> storageSectionIDs,
+                                                                      String codePart,
+                                                                      Boolean isItemActive,
+                                                                      Boolean isItemGroupActive,
+                                                                      @Min(value = 1, message = "Size of page can't be less than 1") int pageSize,
+                                                                      @Min(value = 1, message = "A page number can't be less than 1") int page) {
+        List<StockItemBatchKey> batchKeys = findBatchKeys(warehouseIDs,
+                productIDs,
+                stockItemGroupIDs,
+                statuses,
+                storageSectionIDs,
+                codePart,
+                isItemActive,
+                isItemGroupActive,
+                pageSize,
+                page);
+
+        if (batchKeys.isEmpty()) {
+            return List.of();
+        }
 
-            List<StockItem> others = group.size() > 1
-                    ? group.subList(1, group.size())
-                    : List.of();
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StockItemSummary> criteriaQuery = criteriaBuilder.createQuery(StockItemSummary.class);
+        Root<StockItem> root = criteriaQuery.from(StockItem.class);
 
-            result.add(new StockItemVersionGroup(base, List.copyOf(others)));
-        }
+        List<Predicate> predicates = buildPredicates(criteriaBuilder,
+                root,
+                warehouseIDs,
+                productIDs,
+                stockItemGroupIDs,
+                statuses,
+                storageSectionIDs,
+                codePart,
+                isItemActive,
+                isItemGroupActive);
+        predicates.add(batchKeysPredicate(criteriaBuilder, root, batchKeys));
+
+        criteriaQuery.select(selectSummary(criteriaBuilder, root))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(criteriaBuilder.asc(root.get(StockItem.Fields.warehouseId)),
+                        criteriaBuilder.asc(root.get(StockItem.Fields.productId)),
+                        criteriaBuilder.asc(root.get(StockItem.Fields.batchVersion)));
 
-        return result;
+        return groupVersions(entityManager.createQuery(criteriaQuery).getResultList(),
+                stockItemSummary -> new StockItemBatchKey(stockItemSummary.warehouseId(), stockItemSummary.productId()),
+                StockItemSummaryVersionGroup::new);
     }
 
-
     public StockItem findById(@NotNull(message = "Stock item ID can't be null") Long ID) {
         return stockItemRepository.findById(ID)
                 .orElseThrow(() -> new NotFoundException("StockItem with ID '%s' was not found".formatted(ID)));
     }
 
+    @Transactional
     public StockItem create(@NotNull(message = "StockItem payload can't be null") StockItemDTO stockItemDTO) {
         fieldValidator.validate(stockItemDTO, true,
                 StockItem.Fields.productId,
@@ -222,16 +302,16 @@ public class StockItemService {
                 StockItemDTO.Fields.isActive,
                 StockItemDTO.Fields.storageSectionId);
 
-        long productVersions = stockItemRepository.countStockItemByProductIdAndWarehouseId(stockItemDTO.getProductId(), stockItemDTO.getWarehouseId());
-
         if (stockItemDTO.getStorageSectionId() != null
                 && !storageSectionRepository.existsByIdAndWarehouseId(stockItemDTO.getStorageSectionId(), stockItemDTO.getWarehouseId())) {
             throw new BusinessException("Storage section with ID '%s' does not belong to warehouse with ID '%s'"
                     .formatted(stockItemDTO.getStorageSectionId(), stockItemDTO.getWarehouseId()));
         }
 
-        return stockItemRepository.save(StockItem.builder()
-                .batchVersion(productVersions + 1)
+        StockItemBatchKey batchKey = new StockItemBatchKey(stockItemDTO.getWarehouseId(), stockItemDTO.getProductId());
+
+        StockItem stockItem = stockItemRepository.save(StockItem.builder()
+                .batchVersion(allocateBatchVersions(Map.of(batchKey, 1L)).get(batchKey))
                 .code(CodeGenerator.StockCodeGenerator.generate())
                 .productId(stockItemDTO.getProductId())
                 .stockItemGroupId(stockItemDTO.getStockItemGroupId())
@@ -243,6 +323,156 @@ public class StockItemService {
                 .isActive(stockItemDTO.getIsActive() == null || stockItemDTO.getIsActive())
                 .storageSectionId(stockItemDTO.getStorageSectionId())
                 .build());
+
+        stockItemAvailabilityService.registerChange(null, ProductAvailability.of(stockItem));
+
+        return stockItem;
+    }
+
+    /**
+     * Creates stock items in bulk, the whole payload is validated up front, references are resolved with one query,
+     * batch versions are allocated per product and warehouse pair and rows are inserted with JDBC batches
+     *
+     * @return result per payload row in the same order
+     */
+    @Transactional
+    public List<StockItemActionResultDTO> createAll(@NotNull(message = "StockItem payload can't be null") List<StockItemDTO> stockItemDTOs) {
+        StockItemActionResultDTO[] results = new StockItemActionResultDTO[stockItemDTOs.size()];
+        List<Integer> validRows = new ArrayList<>();
+
+        for (int i = 0; i < stockItemDTOs.size(); i++) {
+            StockItemDTO stockItemDTO = stockItemDTOs.get(i);
+
+            if (stockItemDTO == null) {
+                results[i] = failure(null, new ValidationException("StockItem payload can't be null"));
+                continue;
+            }
+
+            try {
+                fieldValidator.validate(stockItemDTO, true,
+                        StockItem.Fields.productId,
+                        StockItem.Fields.stockItemGroupId,
+                        StockItem.Fields.warehouseId,
+                        StockItem.Fields.availableQuantity);
+                fieldValidator.validate(stockItemDTO, false,
+                        StockItemDTO.Fields.expiryDate,
+                        StockItemDTO.Fields.isActive,
+                        StockItemDTO.Fields.storageSectionId);
+
+                validRows.add(i);
+            } catch (ValidationException e) {
+                results[i] = failure(stockItemDTO, e);
+            }
+        }
+
+        if (validRows.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> stockItemGroupIds = new HashSet<>();
+        Set<Long> warehouseIds = new HashSet<>();
+        Map<Long, Long> storageSectionWarehouses = new HashMap<>();
+
+        namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("findStockItemReferences"),
+                new MapSqlParameterSource()
+                        .addValue("productIds", collectIds(stockItemDTOs, validRows, StockItemDTO::getProductId))
+                        .addValue("stockItemGroupIds", collectIds(stockItemDTOs, validRows, StockItemDTO::getStockItemGroupId))
+                        .addValue("warehouseIds", collectIds(stockItemDTOs, validRows, StockItemDTO::getWarehouseId))
+                        .addValue("storageSectionIds", collectIds(stockItemDTOs, validRows, StockItemDTO::getStorageSectionId)),
+                resultSet -> {
+                    long id = resultSet.getLong("id");
+
+                    switch (resultSet.getString("reference")) {
+                        case "PRODUCT" -> productIds.add(id);
+                        case "STOCK_ITEM_GROUP" -> stockItemGroupIds.add(id);
+                        case "WAREHOUSE" -> warehouseIds.add(id);
+                        case "STORAGE_SECTION" -> storageSectionWarehouses.put(id, resultSet.getLong("warehouse_id"));
+                    }
+                });
+
+        List<Integer> insertedRows = new ArrayList<>();
+        Map<StockItemBatchKey, Long> batchSizes = new HashMap<>();
+
+        for (int row : validRows) {
+            StockItemDTO stockItemDTO = stockItemDTOs.get(row);
+
+            if (!productIds.contains(stockItemDTO.getProductId())) {
+                results[row] = failure(stockItemDTO, new NotFoundException("Product with ID '%s' was not found".formatted(stockItemDTO.getProductId())));
+            } else if (!stockItemGroupIds.contains(stockItemDTO.getStockItemGroupId())) {
+                results[row] = failure(stockItemDTO, new NotFoundException("Stock item group with ID '%s' was not found".formatted(stockItemDTO.getStockItemGroupId())));
+            } else if (!warehouseIds.contains(stockItemDTO.getWarehouseId())) {
+                results[row] = failure(stockItemDTO, new NotFoundException("Warehouse with ID '%s' was not found".formatted(stockItemDTO.getWarehouseId())));
+            } else if (stockItemDTO.getStorageSectionId() != null
+                    && !stockItemDTO.getWarehouseId().equals(storageSectionWarehouses.get(stockItemDTO.getStorageSectionId()))) {
+                results[row] = failure(stockItemDTO, new BusinessException("Storage section with ID '%s' does not belong to warehouse with ID '%s'"
+                        .formatted(stockItemDTO.getStorageSectionId(), stockItemDTO.getWarehouseId())));
+            } else {
+                batchSizes.merge(new StockItemBatchKey(stockItemDTO.getWarehouseId(), stockItemDTO.getProductId()), 1L, Long::sum);
+                insertedRows.add(row);
+            }
+        }
+
+        Map<StockItemBatchKey, Long> batchVersions = allocateBatchVersions(batchSizes);
+        List<StockItem> stockItems = new ArrayList<>();
+
+        for (int row : insertedRows) {
+            StockItemDTO stockItemDTO = stockItemDTOs.get(row);
+            StockItemBatchKey batchKey = new StockItemBatchKey(stockItemDTO.getWarehouseId(), stockItemDTO.getProductId());
+
+            stockItems.add(StockItem.builder()
+                    .batchVersion(batchVersions.merge(batchKey, 1L, Long::sum) - 1)
+                    .code(CodeGenerator.StockCodeGenerator.generate())
+                    .productId(stockItemDTO.getProductId())
+                    .stockItemGroupId(stockItemDTO.getStockItemGroupId())
+                    .warehouseId(stockItemDTO.getWarehouseId())
+                    .expiryDate(stockItemDTO.getExpiryDate())
+                    .availableQuantity(stockItemDTO.getAvailableQuantity())
+                    .status(stockItemDTO.isSwitchOff() ? StockItemStatus.OUT_OF_SERVICE
+                            : determineStatus(stockItemDTO.getAvailableQuantity()))
+                    .isActive(stockItemDTO.getIsActive() == null || stockItemDTO.getIsActive())
+                    .storageSectionId(stockItemDTO.getStorageSectionId())
+                    .version(0L)
+                    .build());
+        }
+
+        for (int from = 0; from < stockItems.size(); from += bulkBatchSize) {
+            List<StockItem> chunk = stockItems.subList(from, Math.min(from + bulkBatchSize, stockItems.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+
+            namedParameterJdbcTemplate.batchUpdate(SqlResourceReader.getSQL("insertStockItem"),
+                    chunk.stream()
+                            .map(stockItem -> new MapSqlParameterSource()
+                                    .addValue("batchVersion", stockItem.getBatchVersion())
+                                    .addValue("code", stockItem.getCode())
+                                    .addValue("productId", stockItem.getProductId())
+                                    .addValue("stockItemGroupId", stockItem.getStockItemGroupId())
+                                    .addValue("warehouseId", stockItem.getWarehouseId())
+                                    .addValue("expiryDate", stockItem.getExpiryDate(), Types.DATE)
+                                    .addValue("availableQuantity", stockItem.getAvailableQuantity().longValueExact())
+                                    .addValue("status", stockItem.getStatus().name())
+                                    .addValue("isActive", stockItem.getIsActive())
+                                    .addValue("storageSectionId", stockItem.getStorageSectionId(), Types.BIGINT))
+                            .toArray(SqlParameterSource[]::new),
+                    keyHolder,
+                    new String[]{"id"});
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+            }
+        }
+
+        for (int i = 0; i < insertedRows.size(); i++) {
+            results[insertedRows.get(i)] = StockItemActionResultDTO.builder()
+                    .stockItem(stockItems.get(i))
+                    .success(true)
+                    .build();
+            stockItemAvailabilityService.registerChange(null, ProductAvailability.of(stockItems.get(i)));
+        }
+
+        return Arrays.asList(results);
     }
 
     @Transactional
@@ -250,6 +480,7 @@ public class StockItemService {
         fieldValidator.validate(stockItemDTO, StockItemDTO.Fields.stockItemId, true);
         StockItem current = stockItemRepository.findById(stockItemDTO.getStockItemId())
                 .orElseThrow(() -> new NotFoundException("StockItem with ID '%s' was not found".formatted(stockItemDTO.getStockItemId())));
+        ProductAvailability availabilityBefore = ProductAvailability.of(current);
 
         StockItemHistoryDTO.StockItemHistoryDTOBuilder stockItemHistoryDTOBuilder = StockItemHistoryDTO.builder();
         stockItemHistoryDTOBuilder.stockItemId(stockItemDTO.getStockItemId());
@@ -357,20 +588,365 @@ public class StockItemService {
             current.setStatus(determineStatus(current.getAvailableQuantity()));
         }
 
-        stockItemHistoryService.save(stockItemHistoryDTOBuilder.build());
+        stockItemHistoryService.save(stockItemHistoryDTOBuilder.build(), current.getProduct());
 
         var stockItem = stockItemRepository.save(current);
 
+        stockItemAvailabilityService.registerChange(availabilityBefore, ProductAvailability.of(stockItem));
+
         if (outOfStock) {
-            socketService.pushToTopic(WebSocketTopic.STOCK_ITEM_OUT_OF_STOCK.getTopic(), ItemOutOfStockMessage.builder()
-                    .stockItemId(stockItem.getId())
-                    .message("Stock item with ID '%s' is out of stock".formatted(stockItem.getId()))
-                    .build());
+            pushOutOfStock(stockItem.getId());
         }
 
         return stockItem;
     }
 
+    /**
+     * Applies cycle count results to stock items in one set-based update, history rows are written by the same statement.
+     * Stock items out of service stay so, stock items whose quantity already matches the count are left untouched
+     *
+     * @param stockItemDTOs stock item ID and counted available quantity per line
+     * @return quantities and statuses before and after the change for adjusted stock items
+     */
+    @Transactional
+    public List<StockItemQuantityChange> adjustAvailableQuantities(@NotNull(message = "StockItem payload can't be null") List<StockItemDTO> stockItemDTOs) {
+        Long[] stockItemIds = new Long[stockItemDTOs.size()];
+        Long[] quantities = new Long[stockItemDTOs.size()];
+        Set<Long> uniqueStockItemIds = new HashSet<>();
+
+        for (int i = 0; i < stockItemDTOs.size(); i++) {
+            StockItemDTO stockItemDTO = stockItemDTOs.get(i);
+
+            if (stockItemDTO == null) {
+                throw new ValidationException("StockItem payload can't be null");
+            }
+
+            fieldValidator.validate(stockItemDTO, true,
+                    StockItemDTO.Fields.stockItemId,
+                    StockItemDTO.Fields.availableQuantity);
+
+            if (!uniqueStockItemIds.add(stockItemDTO.getStockItemId())) {
+                throw new ValidationException("Stock item with ID '%s' is counted more than once".formatted(stockItemDTO.getStockItemId()));
+            }
+
+            stockItemIds[i] = stockItemDTO.getStockItemId();
+            quantities[i] = stockItemDTO.getAvailableQuantity().longValueExact();
+        }
+
+        if (stockItemIds.length == 0) {
+            return List.of();
+        }
+
+        List<Long> missingStockItemIds = namedParameterJdbcTemplate.queryForList(SqlResourceReader.getSQL("findMissingStockItemIds"),
+                new MapSqlParameterSource("stockItemIds", stockItemIds),
+                Long.class);
+
+        if (!missingStockItemIds.isEmpty()) {
+            throw new NotFoundException("Stock items with IDs %s were not found".formatted(missingStockItemIds));
+        }
+
+        List<StockItemQuantityChange> quantityChanges = namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("adjustStockItemQuantities"),
+                new MapSqlParameterSource()
+                        .addValue("stockItemIds", stockItemIds)
+                        .addValue("quantities", quantities)
+                        .addValue("loggedAt", LocalDateTime.now(Clock.systemUTC())),
+                (resultSet, ignore) -> mapQuantityChange(resultSet));
+
+        Map<Long, List<Long>> outOfStockPerWarehouse = new TreeMap<>();
+
+        for (StockItemQuantityChange quantityChange : quantityChanges) {
+            stockItemAvailabilityService.registerChange(quantityChange.availabilityBefore(), quantityChange.availabilityAfter());
+
+            if (quantityChange.isOutOfStock()) {
+                outOfStockPerWarehouse.computeIfAbsent(quantityChange.warehouseId(), ignore -> new ArrayList<>())
+                        .add(quantityChange.stockItemId());
+            }
+        }
+
+        outOfStockPerWarehouse.forEach((warehouseId, outOfStockIds) ->
+                socketService.pushToTopic(WebSocketTopic.STOCK_ITEMS_OUT_OF_STOCK.getTopic(), StockItemsOutOfStockMessage.builder()
+                        .warehouseId(warehouseId)
+                        .stockItemIds(outOfStockIds)
+                        .message("%s stock item(s) in warehouse with ID '%s' are out of stock".formatted(outOfStockIds.size(), warehouseId))
+                        .build()));
+
+        return quantityChanges;
+    }
+
+    /**
+     * Atomically takes the quantity from the stock item with a single conditional update,
+     * the row is changed only when it still holds at least the requested quantity
+     *
+     * @return quantities and statuses before and after the change
+     */
+    @Transactional
+    public StockItemQuantityChange decreaseAvailableQuantity(@NotNull(message = "Stock item ID can't be null") Long stockItemId,
+                                                             @NotNull(message = "Quantity can't be null")
+                                                             @Min(value = 0, message = "Quantity can't be less than 0") BigInteger quantity) {
+        StockItemQuantityChange quantityChange = changeAvailableQuantity("decreaseStockItemQuantity", stockItemId, quantity)
+                .orElseThrow(() -> stockItemRepository.existsById(stockItemId)
+                        ? new BusinessException("Requested quantity can't be greater than available quantity of stock item with ID '%s'".formatted(stockItemId))
+                        : new NotFoundException("StockItem with ID '%s' was not found".formatted(stockItemId)));
+
+        recordQuantityChange(quantityChange);
+
+        return quantityChange;
+    }
+
+    /**
+     * Atomically returns the quantity to the stock item with a single update
+     *
+     * @return quantities and statuses before and after the change
+     */
+    @Transactional
+    public StockItemQuantityChange increaseAvailableQuantity(@NotNull(message = "Stock item ID can't be null") Long stockItemId,
+                                                             @NotNull(message = "Quantity can't be null")
+                                                             @Min(value = 0, message = "Quantity can't be less than 0") BigInteger quantity) {
+        StockItemQuantityChange quantityChange = changeAvailableQuantity("increaseStockItemQuantity", stockItemId, quantity)
+                .orElseThrow(() -> new NotFoundException("StockItem with ID '%s' was not found".formatted(stockItemId)));
+
+        recordQuantityChange(quantityChange);
+
+        return quantityChange;
+    }
+
+    private Optional<StockItemQuantityChange> changeAvailableQuantity(String sqlName, Long stockItemId, BigInteger quantity) {
+        return namedParameterJdbcTemplate.query(SqlResourceReader.getSQL(sqlName),
+                        new MapSqlParameterSource()
+                                .addValue("stockItemId", stockItemId)
+                                .addValue("quantity", quantity.longValueExact()),
+                        (resultSet, ignore) -> mapQuantityChange(resultSet))
+                .stream()
+                .findFirst();
+    }
+
+    private static StockItemQuantityChange mapQuantityChange(ResultSet resultSet) throws SQLException {
+        return new StockItemQuantityChange(resultSet.getLong("id"),
+                resultSet.getLong("product_id"),
+                resultSet.getLong("warehouse_id"),
+                resultSet.getBoolean("is_active"),
+                BigInteger.valueOf(resultSet.getLong("quantity_before")),
+                BigInteger.valueOf(resultSet.getLong("quantity_after")),
+                StockItemStatus.valueOf(resultSet.getString("status_before")),
+                StockItemStatus.valueOf(resultSet.getString("status_after")));
+    }
+
+    private void recordQuantityChange(StockItemQuantityChange quantityChange) {
+        stockItemHistoryService.save(StockItemHistoryDTO.builder()
+                .stockItemId(quantityChange.stockItemId())
+                .quantityBefore(quantityChange.quantityBefore())
+                .quantityAfter(quantityChange.quantityAfter())
+                .oldStatus(quantityChange.statusBefore().name())
+                .newStatus(quantityChange.statusAfter().name())
+                .build());
+
+        stockItemAvailabilityService.registerChange(quantityChange.availabilityBefore(), quantityChange.availabilityAfter());
+
+        if (quantityChange.isOutOfStock()) {
+            pushOutOfStock(quantityChange.stockItemId());
+        }
+    }
+
+    private void pushOutOfStock(Long stockItemId) {
+        socketService.pushToTopic(WebSocketTopic.STOCK_ITEM_OUT_OF_STOCK.getTopic(), ItemOutOfStockMessage.builder()
+                .stockItemId(stockItemId)
+                .message("Stock item with ID '%s' is out of stock".formatted(stockItemId))
+                .build());
+    }
+
+    /**
+     * Reserves consecutive batch versions per product and warehouse pair with one atomic counter upsert,
+     * concurrent callers are serialized on the counter rows instead of colliding on the unique batch constraint
+     *
+     * @param batchSizes amount of versions requested per pair
+     * @return first reserved version per pair
+     */
+    private Map<StockItemBatchKey, Long> allocateBatchVersions(Map<StockItemBatchKey, Long> batchSizes) {
+        Map<StockItemBatchKey, Long> firstVersions = new HashMap<>();
+
+        if (batchSizes.isEmpty()) {
+            return firstVersions;
+        }
+
+        List<StockItemBatchKey> batchKeys = new ArrayList<>(batchSizes.keySet());
+
+        namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("allocateStockItemBatchVersions"),
+                new MapSqlParameterSource()
+                        .addValue("productIds", batchKeys.stream().map(StockItemBatchKey::productId).toArray(Long[]::new))
+                        .addValue("warehouseIds", batchKeys.stream().map(StockItemBatchKey::warehouseId).toArray(Long[]::new))
+                        .addValue("amounts", batchKeys.stream().map(batchSizes::get).toArray(Long[]::new)),
+                resultSet -> {
+                    StockItemBatchKey batchKey = new StockItemBatchKey(resultSet.getLong("warehouse_id"), resultSet.getLong("product_id"));
+                    firstVersions.put(batchKey, resultSet.getLong("last_version") - batchSizes.get(batchKey) + 1);
+                });
+
+        return firstVersions;
+    }
+
+    private List<Predicate> buildPredicates(CriteriaBuilder criteriaBuilder,
+                                            Root<StockItem> root,
+                                            List<Long> warehouseIDs,
+                                            List<Long> productIDs,
+                                            List<Long> stockItemGroupIDs,
+                                            List<String> statuses,
+                                            List<Long> storageSectionIDs,
+                                            String codePart,
+                                            Boolean isItemActive,
+                                            Boolean isItemGroupActive) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (warehouseIDs != null && !warehouseIDs.isEmpty()) {
+            predicates.add(root.get(StockItem.Fields.warehouseId).in(warehouseIDs));
+        }
+
+        if (productIDs != null && !productIDs.isEmpty()) {
+            predicates.add(root.get(StockItem.Fields.productId).in(productIDs));
+        }
+
+        if (stockItemGroupIDs != null && !stockItemGroupIDs.isEmpty()) {
+            predicates.add(root.get(StockItem.Fields.stockItemGroupId).in(stockItemGroupIDs));
+        }
+
+        if (statuses != null && !statuses.isEmpty()) {
+            try {
+                predicates.add(root.get(StockItem.Fields.status).in(statuses.stream().map(status ->
+                        StockItemStatus.valueOf(status.toUpperCase())).toList()));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("Invalid stock item status");
+            }
+        }
+
+        if (storageSectionIDs != null && !storageSectionIDs.isEmpty()) {
+            predicates.add(root.get(StockItem.Fields.storageSectionId).in(storageSectionIDs));
+        }
+
+        if (StringUtils.isNotBlank(codePart)) {
+            predicates.add(SearchPredicates.containsIgnoreCase(criteriaBuilder, root.get(StockItem.Fields.code), codePart));
+        }
+
+        if (isItemActive != null) {
+            predicates.add(criteriaBuilder.equal(root.get(StockItem.Fields.isActive), isItemActive));
+        }
+
+        if (isItemGroupActive != null) {
+            Join<StockItem, StockItemGroup> groupJoin = root.join(StockItem.Fields.stockItemGroup, JoinType.INNER);
+            predicates.add(criteriaBuilder.equal(groupJoin.get(StockItemGroup.Fields.isActive), isItemGroupActive));
+        }
+
+        return predicates;
+    }
+
+    private CompoundSelection<StockItemSummary> selectSummary(CriteriaBuilder criteriaBuilder, Root<StockItem> root) {
+        Join<StockItem, Product> productJoin = root.join(StockItem.Fields.product, JoinType.INNER);
+
+        return criteriaBuilder.construct(StockItemSummary.class,
+                root.get(StockItem.Fields.id),
+                root.get(StockItem.Fields.code),
+                root.get(StockItem.Fields.batchVersion),
+                root.get(StockItem.Fields.productId),
+                productJoin.get(Product.Fields.code),
+                productJoin.get(Product.Fields.title),
+                root.get(StockItem.Fields.stockItemGroupId),
+                root.get(StockItem.Fields.warehouseId),
+                root.get(StockItem.Fields.storageSectionId),
+                root.get(StockItem.Fields.expiryDate),
+                root.get(StockItem.Fields.availableQuantity),
+                root.get(StockItem.Fields.status),
+                root.get(StockItem.Fields.isActive));
+    }
+
+    /**
+     * Pages over distinct warehouse and product pairs matching the filters, so every page carries whole version groups
+     */
+    private List<StockItemBatchKey> findBatchKeys(List<Long> warehouseIDs,
+                                                  List<Long> productIDs,
+                                                  List<Long> stockItemGroupIDs,
+                                                  List<String> statuses,
+                                                  List<Long> storageSectionIDs,
+                                                  String codePart,
+                                                  Boolean isItemActive,
+                                                  Boolean isItemGroupActive,
+                                                  int pageSize,
+                                                  int page) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StockItemBatchKey> criteriaQuery = criteriaBuilder.createQuery(StockItemBatchKey.class);
+        Root<StockItem> root = criteriaQuery.from(StockItem.class);
+
+        List<Predicate> predicates = buildPredicates(criteriaBuilder,
+                root,
+                warehouseIDs,
+                productIDs,
+                stockItemGroupIDs,
+                statuses,
+                storageSectionIDs,
+                codePart,
+                isItemActive,
+                isItemGroupActive);
+
+        criteriaQuery.select(criteriaBuilder.construct(StockItemBatchKey.class,
+                        root.get(StockItem.Fields.warehouseId),
+                        root.get(StockItem.Fields.productId)))
+                .where(predicates.toArray(new Predicate[0]))
+                .groupBy(root.get(StockItem.Fields.warehouseId), root.get(StockItem.Fields.productId))
+                .orderBy(criteriaBuilder.asc(root.get(StockItem.Fields.warehouseId)),
+                        criteriaBuilder.asc(root.get(StockItem.Fields.productId)));
+
+        return entityManager.createQuery(criteriaQuery)
+                .setFirstResult((page - 1) * pageSize)
+                .setMaxResults(pageSize)
+                .getResultList();
+    }
+
+    private Predicate batchKeysPredicate(CriteriaBuilder criteriaBuilder, Root<StockItem> root, List<StockItemBatchKey> batchKeys) {
+        return criteriaBuilder.or(batchKeys.stream()
+                .map(batchKey -> criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get(StockItem.Fields.warehouseId), batchKey.warehouseId()),
+                        criteriaBuilder.equal(root.get(StockItem.Fields.productId), batchKey.productId())))
+                .toArray(Predicate[]::new));
+    }
+
+    /**
+     * Splits rows ordered by warehouse, product and batch version into version groups in one pass
+     */
+    private <T, G> List<G> groupVersions(List<T> orderedRows,
+                                         Function<T, StockItemBatchKey> batchKey,
+                                         BiFunction<T, List<T>, G> groupFactory) {
+        List<G> result = new ArrayList<>();
+        int groupStart = 0;
+
+        for (int i = 1; i <= orderedRows.size(); i++) {
+            if (i == orderedRows.size() || !batchKey.apply(orderedRows.get(i)).equals(batchKey.apply(orderedRows.get(groupStart)))) {
+                result.add(groupFactory.apply(orderedRows.get(groupStart), List.copyOf(orderedRows.subList(groupStart + 1, i))));
+                groupStart = i;
+            }
+        }
+
+        return result;
+    }
+
+    private StockItemActionResultDTO failure(StockItemDTO stockItemDTO, Throwable error) {
+        return StockItemActionResultDTO.builder()
+                .stockItem(stockItemDTO == null ? null : StockItem.builder()
+                        .productId(stockItemDTO.getProductId())
+                        .stockItemGroupId(stockItemDTO.getStockItemGroupId())
+                        .warehouseId(stockItemDTO.getWarehouseId())
+                        .storageSectionId(stockItemDTO.getStorageSectionId())
+                        .availableQuantity(stockItemDTO.getAvailableQuantity())
+                        .build())
+                .success(false)
+                .error(error)
+                .build();
+    }
+
+    private Long[] collectIds(List<StockItemDTO> stockItemDTOs, List<Integer> rows, Function<StockItemDTO, Long> idExtractor) {
+        return rows.stream()
+                .map(stockItemDTOs::get)
+                .map(idExtractor)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(Long[]::new);
+    }
+
     private StockItemStatus determineStatus(BigInteger availableQuantity) {
         if (availableQuantity.compareTo(BigInteger.ZERO) == 0) {
             return StockItemStatus.OUT_OF_STOCK;
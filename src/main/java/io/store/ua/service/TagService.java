@@ -3,6 +3,7 @@ package io.store.ua.service;
 import io.store.ua.entity.Tag;
 import io.store.ua.exceptions.NotFoundException;
 import io.store.ua.repository.TagRepository;
+import io.store.ua.utility.SearchPredicates;
 import io.store.ua.utility.SqlResourceReader;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.CriteriaBuilder;
@@ -39,8 +40,7 @@ public class TagService {
         List<Predicate> predicates = new java.util.ArrayList<>();
 
         if (StringUtils.isNotBlank(name)) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get(Tag.Fields.name)),
-                    "%" + name.toLowerCase() + "%"));
+            predicates.add(SearchPredicates.containsIgnoreCase(criteriaBuilder, root.get(Tag.Fields.name), name));
         }
 
         if (isActive != null) {
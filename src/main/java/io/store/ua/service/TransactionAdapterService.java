@@ -2,6 +2,7 @@ package io.store.ua.service;
 
 import io.store.ua.entity.Transaction;
 import io.store.ua.enums.PaymentProvider;
+import io.store.ua.enums.TransactionStatus;
 import io.store.ua.exceptions.NotFoundException;
 import io.store.ua.models.data.CheckoutFinancialInformation;
 import lombok.RequiredArgsConstructor;
@@ -40,4 +41,30 @@ public class TransactionAdapterService {
 
         return financialAPIService.settlePayment(transaction);
     }
+
+    public boolean supportsSettlementOnInitiation(PaymentProvider provider) {
+        FinancialAPIService financialAPIService = financialAPIServices.stream()
+                .filter(service -> service.provider() == provider)
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("No financial service found for specified payment provider!"));
+
+        return financialAPIService.supportsSettlementOnInitiation();
+    }
+
+    /**
+     * @return false as well when no financial service handles the provider
+     */
+    public boolean supportsPaymentStatusCheck(PaymentProvider provider) {
+        return financialAPIServices.stream()
+                .anyMatch(service -> service.provider() == provider && service.supportsPaymentStatusCheck());
+    }
+
+    public TransactionStatus checkPaymentStatus(Transaction transaction, PaymentProvider provider) {
+        FinancialAPIService financialAPIService = financialAPIServices.stream()
+                .filter(service -> service.provider() == provider)
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("No financial service found for specified payment provider!"));
+
+        return financialAPIService.checkPaymentStatus(transaction);
+    }
 }
@@ -0,0 +1,247 @@
+package io.store.ua.service;
+
+import io.store.ua.entity.Transaction;
+import io.store.ua.enums.PaymentProvider;
+import io.store.ua.enums.TransactionStatus;
+import io.store.ua.exceptions.HealthCheckException;
+import io.store.ua.exceptions.HttpException;
+import io.store.ua.utility.SqlResourceReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settles or fails initiated transactions whose outcome was never reported back by the provider.
+ * Initiated transactions are paged through by ID, their statuses are queried on a bounded amount of virtual threads
+ * and the changed ones are written in one batch per page. Calls to a provider are paced, the rate is halved whenever
+ * the provider answers with {@link HttpStatus#TOO_MANY_REQUESTS} and grows back by one request per second every second
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Validated
+public class TransactionReconciliationService {
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionAdapterService transactionAdapterService;
+
+    @Value("${transaction.reconciliation.providers:LIQ_PAY}")
+    private List<PaymentProvider> paymentProviders;
+    @Value("${transaction.reconciliation.pageSize:200}")
+    private int pageSize;
+    @Value("${transaction.reconciliation.parallelism:8}")
+    private int parallelism;
+    @Value("${transaction.reconciliation.maxRequestsPerSecond:10}")
+    private double maxRequestsPerSecond;
+    @Value("${transaction.reconciliation.minRequestsPerSecond:0.5}")
+    private double minRequestsPerSecond;
+    /**
+     * Younger transactions are most likely still being paid, they're left for the next run
+     */
+    @Value("${transaction.reconciliation.minAgeSeconds:60}")
+    private long minAgeSeconds;
+    @Value("${transaction.reconciliation.maxAgeDays:30}")
+    private long maxAgeDays;
+
+    private final Map<PaymentProvider, Pacer> pacers = new EnumMap<>(PaymentProvider.class);
+    private ExecutorService executorService;
+
+    @PostConstruct
+    void start() {
+        for (PaymentProvider paymentProvider : paymentProviders) {
+            if (!transactionAdapterService.supportsPaymentStatusCheck(paymentProvider)) {
+                throw new IllegalStateException("Transactions of '%s' can't be reconciled, the provider doesn't report payment statuses"
+                        .formatted(paymentProvider));
+            }
+        }
+
+        for (PaymentProvider paymentProvider : PaymentProvider.values()) {
+            pacers.put(paymentProvider, new Pacer(maxRequestsPerSecond, minRequestsPerSecond));
+        }
+
+        executorService = Executors.newFixedThreadPool(parallelism, Thread.ofVirtual()
+                .name("transaction-reconciliation-", 0)
+                .factory());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executorService.shutdownNow();
+        executorService.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.reconciliation.intervalSeconds:60}",
+            initialDelayString = "${transaction.reconciliation.intervalSeconds:60}",
+            timeUnit = TimeUnit.SECONDS)
+    public void reconcile() {
+        for (PaymentProvider paymentProvider : paymentProviders) {
+            try {
+                int updated = reconcile(paymentProvider);
+
+                if (updated > 0) {
+                    log.info("Reconciled {} initiated transaction(s) of '{}'", updated, paymentProvider);
+                }
+            } catch (Exception e) {
+                log.error("Initiated transactions of '{}' can't be reconciled", paymentProvider, e);
+            }
+        }
+    }
+
+    /**
+     * @return amount of transactions whose status was changed
+     */
+    public int reconcile(@NotNull(message = "Payment provider can't be null") PaymentProvider paymentProvider) {
+        LocalDateTime now = LocalDateTime.now(Clock.systemUTC());
+        Pacer pacer = pacers.get(paymentProvider);
+        long afterId = 0;
+        int updated = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Transaction> page = namedParameterJdbcTemplate.query(SqlResourceReader.getSQL("findInitiatedTransactions"),
+                    new MapSqlParameterSource()
+                            .addValue("paymentProvider", paymentProvider.name())
+                            .addValue("afterId", afterId)
+                            .addValue("createdAfter", now.minusDays(maxAgeDays))
+                            .addValue("createdBefore", now.minusSeconds(minAgeSeconds))
+                            .addValue("pageSize", pageSize),
+                    (resultSet, ignore) -> Transaction.builder()
+                            .id(resultSet.getLong("id"))
+                            .reference(resultSet.getString("reference"))
+                            .paymentProvider(paymentProvider)
+                            .status(TransactionStatus.INITIATED)
+                            .createdAt(resultSet.getObject("created_at", LocalDateTime.class))
+                            .build());
+
+            if (page.isEmpty()) {
+                break;
+            }
+
+            List<Future<TransactionStatus>> checks = page.stream()
+                    .map(transaction -> executorService.submit(() -> checkPaymentStatus(transaction, paymentProvider, pacer)))
+                    .toList();
+            List<MapSqlParameterSource> updates = new ArrayList<>();
+            boolean unavailable = false;
+
+            for (int i = 0; i < page.size(); i++) {
+                try {
+                    TransactionStatus status = checks.get(i).get();
+
+                    if (status != null && status != TransactionStatus.INITIATED) {
+                        updates.add(new MapSqlParameterSource()
+                                .addValue("id", page.get(i).getId())
+                                .addValue("status", status.name())
+                                .addValue("paidAt", LocalDateTime.now(Clock.systemUTC())));
+                    }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof HealthCheckException) {
+                        unavailable = true;
+                    } else {
+                        log.warn("Status of transaction '{}' can't be checked", page.get(i).getId(), e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    checks.forEach(check -> check.cancel(true));
+                    break;
+                }
+            }
+
+            if (!updates.isEmpty()) {
+                updated += Arrays.stream(namedParameterJdbcTemplate.batchUpdate(SqlResourceReader.getSQL("reconcileTransactionStatus"),
+                                updates.toArray(MapSqlParameterSource[]::new)))
+                        .filter(count -> count > 0)
+                        .sum();
+            }
+
+            // An open circuit rejects the rest of the pages as well, they're checked on the next run
+            if (unavailable || page.size() < pageSize) {
+                break;
+            }
+
+            afterId = page.getLast().getId();
+        }
+
+        return updated;
+    }
+
+    private TransactionStatus checkPaymentStatus(Transaction transaction, PaymentProvider paymentProvider, Pacer pacer)
+            throws InterruptedException {
+        pacer.acquire();
+
+        try {
+            TransactionStatus status = transactionAdapterService.checkPaymentStatus(transaction, paymentProvider);
+            pacer.onSuccess();
+            return status;
+        } catch (RuntimeException e) {
+            HttpException httpException = ExceptionUtils.throwableOfType(e, HttpException.class);
+
+            if (httpException != null && httpException.getStatus() == HttpStatus.TOO_MANY_REQUESTS) {
+                pacer.onThrottled();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Hands out evenly spaced call slots at the current rate, additive increase and multiplicative decrease of the rate
+     */
+    static final class Pacer {
+        private final double maxRate;
+        private final double minRate;
+        private double rate;
+        private long nextSlotNanos = System.nanoTime();
+
+        Pacer(double maxRate, double minRate) {
+            this.maxRate = maxRate;
+            this.minRate = minRate;
+            this.rate = maxRate;
+        }
+
+        void acquire() throws InterruptedException {
+            long waitNanos;
+
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(now, nextSlotNanos);
+                nextSlotNanos = slot + (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+                waitNanos = slot - now;
+            }
+
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+
+        synchronized void onSuccess() {
+            // A call per 1 / rate seconds, so the rate grows by one request per second every second
+            rate = Math.min(maxRate, rate + 1 / rate);
+        }
+
+        synchronized void onThrottled() {
+            rate = Math.max(minRate, rate / 2);
+            nextSlotNanos = Math.max(nextSlotNanos, System.nanoTime() + (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+        }
+    }
+}
@@ -8,27 +8,47 @@ import io.store.ua.enums.TransactionStatus;
 import io.store.ua.exceptions.BusinessException;
 import io.store.ua.exceptions.NotFoundException;
 import io.store.ua.models.data.CheckoutFinancialInformation;
+import io.store.ua.models.data.PaymentInitiation;
+import io.store.ua.models.dto.TransactionActionResultDTO;
 import io.store.ua.models.dto.TransactionDTO;
 import io.store.ua.repository.BeneficiaryRepository;
 import io.store.ua.repository.TransactionRepository;
+import io.store.ua.utility.CodeGenerator;
+import io.store.ua.utility.KeysetCursor;
+import io.store.ua.utility.SqlResourceReader;
 import io.store.ua.validations.FieldValidator;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.transaction.Transactional;
 import jakarta.validation.ValidationException;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 import java.math.BigInteger;
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -39,6 +59,14 @@ public class TransactionService {
     private final TransactionAdapterService transactionAdapterService;
     private final EntityManager entityManager;
     private final FieldValidator fieldValidator;
+    private final PaymentInitiationService paymentInitiationService;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Maximum amount of concurrent provider calls of a single bulk settlement per provider
+     */
+    @Value("${transaction.settlement.parallelism:8}")
+    private int settlementParallelism;
 
     private static <E extends Enum<E>> E parseEnumOrThrow(String value, Class<E> type, String fieldName) {
         try {
@@ -74,6 +102,42 @@ public class TransactionService {
                                     String paymentProvider,
                                     @Min(value = 1, message = "Size of page can't be less than 1") int pageSize,
                                     @Min(value = 1, message = "A page number can't be less than 1") int page) {
+        return findBy(transactionId,
+                reference,
+                currency,
+                amountFrom,
+                amountTo,
+                createdFrom,
+                createdTo,
+                paidFrom,
+                paidTo,
+                flowType,
+                purpose,
+                status,
+                beneficiaryID,
+                paymentProvider,
+                null,
+                pageSize,
+                page);
+    }
+
+    public List<Transaction> findBy(String transactionId,
+                                    String reference,
+                                    String currency,
+                                    BigInteger amountFrom,
+                                    BigInteger amountTo,
+                                    LocalDateTime createdFrom,
+                                    LocalDateTime createdTo,
+                                    LocalDateTime paidFrom,
+                                    LocalDateTime paidTo,
+                                    String flowType,
+                                    String purpose,
+                                    String status,
+                                    Long beneficiaryID,
+                                    String paymentProvider,
+                                    String cursor,
+                                    @Min(value = 1, message = "Size of page can't be less than 1") int pageSize,
+                                    @Min(value = 1, message = "A page number can't be less than 1") int page) {
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
         CriteriaQuery<Transaction> criteriaQuery = criteriaBuilder.createQuery(Transaction.class);
         Root<Transaction> root = criteriaQuery.from(Transaction.class);
@@ -138,18 +202,30 @@ public class TransactionService {
             predicates.add(criteriaBuilder.equal(root.get(Transaction.Fields.paymentProvider), parsed));
         }
 
+        if (StringUtils.isNotBlank(cursor)) {
+            predicates.add(KeysetCursor.seek(criteriaBuilder,
+                    root.get(Transaction.Fields.createdAt),
+                    root.get(Transaction.Fields.id),
+                    cursor,
+                    false));
+        }
+
         criteriaQuery
                 .select(root)
                 .where(criteriaBuilder.and(predicates.toArray(new Predicate[0])))
-                .orderBy(criteriaBuilder.asc(root.get(Transaction.Fields.createdAt)));
+                .orderBy(criteriaBuilder.asc(root.get(Transaction.Fields.createdAt)),
+                        criteriaBuilder.asc(root.get(Transaction.Fields.id)));
 
         return entityManager.createQuery(criteriaQuery)
-                .setFirstResult((page - 1) * pageSize)
+                .setFirstResult(StringUtils.isNotBlank(cursor) ? 0 : (page - 1) * pageSize)
                 .setMaxResults(pageSize)
                 .getResultList();
     }
 
-    public void synchroniseTransaction(@NotNull TransactionDTO transactionDTO) {
+    /**
+     * @return {@code false} when a transaction with the same idempotency key was already synchronised
+     */
+    public boolean synchroniseTransaction(@NotNull TransactionDTO transactionDTO) {
         fieldValidator.validate(transactionDTO, true,
                 TransactionDTO.Fields.purpose,
                 TransactionDTO.Fields.flow,
@@ -164,44 +240,39 @@ public class TransactionService {
         }
 
         TransactionFlowType transactionFlowType = parseEnumOrThrow(transactionDTO.getFlow(), TransactionFlowType.class, TransactionDTO.Fields.flow);
+        String idempotencyKey = transactionDTO.getIdempotencyKey();
 
-        switch (transactionFlowType) {
-            case CREDIT:
-                initiateIncomingPayment(transactionDTO, true);
-                break;
-            case DEBIT:
-                initiateOutcomingPayment(transactionDTO, true);
-                break;
-            default:
-                throw new ValidationException("Invalid transaction flow '%s'".formatted(transactionFlowType));
+        if (idempotencyKey != null && transactionRepository.existsByIdempotencyKey(idempotencyKey)) {
+            return false;
         }
-    }
 
-    public CheckoutFinancialInformation initiateIncomingPayment(@NotNull TransactionDTO transactionDTO, Boolean autoSettle) {
-        fieldValidator.validate(transactionDTO, true,
-                TransactionDTO.Fields.purpose,
-                TransactionDTO.Fields.amount,
-                TransactionDTO.Fields.currency,
-                TransactionDTO.Fields.beneficiaryId,
-                TransactionDTO.Fields.paymentProvider);
+        try {
+            switch (transactionFlowType) {
+                case CREDIT:
+                    initiateIncomingPayment(transactionDTO, true);
+                    break;
+                case DEBIT:
+                    initiateOutcomingPayment(transactionDTO, true);
+                    break;
+                default:
+                    throw new ValidationException("Invalid transaction flow '%s'".formatted(transactionFlowType));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent delivery of the same message saved it first
+            if (idempotencyKey != null && transactionRepository.existsByIdempotencyKey(idempotencyKey)) {
+                return false;
+            }
 
-        if (!beneficiaryRepository.existsById(transactionDTO.getBeneficiaryId())) {
-            throw new NotFoundException("Beneficiary with ID '%s' was not found".formatted(transactionDTO.getBeneficiaryId()));
+            throw e;
         }
 
-        PaymentProvider paymentProvider = parseEnumOrThrow(transactionDTO.getPaymentProvider(), PaymentProvider.class, TransactionDTO.Fields.paymentProvider);
-        TransactionPurpose purpose = parseEnumOrThrow(transactionDTO.getPurpose(), TransactionPurpose.class, TransactionDTO.Fields.purpose);
+        return true;
+    }
 
-        Transaction transaction = Transaction.builder()
-                .flowType(TransactionFlowType.CREDIT)
-                .purpose(purpose)
-                .amount(transactionDTO.getAmount())
-                .currency(transactionDTO.getCurrency())
-                .beneficiaryId(transactionDTO.getBeneficiaryId())
-                .paymentProvider(paymentProvider)
-                .build();
+    public CheckoutFinancialInformation initiateIncomingPayment(@NotNull TransactionDTO transactionDTO, Boolean autoSettle) {
+        Transaction transaction = buildTransaction(transactionDTO, TransactionFlowType.CREDIT);
 
-        var result = transactionAdapterService.initiateIncomingPayment(transaction, autoSettle != null && autoSettle, paymentProvider);
+        var result = transactionAdapterService.initiateIncomingPayment(transaction, autoSettle != null && autoSettle, transaction.getPaymentProvider());
 
         transactionRepository.save(transaction);
 
@@ -209,6 +280,50 @@ public class TransactionService {
     }
 
     public Transaction initiateOutcomingPayment(@NotNull TransactionDTO transactionDTO, Boolean autoSettle) {
+        Transaction transaction = buildTransaction(transactionDTO, TransactionFlowType.DEBIT);
+
+        transaction = transactionAdapterService.initiateOutcomingPayment(transaction,
+                autoSettle != null && autoSettle,
+                transaction.getPaymentProvider());
+
+        return transactionRepository.save(transaction);
+    }
+
+    /**
+     * Same as {@link #initiateIncomingPayment(TransactionDTO, Boolean)}, but returns before the provider is called,
+     * the result is available through {@link PaymentInitiationService#findById(Long)} and pushed over WebSocket
+     */
+    @Transactional
+    public PaymentInitiation initiateIncomingPaymentAsync(@NotNull TransactionDTO transactionDTO, Boolean autoSettle) {
+        return enqueue(buildTransaction(transactionDTO, TransactionFlowType.CREDIT), autoSettle);
+    }
+
+    /**
+     * Same as {@link #initiateOutcomingPayment(TransactionDTO, Boolean)}, but returns before the provider is called,
+     * the result is available through {@link PaymentInitiationService#findById(Long)} and pushed over WebSocket
+     */
+    @Transactional
+    public PaymentInitiation initiateOutcomingPaymentAsync(@NotNull TransactionDTO transactionDTO, Boolean autoSettle) {
+        return enqueue(buildTransaction(transactionDTO, TransactionFlowType.DEBIT), autoSettle);
+    }
+
+    private PaymentInitiation enqueue(Transaction transaction, Boolean autoSettle) {
+        // Rejected up front, a provider failing on it would only surface once the initiation is picked up
+        if (autoSettle != null && autoSettle
+                && !transactionAdapterService.supportsSettlementOnInitiation(transaction.getPaymentProvider())) {
+            throw new ValidationException("Auto settlement is not supported by '%s'".formatted(transaction.getPaymentProvider()));
+        }
+
+        // Placeholders until the provider assigns the real ones
+        String reference = CodeGenerator.TransactionCodeGenerator.generate(transaction.getPaymentProvider());
+        transaction.setTransactionId(reference);
+        transaction.setReference(reference);
+        transaction.setStatus(TransactionStatus.PENDING);
+
+        return paymentInitiationService.enqueue(transactionRepository.save(transaction), autoSettle != null && autoSettle);
+    }
+
+    private Transaction buildTransaction(TransactionDTO transactionDTO, TransactionFlowType flowType) {
         fieldValidator.validate(transactionDTO, true,
                 TransactionDTO.Fields.purpose,
                 TransactionDTO.Fields.amount,
@@ -223,20 +338,15 @@ public class TransactionService {
         PaymentProvider paymentProvider = parseEnumOrThrow(transactionDTO.getPaymentProvider(), PaymentProvider.class, TransactionDTO.Fields.paymentProvider);
         TransactionPurpose purpose = parseEnumOrThrow(transactionDTO.getPurpose(), TransactionPurpose.class, TransactionDTO.Fields.purpose);
 
-        Transaction transaction = Transaction.builder()
-                .flowType(TransactionFlowType.DEBIT)
+        return Transaction.builder()
+                .flowType(flowType)
                 .purpose(purpose)
                 .amount(transactionDTO.getAmount())
                 .currency(transactionDTO.getCurrency())
                 .beneficiaryId(transactionDTO.getBeneficiaryId())
                 .paymentProvider(paymentProvider)
+                .idempotencyKey(transactionDTO.getIdempotencyKey())
                 .build();
-
-        transaction = transactionAdapterService.initiateOutcomingPayment(transaction,
-                autoSettle != null && autoSettle,
-                paymentProvider);
-
-        return transactionRepository.save(transaction);
     }
 
     public Transaction settlePayment(@NotNull TransactionDTO transactionDTO) {
@@ -252,6 +362,107 @@ public class TransactionService {
         return transactionRepository.save(transactionAdapterService.settlePayment(transaction, paymentProvider));
     }
 
+    /**
+     * Settles every requested transaction, a failure of one of them doesn't fail the rest.
+     * Transactions are loaded at once, the providers are called concurrently and the settled transactions are saved in one batch
+     */
+    public List<TransactionActionResultDTO> settlePayments(@NotNull List<TransactionDTO> transactionDTOs) {
+        List<TransactionActionResultDTO> results = new ArrayList<>();
+        Map<String, PaymentProvider> requested = new LinkedHashMap<>();
+
+        for (TransactionDTO transactionDTO : transactionDTOs) {
+            try {
+                fieldValidator.validate(transactionDTO, true,
+                        TransactionDTO.Fields.transactionId,
+                        TransactionDTO.Fields.paymentProvider);
+                requested.putIfAbsent(transactionDTO.getTransactionId(),
+                        parseEnumOrThrow(transactionDTO.getPaymentProvider(), PaymentProvider.class, TransactionDTO.Fields.paymentProvider));
+            } catch (ValidationException e) {
+                results.add(failed(Transaction.builder().transactionId(transactionDTO.getTransactionId()).build(), e));
+            }
+        }
+
+        Map<String, Transaction> transactions = transactionRepository.findAllByTransactionIdIn(requested.keySet())
+                .stream()
+                .collect(Collectors.toMap(Transaction::getTransactionId, Function.identity()));
+        Map<PaymentProvider, Semaphore> providerPermits = new EnumMap<>(PaymentProvider.class);
+        List<Future<TransactionActionResultDTO>> settlements = new ArrayList<>();
+
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            requested.forEach((transactionId, paymentProvider) -> {
+                Transaction transaction = transactions.get(transactionId);
+
+                if (transaction == null) {
+                    results.add(failed(Transaction.builder().transactionId(transactionId).build(),
+                            new NotFoundException("Transaction with transactionID '%s' was not found".formatted(transactionId))));
+                } else if (transaction.getStatus() != TransactionStatus.INITIATED) {
+                    results.add(failed(transaction, new BusinessException("Can't settle payment, because transaction is already finalised")));
+                } else {
+                    Semaphore permits = providerPermits.computeIfAbsent(paymentProvider, ignore -> new Semaphore(settlementParallelism));
+                    settlements.add(executorService.submit(() -> settle(transaction, paymentProvider, permits)));
+                }
+            });
+        }
+
+        List<TransactionActionResultDTO> changed = new ArrayList<>();
+
+        for (Future<TransactionActionResultDTO> settlement : settlements) {
+            TransactionActionResultDTO result = settlement.resultNow();
+            results.add(result);
+
+            if (result.getSuccess() && result.getTransaction().getStatus() != TransactionStatus.INITIATED) {
+                changed.add(result);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            int[] counts = namedParameterJdbcTemplate.batchUpdate(SqlResourceReader.getSQL("settleTransaction"),
+                    changed.stream()
+                            .map(result -> new MapSqlParameterSource()
+                                    .addValue("id", result.getTransaction().getId())
+                                    .addValue("status", result.getTransaction().getStatus().name())
+                                    .addValue("paidAt", result.getTransaction().getPaidAt(), Types.TIMESTAMP))
+                            .toArray(MapSqlParameterSource[]::new));
+
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    changed.get(i).setSuccess(false);
+                    changed.get(i).setError(new BusinessException("Transaction was finalised concurrently, the settlement result wasn't saved"));
+                }
+            }
+        }
+
+        return results;
+    }
+
+    private TransactionActionResultDTO settle(Transaction transaction, PaymentProvider paymentProvider, Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(transaction, e);
+        }
+
+        try {
+            return TransactionActionResultDTO.builder()
+                    .transaction(transactionAdapterService.settlePayment(transaction, paymentProvider))
+                    .success(true)
+                    .build();
+        } catch (RuntimeException e) {
+            return failed(transaction, e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static TransactionActionResultDTO failed(Transaction transaction, Throwable error) {
+        return TransactionActionResultDTO.builder()
+                .transaction(transaction)
+                .success(false)
+                .error(error)
+                .build();
+    }
+
     public Transaction cancelPayment(@NotNull TransactionDTO transactionDTO) {
         fieldValidator.validate(transactionDTO, true,
                 TransactionDTO.Fields.transactionId,
@@ -4,6 +4,8 @@ import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import io.store.ua.exceptions.HealthCheckException;
 import io.store.ua.models.api.external.response.CloudinaryImageUploadResponse;
+import io.store.ua.utility.CircuitBreaker;
+import io.store.ua.utility.CircuitBreakerRegistry;
 import jakarta.validation.ValidationException;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
@@ -29,12 +31,14 @@ public class CloudinaryAPIService implements ExternalAPIService {
     private final Cloudinary cloudinary;
     private final Integer limitSizeMB;
     private final String rootFolder;
+    private final CircuitBreaker circuitBreaker;
 
     public CloudinaryAPIService(@Value("${cloudinary.cloud}") String cloud,
                                 @Value("${cloudinary.credentials.apiKey}") String apiKey,
                                 @Value("${cloudinary.credentials.apiSecret}") String apiSecret,
                                 @Value("${cloudinary.limit}") Integer limitSizeMB,
-                                @Value("${cloudinary.folder}") String folder) {
+                                @Value("${cloudinary.folder}") String folder,
+                                CircuitBreakerRegistry circuitBreakerRegistry) {
         this.cloudinary = new Cloudinary(ObjectUtils.asMap(
                 Constants.CLOUD_NAME, cloud,
                 Constants.API_KEY, apiKey,
@@ -42,6 +46,12 @@ public class CloudinaryAPIService implements ExternalAPIService {
         ));
         this.limitSizeMB = limitSizeMB;
         this.rootFolder = folder;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(Constants.CIRCUIT_BREAKER);
+    }
+
+    @Override
+    public CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
     }
 
     public CompletableFuture<CloudinaryImageUploadResponse> uploadImage(@NotNull(message = "File can't be null") MultipartFile file) {
@@ -56,7 +66,7 @@ public class CloudinaryAPIService implements ExternalAPIService {
 
         validateUploadingFile(file);
 
-        return CompletableFuture.supplyAsync(() -> {
+        return circuitBreaker().executeAsync(() -> CompletableFuture.supplyAsync(() -> {
             try {
                 Map<?, ?> result = cloudinary.uploader().upload(
                         file.getBytes(),
@@ -78,7 +88,7 @@ public class CloudinaryAPIService implements ExternalAPIService {
             } catch (IOException e) {
                 throw new ValidationException("Failed to upload image to Cloudinary", e);
             }
-        });
+        }));
     }
 
     public CompletableFuture<Boolean> deleteImage(@NotBlank(message = "ID of image can't be blank") String publicID) {
@@ -86,7 +96,7 @@ public class CloudinaryAPIService implements ExternalAPIService {
             throw new HealthCheckException();
         }
 
-        return CompletableFuture.supplyAsync(() -> {
+        return circuitBreaker().executeAsync(() -> CompletableFuture.supplyAsync(() -> {
             try {
                 Map<?, ?> response = cloudinary.uploader().destroy(
                         publicID,
@@ -104,7 +114,7 @@ public class CloudinaryAPIService implements ExternalAPIService {
             } catch (IOException e) {
                 throw new ValidationException("Failed to delete image from Cloudinary");
             }
-        });
+        }));
     }
 
     public CompletableFuture<List<CloudinaryImageUploadResponse>> uploadAllImages(@NotEmpty(message = "At least one photo should be present")
@@ -180,6 +190,7 @@ public class CloudinaryAPIService implements ExternalAPIService {
     }
 
     static class Constants {
+        static final String CIRCUIT_BREAKER = "cloudinary";
         static final String PUBLIC_ID = "public_id";
         static final String SECURE_URL = "secure_url";
         static final String URL = "url";
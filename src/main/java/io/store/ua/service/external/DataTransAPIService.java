@@ -13,6 +13,8 @@ import io.store.ua.models.data.CheckoutFinancialInformation;
 import io.store.ua.models.data.ExternalReferences;
 import io.store.ua.service.CurrencyRateService;
 import io.store.ua.service.FinancialAPIService;
+import io.store.ua.utility.CircuitBreaker;
+import io.store.ua.utility.CircuitBreakerRegistry;
 import io.store.ua.utility.CodeGenerator;
 import io.store.ua.utility.HttpRequestService;
 import io.store.ua.utility.RegularObjectMapper;
@@ -48,6 +50,7 @@ import java.util.concurrent.TimeUnit;
 public class DataTransAPIService implements ExternalAPIService, FinancialAPIService {
     private final HttpRequestService httpRequestService;
     private final CurrencyRateService currencyRateService;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
     @Value("${transaction.incoming.provider:DataTrans}")
     private String provider;
     @Value("${transaction.incoming.merchantId}")
@@ -61,24 +64,37 @@ public class DataTransAPIService implements ExternalAPIService, FinancialAPIServ
     @Value("${transaction.incoming.reference.length}")
     private int referenceLength;
 
+    /**
+     * Probes the API through the circuit breaker, so a failing check counts as a failed call and an open circuit is probed
+     * even when no payments are made
+     */
     @Scheduled(fixedRate = 1, timeUnit = TimeUnit.MINUTES, initialDelay = 0)
     public void healthCheck() {
-        httpRequestService.queryAsync(new Request.Builder()
-                        .addHeader(HttpHeaders.AUTHORIZATION, getAuthorizationHeader(Constants.TokenType.BASIC))
-                        .url(healthCheckUrl)
-                        .get()
-                        .build()
-                )
-                .orTimeout(15, TimeUnit.SECONDS)
-                .thenApply(response -> {
-                    IS_HEALTHY.set(true);
-                    response.close();
-                    return null;
-                })
-                .exceptionally(ignore -> {
-                    IS_HEALTHY.set(false);
-                    return null;
-                });
+        if (!isHealthy()) {
+            return;
+        }
+
+        try {
+            circuitBreaker().executeAsync(() -> httpRequestService.queryAsync(new Request.Builder()
+                                    .addHeader(HttpHeaders.AUTHORIZATION, getAuthorizationHeader(Constants.TokenType.BASIC))
+                                    .url(healthCheckUrl)
+                                    .get()
+                                    .build()
+                            )
+                            .orTimeout(15, TimeUnit.SECONDS))
+                    .thenApply(response -> {
+                        response.close();
+                        return null;
+                    })
+                    .exceptionally(ignore -> null);
+        } catch (HealthCheckException ignore) {
+            // All probe calls are already in flight
+        }
+    }
+
+    @Override
+    public CircuitBreaker circuitBreaker() {
+        return circuitBreakerRegistry.circuitBreaker(Constants.CIRCUIT_BREAKER);
     }
 
     private String getAuthorizationHeader(String type) {
@@ -198,15 +214,16 @@ public class DataTransAPIService implements ExternalAPIService, FinancialAPIServ
                     .theme(new DTPaymentInitiationRequest.Theme())
                     .autoSettle(autoSettle)
                     .build();
+            byte[] requestBody = RegularObjectMapper.writeToBytes(request);
 
-            Response response = httpRequestService.queryAsync(new Request.Builder()
+            Response response = circuitBreaker().execute(() -> httpRequestService.queryAsync(new Request.Builder()
                             .addHeader(HttpHeaders.AUTHORIZATION, getAuthorizationHeader(Constants.TokenType.BASIC))
                             .addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                             .addHeader(Constants.Headers.IDEMPOTENCY_KEY, "initialisePayment_%s".formatted(reference))
                             .url(("%s%s").formatted(url, Constants.Transactions.INITIATE_TRANSACTION.getValue()))
-                            .method(HttpMethod.POST.name(), RequestBody.create(RegularObjectMapper.writeToBytes(request))).build())
+                            .method(HttpMethod.POST.name(), RequestBody.create(requestBody)).build())
                     .orTimeout(15, TimeUnit.SECONDS)
-                    .join();
+                    .join());
 
             try (response) {
                 String body = response.peekBody(Long.MAX_VALUE).string();
@@ -241,15 +258,16 @@ public class DataTransAPIService implements ExternalAPIService, FinancialAPIServ
                     .transactionReference(reference)
                     .card(new DTPaymentInitiationRequest.Card())
                     .build();
+            byte[] requestBody = RegularObjectMapper.writeToBytes(request);
 
-            Response response = httpRequestService.queryAsync(new Request.Builder()
+            Response response = circuitBreaker().execute(() -> httpRequestService.queryAsync(new Request.Builder()
                             .addHeader(HttpHeaders.AUTHORIZATION, getAuthorizationHeader(Constants.TokenType.BASIC))
                             .addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                             .addHeader(Constants.Headers.IDEMPOTENCY_KEY, "authorizePayment_%s".formatted(reference))
                             .url(("%s%s").formatted(url, Constants.Transactions.AUTHORIZE_TRANSACTION.getValue()))
-                            .method(HttpMethod.POST.name(), RequestBody.create(RegularObjectMapper.writeToBytes(request))).build())
+                            .method(HttpMethod.POST.name(), RequestBody.create(requestBody)).build())
                     .orTimeout(15, TimeUnit.SECONDS)
-                    .join();
+                    .join());
 
             try (response) {
                 String body = response.peekBody(Long.MAX_VALUE).string();
@@ -284,15 +302,16 @@ public class DataTransAPIService implements ExternalAPIService, FinancialAPIServ
                     .amount(currencyRateService.convert(currency, Constants.Currency.USD, amount).toString())
                     .transactionReference(reference)
                     .build();
+            byte[] requestBody = RegularObjectMapper.writeToBytes(request);
 
-            httpRequestService.queryAsync(new Request.Builder()
+            circuitBreaker().execute(() -> httpRequestService.queryAsync(new Request.Builder()
                             .addHeader(HttpHeaders.AUTHORIZATION, getAuthorizationHeader(Constants.TokenType.BASIC))
                             .addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                             .addHeader(Constants.Headers.IDEMPOTENCY_KEY, "settlePayment_%s".formatted(reference))
                             .url(("%s%s").formatted(url, Constants.Transactions.SETTLE_TRANSACTION.formatPath(transactionId)))
-                            .method(HttpMethod.POST.name(), RequestBody.create(RegularObjectMapper.writeToBytes(request))).build())
+                            .method(HttpMethod.POST.name(), RequestBody.create(requestBody)).build())
                     .orTimeout(15, TimeUnit.SECONDS)
-                    .join().close();
+                    .join()).close();
 
 
             return DataTransTransaction.builder()
@@ -306,6 +325,8 @@ public class DataTransAPIService implements ExternalAPIService, FinancialAPIServ
 
     @NoArgsConstructor(access = AccessLevel.PRIVATE)
     public static class Constants {
+        static final String CIRCUIT_BREAKER = "dataTrans";
+
         @RequiredArgsConstructor
         public enum Transactions {
             INITIATE_TRANSACTION("/transactions"),
@@ -1,15 +1,22 @@
 package io.store.ua.service.external;
 
-import java.util.concurrent.atomic.AtomicBoolean;
+import io.store.ua.utility.CircuitBreaker;
 
 public interface ExternalAPIService {
-    AtomicBoolean IS_HEALTHY = new AtomicBoolean(true);
+    /**
+     * @return circuit breaker of this provider only, a failing provider doesn't affect the others
+     */
+    CircuitBreaker circuitBreaker();
 
     default boolean isHealthy() {
-        return IS_HEALTHY.get();
+        return circuitBreaker().isCallPermitted();
     }
 
     default void setHealth(boolean flag) {
-        IS_HEALTHY.set(flag);
+        if (flag) {
+            circuitBreaker().close();
+        } else {
+            circuitBreaker().forceOpen();
+        }
     }
 }
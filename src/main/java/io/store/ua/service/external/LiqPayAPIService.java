@@ -18,6 +18,8 @@ import io.store.ua.models.data.ExternalReferences;
 import io.store.ua.repository.BeneficiaryRepository;
 import io.store.ua.service.CurrencyRateService;
 import io.store.ua.service.FinancialAPIService;
+import io.store.ua.utility.CircuitBreaker;
+import io.store.ua.utility.CircuitBreakerRegistry;
 import io.store.ua.utility.CodeGenerator;
 import io.store.ua.utility.HttpRequestService;
 import io.store.ua.utility.RegularObjectMapper;
@@ -46,6 +48,7 @@ public class LiqPayAPIService implements ExternalAPIService, FinancialAPIService
     private final CurrencyRateService currencyRateService;
     private final BeneficiaryRepository beneficiaryRepository;
     private final FieldValidator fieldValidator;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
 
     @Value("${transaction.outcoming.provider}")
     private String provider;
@@ -77,11 +80,26 @@ public class LiqPayAPIService implements ExternalAPIService, FinancialAPIService
         }
     }
 
+    @Override
+    public CircuitBreaker circuitBreaker() {
+        return circuitBreakerRegistry.circuitBreaker(Constants.CIRCUIT_BREAKER);
+    }
+
     @Override
     public PaymentProvider provider() {
         return PaymentProvider.LIQ_PAY;
     }
 
+    @Override
+    public boolean supportsSettlementOnInitiation() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsPaymentStatusCheck() {
+        return true;
+    }
+
     @Override
     public CheckoutFinancialInformation initiateIncomingPayment(Transaction transaction, boolean settleOnInitiation) {
         if (settleOnInitiation) {
@@ -165,6 +183,18 @@ public class LiqPayAPIService implements ExternalAPIService, FinancialAPIService
         return transaction;
     }
 
+    @Override
+    public TransactionStatus checkPaymentStatus(Transaction transaction) {
+        LPResponse response = checkPaymentStatusAPICall(transaction.getReference());
+
+        // An error answers the status query itself, e.g. for a checkout that wasn't paid yet, not the payment
+        if (response.getStatus() == LPResponse.Status.ERROR) {
+            return TransactionStatus.INITIATED;
+        }
+
+        return LPResponse.Status.convertToBasicStatus(response.getStatus());
+    }
+
     public LPInitiatePaymentResponse initiateIncomingPaymentAPICall(@NotNull LPInitiatePaymentRequestDTO requestDTO) {
         if (!isHealthy()) {
             throw new HealthCheckException();
@@ -233,16 +263,18 @@ public class LiqPayAPIService implements ExternalAPIService, FinancialAPIService
                     .build())
             );
 
-            try (var response = httpRequestService.queryAsync(new Request.Builder()
+            try (var response = circuitBreaker().execute(() -> httpRequestService.queryAsync(new Request.Builder()
                             .url(apiUrl)
                             .post(new FormBody.Builder()
                                     .add(Constants.CONTENT, encoded)
                                     .add(Constants.SIGNATURE, sign(privateKey, encoded))
                                     .build())
                             .build())
-                    .join()) {
+                    .join())) {
                 return RegularObjectMapper.read(response.peekBody(Long.MAX_VALUE).string(), LPResponse.class);
             }
+        } catch (HealthCheckException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to initiate outgoing LiqPay payment", e);
         }
@@ -261,22 +293,25 @@ public class LiqPayAPIService implements ExternalAPIService, FinancialAPIService
                     .orderId(orderId)
                     .build()));
 
-            try (var response = httpRequestService.queryAsync(new Request.Builder()
+            try (var response = circuitBreaker().execute(() -> httpRequestService.queryAsync(new Request.Builder()
                             .url(apiUrl)
                             .post(new FormBody.Builder()
                                     .add(Constants.CONTENT, data)
                                     .add(Constants.SIGNATURE, sign(privateKey, data))
                                     .build())
                             .build())
-                    .join()) {
+                    .join())) {
                 return RegularObjectMapper.read(response.peekBody(Long.MAX_VALUE).string(), LPResponse.class);
             }
+        } catch (HealthCheckException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
     public static class Constants {
+        static final String CIRCUIT_BREAKER = "liqPay";
         public static final String ACTION_PAY = "pay";
         public static final String ACTION_STATUS = "status";
         public static final String CONTENT = "data";
@@ -5,6 +5,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.store.ua.entity.cache.CurrencyRate;
 import io.store.ua.exceptions.ExternalException;
 import io.store.ua.exceptions.HealthCheckException;
+import io.store.ua.utility.CircuitBreaker;
+import io.store.ua.utility.CircuitBreakerRegistry;
 import io.store.ua.utility.HttpRequestService;
 import io.store.ua.utility.RegularObjectMapper;
 import lombok.Data;
@@ -29,12 +31,20 @@ import java.util.concurrent.TimeUnit;
 @FieldNameConstants
 @Validated
 public class OpenExchangeRateAPIService implements ExternalAPIService {
+    private static final String CIRCUIT_BREAKER = "openExchangeRate";
+
     private final HttpRequestService httpRequestService;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
     @Value("${exchange.url}")
     private String url;
     @Value("${exchange.appId}")
     private String appId;
 
+    @Override
+    public CircuitBreaker circuitBreaker() {
+        return circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER);
+    }
+
     public List<CurrencyRate> refreshCurrencyRates() {
         if (!isHealthy()) {
             throw new HealthCheckException();
@@ -46,9 +56,9 @@ public class OpenExchangeRateAPIService implements ExternalAPIService {
                 .get()
                 .build();
 
-        var response = httpRequestService.queryAsync(request)
+        var response = circuitBreaker().execute(() -> httpRequestService.queryAsync(request)
                 .orTimeout(15, TimeUnit.SECONDS)
-                .join();
+                .join());
 
         try (response) {
             var exchangeRates = RegularObjectMapper.read(response.peekBody(Long.MAX_VALUE).string(), OpenExchangeResponse.class);
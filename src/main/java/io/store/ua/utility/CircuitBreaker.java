@@ -0,0 +1,252 @@
+package io.store.ua.utility;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.store.ua.exceptions.HealthCheckException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sheds load from a single external provider.
+ * Outcomes of the last calls are kept in a count-based sliding window, the circuit opens when the share of failed or slow calls
+ * crosses its threshold, rejects every call while open and lets a limited amount of probe calls through once the open period is over.
+ * The probes close the circuit again when all of them succeed in time, any failed or slow probe opens it for another period
+ */
+public class CircuitBreaker {
+    private final String provider;
+    private final Config config;
+    private final Timer successfulCalls;
+    private final Timer failedCalls;
+    private final Counter rejectedCalls;
+
+    private final boolean[] failedOutcomes;
+    private final boolean[] slowOutcomes;
+    private int windowPosition;
+    private int windowCalls;
+    private int failedInWindow;
+    private int slowInWindow;
+    private int probesPermitted;
+    private int probesSucceeded;
+
+    private volatile State state = State.CLOSED;
+    /**
+     * Bumped on every state change, outcomes of calls permitted in an earlier state are ignored
+     */
+    private volatile long generation;
+    private volatile long openUntilNanos;
+    private volatile boolean forcedOpen;
+
+    public CircuitBreaker(String provider, Config config, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.config = config;
+        this.failedOutcomes = new boolean[config.windowSize()];
+        this.slowOutcomes = new boolean[config.windowSize()];
+        this.successfulCalls = callTimer(meterRegistry, "success");
+        this.failedCalls = callTimer(meterRegistry, "failure");
+        this.rejectedCalls = Counter.builder("external.calls.rejected")
+                .tag("provider", provider)
+                .register(meterRegistry);
+
+        for (State gaugeState : State.values()) {
+            Gauge.builder("external.circuit_breaker.state", this, circuitBreaker -> circuitBreaker.state == gaugeState ? 1 : 0)
+                    .tag("provider", provider)
+                    .tag("state", gaugeState.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Tells whether a call would be let through right now, without taking a probe slot
+     */
+    public boolean isCallPermitted() {
+        return state != State.OPEN || (!forcedOpen && openUntilNanos - System.nanoTime() <= 0);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        long permit = acquirePermission();
+        long start = System.nanoTime();
+
+        try {
+            T result = call.get();
+            onOutcome(permit, System.nanoTime() - start, false);
+            return result;
+        } catch (RuntimeException e) {
+            onOutcome(permit, System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+
+    /**
+     * Same as {@link #execute(Supplier)}, the outcome is recorded when the returned future completes
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> call) {
+        long permit = acquirePermission();
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            onOutcome(permit, System.nanoTime() - start, true);
+            throw e;
+        }
+
+        return future.whenComplete((ignore, throwable) -> onOutcome(permit, System.nanoTime() - start, throwable != null));
+    }
+
+    /**
+     * Keeps the circuit open until {@link #close()} is called
+     */
+    public synchronized void forceOpen() {
+        forcedOpen = true;
+        transitionTo(State.OPEN);
+    }
+
+    public synchronized void close() {
+        forcedOpen = false;
+        transitionTo(State.CLOSED);
+    }
+
+    private long acquirePermission() {
+        long permit = generation;
+        State current = state;
+
+        if (current == State.CLOSED) {
+            return permit;
+        }
+
+        // Rejected without taking the lock, so an open circuit costs only a couple of volatile reads
+        if (current == State.OPEN && (forcedOpen || openUntilNanos - System.nanoTime() > 0)) {
+            throw reject();
+        }
+
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (forcedOpen || openUntilNanos - System.nanoTime() > 0) {
+                    throw reject();
+                }
+
+                transitionTo(State.HALF_OPEN);
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (probesPermitted >= config.halfOpenProbes()) {
+                    throw reject();
+                }
+
+                probesPermitted++;
+            }
+
+            return generation;
+        }
+    }
+
+    private HealthCheckException reject() {
+        rejectedCalls.increment();
+
+        return new HealthCheckException("Provider '%s' is unavailable, its circuit breaker is open".formatted(provider));
+    }
+
+    private void onOutcome(long permit, long durationNanos, boolean failed) {
+        (failed ? failedCalls : successfulCalls).record(durationNanos, TimeUnit.NANOSECONDS);
+        boolean slow = durationNanos >= config.slowCallDuration().toNanos();
+
+        synchronized (this) {
+            if (permit != generation) {
+                return;
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (failed || slow) {
+                    transitionTo(State.OPEN);
+                } else if (++probesSucceeded >= config.halfOpenProbes()) {
+                    transitionTo(State.CLOSED);
+                }
+            } else if (state == State.CLOSED) {
+                record(failed, slow);
+
+                if (windowCalls >= config.minimumCalls()
+                        && (failedInWindow * 100 >= config.failureRateThreshold() * windowCalls
+                        || slowInWindow * 100 >= config.slowCallRateThreshold() * windowCalls)) {
+                    transitionTo(State.OPEN);
+                }
+            }
+        }
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if (windowCalls == failedOutcomes.length) {
+            failedInWindow -= failedOutcomes[windowPosition] ? 1 : 0;
+            slowInWindow -= slowOutcomes[windowPosition] ? 1 : 0;
+        } else {
+            windowCalls++;
+        }
+
+        failedOutcomes[windowPosition] = failed;
+        slowOutcomes[windowPosition] = slow;
+        failedInWindow += failed ? 1 : 0;
+        slowInWindow += slow ? 1 : 0;
+        windowPosition = (windowPosition + 1) % failedOutcomes.length;
+    }
+
+    private void transitionTo(State next) {
+        windowPosition = 0;
+        windowCalls = 0;
+        failedInWindow = 0;
+        slowInWindow = 0;
+        probesPermitted = 0;
+        probesSucceeded = 0;
+
+        if (next == State.OPEN) {
+            openUntilNanos = System.nanoTime() + config.openDuration().toNanos();
+        }
+
+        generation++;
+        state = next;
+    }
+
+    private Timer callTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("external.calls")
+                .tag("provider", provider)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * @param windowSize            amount of the last calls the failure and slow call rates are computed over
+     * @param minimumCalls          the circuit never opens before this amount of calls is recorded
+     * @param failureRateThreshold  percentage of failed calls that opens the circuit
+     * @param slowCallDuration      calls taking at least that long are slow
+     * @param slowCallRateThreshold percentage of slow calls that opens the circuit
+     * @param openDuration          how long calls are rejected before probing
+     * @param halfOpenProbes        amount of probe calls let through after the open period
+     */
+    public record Config(int windowSize,
+                         int minimumCalls,
+                         int failureRateThreshold,
+                         Duration slowCallDuration,
+                         int slowCallRateThreshold,
+                         Duration openDuration,
+                         int halfOpenProbes) {
+    }
+}
@@ -0,0 +1,44 @@
+package io.store.ua.utility;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one {@link CircuitBreaker} per external provider.
+ * Settings are read from {@code circuitBreaker.<provider>.*}, falling back to {@code circuitBreaker.default.*}
+ */
+@Service
+@RequiredArgsConstructor
+public class CircuitBreakerRegistry {
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public CircuitBreaker circuitBreaker(String provider) {
+        return circuitBreakers.computeIfAbsent(provider, this::create);
+    }
+
+    private CircuitBreaker create(String provider) {
+        return new CircuitBreaker(provider,
+                new CircuitBreaker.Config(property(provider, "windowSize", 20),
+                        property(provider, "minimumCalls", 10),
+                        property(provider, "failureRateThreshold", 50),
+                        Duration.ofMillis(property(provider, "slowCallDurationMillis", 10_000)),
+                        property(provider, "slowCallRateThreshold", 80),
+                        Duration.ofSeconds(property(provider, "openDurationSeconds", 30)),
+                        property(provider, "halfOpenProbes", 3)),
+                meterRegistry);
+    }
+
+    private int property(String provider, String name, int defaultValue) {
+        return environment.getProperty("circuitBreaker.%s.%s".formatted(provider, name),
+                Integer.class,
+                environment.getProperty("circuitBreaker.default.%s".formatted(name), Integer.class, defaultValue));
+    }
+}
@@ -0,0 +1,22 @@
+package io.store.ua.utility;
+
+import jakarta.validation.ValidationException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class EnumParser {
+    /**
+     * Case-insensitive {@link Enum#valueOf(Class, String)}
+     *
+     * @throws ValidationException when the value doesn't name a constant of the type
+     */
+    public static <E extends Enum<E>> E parse(String value, Class<E> type, String fieldName) {
+        try {
+            return Enum.valueOf(type, StringUtils.trimToEmpty(value).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid %s '%s'".formatted(fieldName, value));
+        }
+    }
+}
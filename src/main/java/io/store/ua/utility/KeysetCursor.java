@@ -0,0 +1,127 @@
+package io.store.ua.utility;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.validation.ValidationException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque cursor for keyset pagination, holds the sort key and ID of the last row of a page,
+ * so the next page is fetched with an index seek instead of skipping all previous rows
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class KeysetCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "~";
+
+    public static String encode(Long id) {
+        return encode(id, id);
+    }
+
+    public static String encode(Object sortKey, Long id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString("%s%s%s".formatted(sortKey, SEPARATOR, id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds predicate selecting rows strictly after cursor position for an ordering by ID only
+     */
+    public static Predicate seek(CriteriaBuilder criteriaBuilder, Path<Long> idPath, String cursor) {
+        return criteriaBuilder.greaterThan(idPath, decodeId(cursor));
+    }
+
+    /**
+     * Builds predicate selecting rows strictly after cursor position for an ordering by timestamp with ID tiebreak
+     */
+    public static Predicate seek(CriteriaBuilder criteriaBuilder,
+                                 Path<LocalDateTime> sortPath,
+                                 Path<Long> idPath,
+                                 String cursor,
+                                 boolean descending) {
+        String[] parts = split(cursor);
+        LocalDateTime sortKey;
+        long id;
+
+        try {
+            sortKey = LocalDateTime.parse(parts[0]);
+            id = Long.parseLong(parts[1]);
+        } catch (RuntimeException e) {
+            throw new ValidationException("Invalid cursor '%s'".formatted(cursor));
+        }
+
+        if (descending) {
+            return criteriaBuilder.or(criteriaBuilder.lessThan(sortPath, sortKey),
+                    criteriaBuilder.and(criteriaBuilder.equal(sortPath, sortKey), criteriaBuilder.lessThan(idPath, id)));
+        }
+
+        return criteriaBuilder.or(criteriaBuilder.greaterThan(sortPath, sortKey),
+                criteriaBuilder.and(criteriaBuilder.equal(sortPath, sortKey), criteriaBuilder.greaterThan(idPath, id)));
+    }
+
+    public static <E> String next(List<E> page, int pageSize, Function<E, Object> sortKey, Function<E, Long> id) {
+        if (page == null || page.isEmpty() || page.size() < pageSize) {
+            return null;
+        }
+
+        E last = page.getLast();
+
+        return encode(sortKey.apply(last), id.apply(last));
+    }
+
+    public static <E> ResponseEntity<List<E>> respond(List<E> page, int pageSize, Function<E, Object> sortKey, Function<E, Long> id) {
+        String nextCursor = next(page, pageSize, sortKey, id);
+
+        if (nextCursor == null) {
+            return ResponseEntity.ok(page);
+        }
+
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, nextCursor)
+                .body(page);
+    }
+
+    public static <E> ResponseEntity<List<E>> respond(List<E> page, int pageSize, Function<E, Long> id) {
+        return respond(page, pageSize, id::apply, id);
+    }
+
+    private static long decodeId(String cursor) {
+        try {
+            return Long.parseLong(split(cursor)[1]);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid cursor '%s'".formatted(cursor));
+        }
+    }
+
+    private static String[] split(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            throw new ValidationException("Cursor can't be blank");
+        }
+
+        String decoded;
+
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor '%s'".formatted(cursor));
+        }
+
+        int separatorIndex = decoded.lastIndexOf(SEPARATOR);
+
+        if (separatorIndex <= 0 || separatorIndex == decoded.length() - 1) {
+            throw new ValidationException("Invalid cursor '%s'".formatted(cursor));
+        }
+
+        return new String[]{decoded.substring(0, separatorIndex), decoded.substring(separatorIndex + 1)};
+    }
+}
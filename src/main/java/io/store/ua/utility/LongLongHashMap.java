@@ -0,0 +1,192 @@
+package io.store.ua.utility;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map with primitive long keys and values, avoids boxing on hot lookups,
+ * not thread safe, callers guard access themselves
+ */
+public class LongLongHashMap {
+    private static final int MINIMAL_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongLongHashMap() {
+        this(MINIMAL_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public long get(long key, long defaultValue) {
+        int slot = find(key);
+
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    public void put(long key, long value) {
+        int slot = slotFor(key);
+
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+        }
+
+        values[slot] = value;
+        growIfNeeded();
+    }
+
+    /**
+     * Adds delta to the value of the key, absent key is treated as zero
+     *
+     * @return value after addition
+     */
+    public long addTo(long key, long delta) {
+        int slot = slotFor(key);
+
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            values[slot] = delta;
+            size++;
+            growIfNeeded();
+
+            return delta;
+        }
+
+        return values[slot] += delta;
+    }
+
+    public boolean remove(long key) {
+        int gap = find(key);
+
+        if (gap < 0) {
+            return false;
+        }
+
+        int next = (gap + 1) & mask;
+
+        while (used[next]) {
+            int ideal = index(keys[next]);
+
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+
+            next = (next + 1) & mask;
+        }
+
+        used[gap] = false;
+        size--;
+
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < used.length; slot++) {
+            if (used[slot]) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    private int find(long key) {
+        int slot = index(key);
+
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private int slotFor(long key) {
+        int slot = index(key);
+
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private int index(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void growIfNeeded() {
+        if (size <= resizeThreshold) {
+            return;
+        }
+
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        allocate(keys.length << 1);
+
+        for (int slot = 0; slot < oldUsed.length; slot++) {
+            if (oldUsed[slot]) {
+                int target = slotFor(oldKeys[slot]);
+                used[target] = true;
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeThreshold = capacity >> 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MINIMAL_CAPACITY;
+
+        while (capacity >> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+}
@@ -0,0 +1,140 @@
+package io.store.ua.utility;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.store.ua.enums.ExportFormat;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Writes every row of a result set to the output as soon as it is read, one JSON object per line or one CSV record per row,
+ * nothing but the current row is held in memory
+ */
+public class ResultSetExporter implements ResultSetExtractor<Long> {
+    private final ExportFormat format;
+    private final OutputStream outputStream;
+
+    public ResultSetExporter(ExportFormat format, OutputStream outputStream) {
+        this.format = format;
+        this.outputStream = outputStream;
+    }
+
+    @Override
+    public Long extractData(ResultSet resultSet) throws SQLException {
+        try {
+            return format == ExportFormat.CSV ? writeCsv(resultSet) : writeNdjson(resultSet);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long writeNdjson(ResultSet resultSet) throws SQLException, IOException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        long rows = 0;
+
+        try (JsonGenerator jsonGenerator = RegularObjectMapper.INSTANCE.getFactory().createGenerator(outputStream)) {
+            jsonGenerator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            jsonGenerator.setRootValueSeparator(new SerializedString("\n"));
+
+            while (resultSet.next()) {
+                jsonGenerator.writeStartObject();
+
+                for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                    jsonGenerator.writeFieldName(metaData.getColumnLabel(column));
+                    writeJsonValue(jsonGenerator, resultSet, metaData, column);
+                }
+
+                jsonGenerator.writeEndObject();
+                rows++;
+            }
+
+            if (rows > 0) {
+                jsonGenerator.writeRaw('\n');
+            }
+        }
+
+        return rows;
+    }
+
+    private long writeCsv(ResultSet resultSet) throws SQLException, IOException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long rows = 0;
+
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            if (column > 1) {
+                writer.write(',');
+            }
+
+            writer.write(escapeCsv(metaData.getColumnLabel(column)));
+        }
+
+        writer.write("\r\n");
+
+        while (resultSet.next()) {
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                if (column > 1) {
+                    writer.write(',');
+                }
+
+                Object value = readValue(resultSet, metaData, column);
+
+                if (value != null) {
+                    writer.write(escapeCsv(value.toString()));
+                }
+            }
+
+            writer.write("\r\n");
+            rows++;
+        }
+
+        writer.flush();
+
+        return rows;
+    }
+
+    private static void writeJsonValue(JsonGenerator jsonGenerator,
+                                       ResultSet resultSet,
+                                       ResultSetMetaData metaData,
+                                       int column) throws SQLException, IOException {
+        Object value = readValue(resultSet, metaData, column);
+
+        switch (value) {
+            case null -> jsonGenerator.writeNull();
+            case Boolean bool -> jsonGenerator.writeBoolean(bool);
+            case Number number -> jsonGenerator.writeNumber(number.toString());
+            default -> {
+                if (metaData.getColumnTypeName(column).startsWith("json")) {
+                    jsonGenerator.writeRawValue(value.toString());
+                } else {
+                    jsonGenerator.writeString(value.toString());
+                }
+            }
+        }
+    }
+
+    private static Object readValue(ResultSet resultSet, ResultSetMetaData metaData, int column) throws SQLException {
+        return switch (metaData.getColumnType(column)) {
+            case Types.TIMESTAMP -> resultSet.getObject(column, LocalDateTime.class);
+            case Types.DATE -> resultSet.getObject(column, LocalDate.class);
+            case Types.BIT, Types.BOOLEAN -> resultSet.getObject(column, Boolean.class);
+            default -> resultSet.getObject(column);
+        };
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
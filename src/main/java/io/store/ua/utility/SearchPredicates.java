@@ -0,0 +1,28 @@
+package io.store.ua.utility;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Case-insensitive text predicates shaped as LOWER(column) LIKE pattern, the same expression
+ * the LOWER(column) gin_trgm_ops indexes are built on, so the planner can serve them from those indexes
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class SearchPredicates {
+    /**
+     * Matches rows where the column contains the part, ignoring case, LIKE wildcards in the part are matched literally.
+     * Trigram index narrows the search down for parts of at least three characters, shorter ones hold no trigram
+     */
+    public static Predicate containsIgnoreCase(CriteriaBuilder criteriaBuilder, Expression<String> column, String part) {
+        return criteriaBuilder.like(criteriaBuilder.lower(column), "%" + escape(part.toLowerCase()) + "%");
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,33 @@
+CREATE TABLE IF NOT EXISTS stock_item_batch_counters
+(
+    product_id   BIGINT NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    warehouse_id BIGINT NOT NULL REFERENCES warehouses (id) ON DELETE CASCADE,
+    last_version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id, warehouse_id)
+);
+
+INSERT INTO stock_item_batch_counters (product_id, warehouse_id, last_version)
+SELECT product_id, warehouse_id, MAX(batch_version)
+FROM stock_items
+GROUP BY product_id, warehouse_id
+ON CONFLICT (product_id, warehouse_id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION sync_stock_item_batch_counter() RETURNS TRIGGER AS
+$$
+BEGIN
+    INSERT INTO stock_item_batch_counters AS counter (product_id, warehouse_id, last_version)
+    VALUES (NEW.product_id, NEW.warehouse_id, NEW.batch_version)
+    ON CONFLICT (product_id, warehouse_id) DO UPDATE SET last_version = EXCLUDED.last_version
+    WHERE counter.last_version < EXCLUDED.last_version;
+
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS stock_items_batch_counter_sync ON stock_items;
+
+CREATE TRIGGER stock_items_batch_counter_sync
+    AFTER INSERT OR UPDATE OF batch_version, product_id, warehouse_id
+    ON stock_items
+    FOR EACH ROW
+EXECUTE FUNCTION sync_stock_item_batch_counter();
@@ -0,0 +1,7 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_stock_items_code_trgm ON stock_items USING GIN (LOWER(code) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_code_trgm ON products USING GIN (LOWER(code) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_title_trgm ON products USING GIN (LOWER(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_stock_item_groups_code_trgm ON stock_item_groups USING GIN (LOWER(code) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_tags_name_trgm ON tags USING GIN (LOWER(name) gin_trgm_ops);
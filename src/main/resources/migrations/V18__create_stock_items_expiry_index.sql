@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_stock_items_expiry_date ON stock_items (expiry_date)
+    WHERE expiry_date IS NOT NULL AND status <> 'OUT_OF_SERVICE'
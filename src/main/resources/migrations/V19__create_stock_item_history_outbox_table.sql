@@ -0,0 +1,24 @@
+CREATE TABLE IF NOT EXISTS stock_item_history_outbox
+(
+    id                    BIGSERIAL PRIMARY KEY,
+    stock_item_id         BIGINT    NOT NULL,
+    title                 VARCHAR   NOT NULL,
+    current_product_price BIGINT    NOT NULL,
+    currency              VARCHAR   NOT NULL,
+    logged_at             TIMESTAMP NOT NULL,
+    created_at            TIMESTAMP NOT NULL DEFAULT NOW(),
+    old_group_id          BIGINT,
+    new_group_id          BIGINT,
+    old_warehouse_id      BIGINT,
+    new_warehouse_id      BIGINT,
+    quantity_before       BIGINT,
+    quantity_after        BIGINT,
+    old_expiration        DATE,
+    new_expiration        DATE,
+    old_status            VARCHAR(255),
+    new_status            VARCHAR(255),
+    old_section_id        BIGINT,
+    new_section_id        BIGINT,
+    old_activity          BOOLEAN,
+    new_activity          BOOLEAN
+)
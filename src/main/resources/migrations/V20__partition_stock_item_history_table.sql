@@ -0,0 +1,120 @@
+ALTER TABLE stock_item_history
+    RENAME TO stock_item_history_legacy;
+ALTER INDEX stock_item_history_pkey RENAME TO stock_item_history_legacy_pkey;
+ALTER SEQUENCE stock_item_history_id_seq OWNED BY NONE;
+
+CREATE TABLE stock_item_history
+(
+    id                    BIGINT    NOT NULL DEFAULT NEXTVAL('stock_item_history_id_seq'),
+    stock_item_id         BIGINT    NOT NULL REFERENCES stock_items (id),
+    title                 VARCHAR   NOT NULL,
+    current_product_price BIGINT    NOT NULL,
+    currency              VARCHAR   NOT NULL,
+    logged_at             TIMESTAMP NOT NULL DEFAULT NOW(),
+    created_at            TIMESTAMP NOT NULL DEFAULT NOW(),
+    old_group_id          BIGINT REFERENCES stock_item_groups (id),
+    new_group_id          BIGINT REFERENCES stock_item_groups (id),
+    old_warehouse_id      BIGINT REFERENCES warehouses (id),
+    new_warehouse_id      BIGINT REFERENCES warehouses (id),
+    quantity_before       BIGINT CHECK ( quantity_before >= 0 ),
+    quantity_after        BIGINT CHECK ( quantity_after >= 0 ),
+    old_expiration        DATE,
+    new_expiration        DATE,
+    old_status            VARCHAR(255),
+    new_status            VARCHAR(255),
+    old_section_id        BIGINT REFERENCES storage_sections (id),
+    new_section_id        BIGINT REFERENCES storage_sections (id),
+    old_activity          BOOLEAN,
+    new_activity          BOOLEAN,
+    PRIMARY KEY (id, logged_at)
+) PARTITION BY RANGE (logged_at);
+
+ALTER SEQUENCE stock_item_history_id_seq OWNED BY stock_item_history.id;
+
+CREATE INDEX IF NOT EXISTS idx_stock_item_history_stock_item_logged_at
+    ON stock_item_history (stock_item_id, logged_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_stock_item_history_logged_at
+    ON stock_item_history (logged_at DESC, id DESC);
+
+-- Catches rows outside of created months, moved out when their month partition is created
+CREATE TABLE IF NOT EXISTS stock_item_history_default PARTITION OF stock_item_history DEFAULT;
+
+CREATE OR REPLACE FUNCTION create_stock_item_history_partition(month_start DATE) RETURNS BOOLEAN AS
+$$
+DECLARE
+    range_start    TIMESTAMP := DATE_TRUNC('month', month_start);
+    range_end      TIMESTAMP := DATE_TRUNC('month', month_start) + INTERVAL '1 month';
+    partition_name TEXT      := 'stock_item_history_' || TO_CHAR(month_start, 'YYYY_MM');
+BEGIN
+    IF TO_REGCLASS(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE FORMAT('CREATE TABLE %I (LIKE stock_item_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    EXECUTE FORMAT('WITH moved AS (DELETE FROM stock_item_history_default WHERE logged_at >= %L AND logged_at < %L RETURNING *) '
+                       || 'INSERT INTO %I SELECT * FROM moved', range_start, range_end, partition_name);
+    EXECUTE FORMAT('ALTER TABLE stock_item_history ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_start, range_end);
+
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches month partitions ending before the cutoff, detached tables are kept as archive without foreign keys
+-- unless dropping is requested
+CREATE OR REPLACE FUNCTION detach_stock_item_history_partitions(cutoff DATE, drop_detached BOOLEAN) RETURNS SETOF TEXT AS
+$$
+DECLARE
+    partition_name  TEXT;
+    constraint_name TEXT;
+BEGIN
+    FOR partition_name IN
+        SELECT child.relname
+        FROM pg_inherits
+                 JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+                 JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        WHERE parent.relname = 'stock_item_history'
+          AND child.relname ~ '^stock_item_history_\d{4}_\d{2}$'
+          AND TO_DATE(SUBSTRING(child.relname FROM '\d{4}_\d{2}$'), 'YYYY_MM') + INTERVAL '1 month' <= cutoff
+        ORDER BY child.relname
+        LOOP
+            EXECUTE FORMAT('ALTER TABLE stock_item_history DETACH PARTITION %I', partition_name);
+
+            IF drop_detached THEN
+                EXECUTE FORMAT('DROP TABLE %I', partition_name);
+            ELSE
+                FOR constraint_name IN
+                    SELECT conname FROM pg_constraint WHERE conrelid = partition_name::REGCLASS AND contype = 'f'
+                    LOOP
+                        EXECUTE FORMAT('ALTER TABLE %I DROP CONSTRAINT %I', partition_name, constraint_name);
+                    END LOOP;
+
+                EXECUTE FORMAT('ALTER TABLE %I RENAME TO %I', partition_name, 'archived_' || partition_name);
+            END IF;
+
+            RETURN NEXT partition_name;
+        END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+DO
+$$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR month_start IN
+        SELECT GENERATE_SERIES(DATE_TRUNC('month', LEAST(COALESCE(MIN(logged_at), NOW()), NOW())),
+                               DATE_TRUNC('month', NOW()) + INTERVAL '3 months',
+                               INTERVAL '1 month')::DATE
+        FROM stock_item_history_legacy
+        LOOP
+            PERFORM create_stock_item_history_partition(month_start);
+        END LOOP;
+END;
+$$;
+
+INSERT INTO stock_item_history
+SELECT *
+FROM stock_item_history_legacy;
+
+DROP TABLE stock_item_history_legacy;
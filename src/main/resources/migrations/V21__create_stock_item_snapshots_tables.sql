@@ -0,0 +1,28 @@
+ALTER TABLE stock_items
+    ADD COLUMN IF NOT EXISTS created_at TIMESTAMP;
+ALTER TABLE stock_items
+    ALTER COLUMN created_at SET DEFAULT (NOW() AT TIME ZONE 'UTC');
+
+CREATE INDEX IF NOT EXISTS idx_stock_items_created_at ON stock_items (created_at);
+
+CREATE TABLE IF NOT EXISTS stock_item_snapshots
+(
+    id       BIGSERIAL PRIMARY KEY,
+    taken_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_item_snapshots_taken_at ON stock_item_snapshots (taken_at);
+
+CREATE TABLE IF NOT EXISTS stock_item_snapshot_entries
+(
+    snapshot_id        BIGINT  NOT NULL REFERENCES stock_item_snapshots (id) ON DELETE CASCADE,
+    warehouse_id       BIGINT  NOT NULL,
+    stock_item_id      BIGINT  NOT NULL,
+    product_id         BIGINT  NOT NULL,
+    available_quantity BIGINT  NOT NULL,
+    status             VARCHAR NOT NULL,
+    PRIMARY KEY (snapshot_id, warehouse_id, stock_item_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_item_snapshot_entries_stock_item
+    ON stock_item_snapshot_entries (snapshot_id, stock_item_id);
@@ -0,0 +1,56 @@
+CREATE TABLE IF NOT EXISTS daily_item_sales
+(
+    stock_item_id        BIGINT  NOT NULL,
+    sale_date            DATE    NOT NULL,
+    currency             VARCHAR NOT NULL,
+    sold_quantity        BIGINT  NOT NULL,
+    total_revenue_amount BIGINT  NOT NULL,
+    PRIMARY KEY (stock_item_id, sale_date, currency)
+);
+
+-- Sales of written history rows waiting to be added to the rollup
+CREATE TABLE IF NOT EXISTS daily_item_sales_pending
+(
+    id                   BIGSERIAL PRIMARY KEY,
+    stock_item_id        BIGINT  NOT NULL,
+    sale_date            DATE    NOT NULL,
+    currency             VARCHAR NOT NULL,
+    sold_quantity        BIGINT  NOT NULL,
+    total_revenue_amount BIGINT  NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_daily_item_sales_pending_stock_item_id
+    ON daily_item_sales_pending (stock_item_id);
+
+CREATE OR REPLACE FUNCTION record_daily_item_sale() RETURNS TRIGGER AS
+$$
+BEGIN
+    INSERT INTO daily_item_sales_pending (stock_item_id, sale_date, currency, sold_quantity, total_revenue_amount)
+    VALUES (NEW.stock_item_id,
+            DATE(NEW.logged_at),
+            NEW.currency,
+            NEW.quantity_before - NEW.quantity_after,
+            NEW.current_product_price * (NEW.quantity_before - NEW.quantity_after));
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_stock_item_history_daily_item_sale
+    AFTER INSERT
+    ON stock_item_history
+    FOR EACH ROW
+    WHEN (NEW.quantity_before > NEW.quantity_after)
+EXECUTE FUNCTION record_daily_item_sale();
+
+-- History rows written before the trigger existed, IDs in (next_id, last_id] are yet to be rolled up
+CREATE TABLE IF NOT EXISTS daily_item_sales_backfill
+(
+    id      BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK ( id ),
+    next_id BIGINT NOT NULL,
+    last_id BIGINT NOT NULL
+);
+
+INSERT INTO daily_item_sales_backfill (next_id, last_id)
+SELECT 0, COALESCE(MAX(id), 0)
+FROM stock_item_history;
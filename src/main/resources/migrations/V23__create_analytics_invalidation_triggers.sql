@@ -0,0 +1,49 @@
+-- Analytics results are cached by the application, these notifications tell it which cached results became stale.
+-- NOTIFY is delivered on commit only, so rolled back writes never invalidate anything
+CREATE OR REPLACE FUNCTION record_daily_item_sale() RETURNS TRIGGER AS
+$$
+BEGIN
+    INSERT INTO daily_item_sales_pending (stock_item_id, sale_date, currency, sold_quantity, total_revenue_amount)
+    VALUES (NEW.stock_item_id,
+            DATE(NEW.logged_at),
+            NEW.currency,
+            NEW.quantity_before - NEW.quantity_after,
+            NEW.current_product_price * (NEW.quantity_before - NEW.quantity_after));
+
+    PERFORM PG_NOTIFY('analytics_invalidation', 'item:' || NEW.stock_item_id);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION notify_settled_transaction() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF NEW.status = 'SETTLED' OR (TG_OP = 'UPDATE' AND OLD.status = 'SETTLED') THEN
+        PERFORM PG_NOTIFY('analytics_invalidation', 'beneficiary:' || NEW.beneficiary_id);
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_transactions_analytics_invalidation
+    AFTER INSERT OR UPDATE
+    ON transactions
+    FOR EACH ROW
+EXECUTE FUNCTION notify_settled_transaction();
+
+CREATE OR REPLACE FUNCTION notify_beneficiary_change() RETURNS TRIGGER AS
+$$
+BEGIN
+    PERFORM PG_NOTIFY('analytics_invalidation', 'beneficiary:' || NEW.id);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_beneficiaries_analytics_invalidation
+    AFTER UPDATE
+    ON beneficiaries
+    FOR EACH ROW
+EXECUTE FUNCTION notify_beneficiary_change();
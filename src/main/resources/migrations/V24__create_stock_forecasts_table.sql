@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS stock_forecasts
+(
+    warehouse_id          BIGINT         NOT NULL,
+    product_id            BIGINT         NOT NULL,
+    available_quantity    BIGINT         NOT NULL,
+    average_daily_outflow NUMERIC(19, 4) NOT NULL,
+    days_of_supply        NUMERIC(19, 2),
+    reorder_point         BIGINT         NOT NULL,
+    computed_at           TIMESTAMP      NOT NULL,
+    PRIMARY KEY (warehouse_id, product_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_forecasts_days_of_supply ON stock_forecasts (warehouse_id, days_of_supply);
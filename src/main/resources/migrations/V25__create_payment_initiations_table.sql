@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS payment_initiations
+(
+    id               BIGSERIAL PRIMARY KEY,
+    transaction_id   BIGINT    NOT NULL UNIQUE REFERENCES transactions (id) ON DELETE CASCADE,
+    payment_provider VARCHAR   NOT NULL,
+    auto_settle      BOOLEAN   NOT NULL,
+    status           VARCHAR   NOT NULL,
+    attempts         INT       NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMP NOT NULL,
+    locked_until     TIMESTAMP,
+    checkout         JSON,
+    error            VARCHAR,
+    created_at       TIMESTAMP NOT NULL,
+    completed_at     TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_payment_initiations_pending
+    ON payment_initiations (next_attempt_at) WHERE status = 'PENDING';
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_transactions_initiated_provider_id
+    ON transactions (payment_provider, id)
+    WHERE status = 'INITIATED';
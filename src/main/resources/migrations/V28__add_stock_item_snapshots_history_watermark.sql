@@ -0,0 +1,9 @@
+ALTER TABLE stock_item_snapshots
+    ADD COLUMN IF NOT EXISTS history_watermark BIGINT;
+
+UPDATE stock_item_snapshots s
+SET history_watermark = COALESCE((SELECT MAX(h.id) FROM stock_item_history h WHERE h.logged_at <= s.taken_at), 0)
+WHERE history_watermark IS NULL;
+
+ALTER TABLE stock_item_snapshots
+    ALTER COLUMN history_watermark SET NOT NULL;
@@ -0,0 +1,20 @@
+-- A history row belongs to an inventory snapshot when the transaction that wrote it is visible in the snapshot,
+-- the same visibility that decides whether the snapshot holds the stock item change of that transaction.
+-- Rows and snapshots from before this migration have no transaction data and are compared by time
+ALTER TABLE stock_item_snapshots
+    DROP COLUMN IF EXISTS history_watermark;
+ALTER TABLE stock_item_snapshots
+    ADD COLUMN IF NOT EXISTS history_snapshot PG_SNAPSHOT;
+
+ALTER TABLE stock_item_history
+    ADD COLUMN IF NOT EXISTS xact_id XID8;
+ALTER TABLE stock_item_history
+    ALTER COLUMN xact_id SET DEFAULT PG_CURRENT_XACT_ID();
+
+CREATE INDEX IF NOT EXISTS idx_stock_item_history_xact_id ON stock_item_history (xact_id);
+
+-- Write-behind rows keep the ID of the transaction that changed the stock item, not of the one moving them
+ALTER TABLE stock_item_history_outbox
+    ADD COLUMN IF NOT EXISTS xact_id XID8;
+ALTER TABLE stock_item_history_outbox
+    ALTER COLUMN xact_id SET DEFAULT PG_CURRENT_XACT_ID();
@@ -0,0 +1,29 @@
+WITH counted AS (SELECT stock_item_id, available_quantity
+                 FROM UNNEST(CAST(:stockItemIds AS BIGINT[]), CAST(:quantities AS BIGINT[])) AS c(stock_item_id, available_quantity)),
+     previous AS (SELECT si.id, si.available_quantity, si.status
+                  FROM stock_items si
+                           JOIN counted ON counted.stock_item_id = si.id
+                  ORDER BY si.id
+                  FOR UPDATE OF si),
+     adjusted AS (UPDATE stock_items si
+                  SET available_quantity = counted.available_quantity,
+                      status             = CASE
+                                               WHEN previous.status = 'OUT_OF_SERVICE' THEN 'OUT_OF_SERVICE'
+                                               WHEN counted.available_quantity = 0 THEN 'OUT_OF_STOCK'
+                                               ELSE 'AVAILABLE' END,
+                      version            = si.version + 1
+                  FROM counted
+                           JOIN previous ON previous.id = counted.stock_item_id
+                  WHERE si.id = counted.stock_item_id
+                    AND previous.available_quantity <> counted.available_quantity
+                  RETURNING si.id, si.product_id, si.warehouse_id, si.is_active, previous.available_quantity AS quantity_before,
+                      si.available_quantity AS quantity_after, previous.status AS status_before, si.status AS status_after),
+     history AS (INSERT INTO stock_item_history (stock_item_id, title, current_product_price, currency, logged_at,
+                                                 quantity_before, quantity_after, old_status, new_status)
+                 SELECT adjusted.id, p.title, p.price, p.currency, :loggedAt,
+                        adjusted.quantity_before, adjusted.quantity_after, adjusted.status_before, adjusted.status_after
+                 FROM adjusted
+                          JOIN products p ON p.id = adjusted.product_id)
+SELECT id, product_id, warehouse_id, is_active, quantity_before, quantity_after, status_before, status_after
+FROM adjusted
+ORDER BY id;
@@ -0,0 +1,6 @@
+INSERT INTO stock_item_batch_counters AS counter (product_id, warehouse_id, last_version)
+SELECT requested.product_id, requested.warehouse_id, requested.amount
+FROM UNNEST(CAST(:productIds AS BIGINT[]), CAST(:warehouseIds AS BIGINT[]), CAST(:amounts AS BIGINT[])) AS requested (product_id, warehouse_id, amount)
+ORDER BY requested.product_id, requested.warehouse_id
+ON CONFLICT (product_id, warehouse_id) DO UPDATE SET last_version = counter.last_version + EXCLUDED.last_version
+RETURNING counter.product_id, counter.warehouse_id, counter.last_version;
@@ -0,0 +1,26 @@
+WITH claimed AS (SELECT next_id AS from_id, LEAST(next_id + :batchSize, last_id) AS to_id
+                 FROM daily_item_sales_backfill
+                 WHERE next_id < last_id
+                 FOR UPDATE),
+     advanced AS (UPDATE daily_item_sales_backfill
+                  SET next_id = claimed.to_id
+                  FROM claimed
+                  RETURNING claimed.from_id, claimed.to_id),
+     sales AS (SELECT h.stock_item_id,
+                      DATE(h.logged_at)                                                     AS sale_date,
+                      h.currency,
+                      SUM(h.quantity_before - h.quantity_after)                             AS sold_quantity,
+                      SUM(h.current_product_price * (h.quantity_before - h.quantity_after)) AS total_revenue_amount
+               FROM stock_item_history h
+                        JOIN advanced ON h.id > advanced.from_id AND h.id <= advanced.to_id
+               WHERE h.quantity_before > h.quantity_after
+               GROUP BY h.stock_item_id, DATE(h.logged_at), h.currency),
+     upserted AS (INSERT INTO daily_item_sales (stock_item_id, sale_date, currency, sold_quantity, total_revenue_amount)
+                  SELECT stock_item_id, sale_date, currency, sold_quantity, total_revenue_amount
+                  FROM sales
+                  ON CONFLICT (stock_item_id, sale_date, currency)
+                      DO UPDATE SET sold_quantity        = daily_item_sales.sold_quantity + EXCLUDED.sold_quantity,
+                                    total_revenue_amount = daily_item_sales.total_revenue_amount + EXCLUDED.total_revenue_amount
+                  RETURNING 1)
+SELECT to_id
+FROM advanced;
@@ -0,0 +1,8 @@
+UPDATE payment_initiations
+SET locked_until = :lockedUntil,
+    attempts     = attempts + 1
+WHERE id = :id
+  AND status = 'PENDING'
+  AND locked_until IS NULL
+  AND next_attempt_at <= :now
+RETURNING *;
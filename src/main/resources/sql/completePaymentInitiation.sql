@@ -0,0 +1,17 @@
+WITH updated_transaction AS (UPDATE transactions
+                             SET transaction_id      = :externalTransactionId,
+                                 reference           = :reference,
+                                 status              = :transactionStatus,
+                                 external_references = CAST(:externalReferences AS JSON),
+                                 paid_at             = :paidAt
+                             WHERE id = :transactionId
+                             RETURNING id)
+UPDATE payment_initiations
+SET status       = 'COMPLETED',
+    checkout     = CAST(:checkout AS JSON),
+    locked_until = NULL,
+    error        = NULL,
+    completed_at = :now
+WHERE id = :id
+  AND transaction_id IN (SELECT id FROM updated_transaction)
+RETURNING *;
@@ -0,0 +1,60 @@
+WITH items AS (SELECT id, product_id, available_quantity, status, is_active
+               FROM stock_items
+               WHERE warehouse_id = :warehouseId),
+     backfill AS (SELECT next_id, last_id
+                  FROM daily_item_sales_backfill
+                  WHERE next_id < last_id),
+     sales AS (SELECT stock_item_id, sold_quantity
+               FROM daily_item_sales
+               WHERE stock_item_id IN (SELECT id FROM items)
+                 AND sale_date > :windowStart
+               UNION ALL
+               SELECT stock_item_id, sold_quantity
+               FROM daily_item_sales_pending
+               WHERE stock_item_id IN (SELECT id FROM items)
+                 AND sale_date > :windowStart
+               UNION ALL
+               SELECT h.stock_item_id, h.quantity_before - h.quantity_after
+               FROM stock_item_history h
+                        JOIN backfill ON h.id > backfill.next_id AND h.id <= backfill.last_id
+               WHERE h.stock_item_id IN (SELECT id FROM items)
+                 AND h.quantity_before > h.quantity_after
+                 AND DATE(h.logged_at) > :windowStart),
+     outflow AS (SELECT items.product_id, SUM(sales.sold_quantity) AS sold_quantity
+                 FROM sales
+                          JOIN items ON items.id = sales.stock_item_id
+                 GROUP BY items.product_id),
+     forecasts AS (SELECT items.product_id,
+                          COALESCE(SUM(items.available_quantity) FILTER (WHERE items.is_active AND items.status = 'AVAILABLE'), 0) AS available_quantity,
+                          COALESCE(MAX(outflow.sold_quantity), 0) / CAST(:windowDays AS NUMERIC)                                  AS average_daily_outflow
+                   FROM items
+                            LEFT JOIN outflow ON outflow.product_id = items.product_id
+                   GROUP BY items.product_id),
+     previous AS (SELECT product_id, days_of_supply
+                  FROM stock_forecasts
+                  WHERE warehouse_id = :warehouseId),
+     removed AS (DELETE FROM stock_forecasts
+                 WHERE warehouse_id = :warehouseId
+                   AND product_id NOT IN (SELECT product_id FROM forecasts)),
+     upserted AS (INSERT INTO stock_forecasts (warehouse_id, product_id, available_quantity, average_daily_outflow, days_of_supply, reorder_point, computed_at)
+                  SELECT :warehouseId,
+                         product_id,
+                         available_quantity,
+                         ROUND(average_daily_outflow, 4),
+                         CASE WHEN average_daily_outflow > 0 THEN ROUND(available_quantity / average_daily_outflow, 2) END,
+                         CEIL(average_daily_outflow * (:leadTimeDays + :safetyStockDays)),
+                         :computedAt
+                  FROM forecasts
+                  ON CONFLICT (warehouse_id, product_id) DO UPDATE
+                      SET available_quantity    = EXCLUDED.available_quantity,
+                          average_daily_outflow = EXCLUDED.average_daily_outflow,
+                          days_of_supply        = EXCLUDED.days_of_supply,
+                          reorder_point         = EXCLUDED.reorder_point,
+                          computed_at           = EXCLUDED.computed_at
+                  RETURNING *)
+SELECT upserted.*
+FROM upserted
+         LEFT JOIN previous ON previous.product_id = upserted.product_id
+WHERE upserted.days_of_supply < :lowDaysOfSupply
+  AND (previous.days_of_supply IS NULL OR previous.days_of_supply >= :lowDaysOfSupply)
+ORDER BY upserted.days_of_supply, upserted.product_id;
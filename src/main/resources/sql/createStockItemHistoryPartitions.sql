@@ -0,0 +1,2 @@
+SELECT create_stock_item_history_partition(month_start::DATE) AS created
+FROM GENERATE_SERIES(DATE_TRUNC('month', CAST(:from AS DATE)), DATE_TRUNC('month', CAST(:to AS DATE)), INTERVAL '1 month') AS month_start;
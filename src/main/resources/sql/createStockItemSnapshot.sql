@@ -0,0 +1,10 @@
+WITH snapshot AS (INSERT INTO stock_item_snapshots (taken_at, history_snapshot)
+                  VALUES (:takenAt, PG_CURRENT_SNAPSHOT())
+                  RETURNING id),
+     entries AS (INSERT INTO stock_item_snapshot_entries (snapshot_id, warehouse_id, stock_item_id, product_id, available_quantity, status)
+                 SELECT snapshot.id, si.warehouse_id, si.id, si.product_id, si.available_quantity, si.status
+                 FROM snapshot
+                          CROSS JOIN stock_items si
+                 RETURNING 1)
+SELECT snapshot.id, (SELECT COUNT(*) FROM entries) AS entries
+FROM snapshot;
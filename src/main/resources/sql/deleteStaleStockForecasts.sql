@@ -0,0 +1,3 @@
+DELETE
+FROM stock_forecasts
+WHERE warehouse_id NOT IN (SELECT id FROM warehouses WHERE is_active);
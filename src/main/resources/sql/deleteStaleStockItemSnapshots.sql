@@ -0,0 +1,6 @@
+DELETE
+FROM stock_item_snapshots
+WHERE id NOT IN (SELECT id
+                 FROM stock_item_snapshots
+                 ORDER BY taken_at DESC
+                 LIMIT :keep);
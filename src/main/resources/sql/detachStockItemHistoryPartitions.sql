@@ -0,0 +1 @@
+SELECT detach_stock_item_history_partitions(CAST(:cutoff AS DATE), :dropDetached) AS partition_name;
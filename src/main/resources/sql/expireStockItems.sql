@@ -0,0 +1,18 @@
+WITH expiring AS (SELECT id, status
+                  FROM stock_items
+                  WHERE expiry_date < CURRENT_DATE
+                    AND status <> 'OUT_OF_SERVICE'
+                  ORDER BY expiry_date
+                  LIMIT :chunkSize FOR UPDATE SKIP LOCKED),
+     expired AS (UPDATE stock_items si
+                 SET status  = 'OUT_OF_SERVICE',
+                     version = si.version + 1
+                 FROM expiring
+                 WHERE si.id = expiring.id
+                 RETURNING si.id, si.product_id, si.warehouse_id, si.is_active, si.available_quantity, expiring.status AS status_before),
+     history AS (INSERT INTO stock_item_history (stock_item_id, title, current_product_price, currency, logged_at, old_status, new_status)
+                 SELECT expired.id, p.title, p.price, p.currency, :loggedAt, expired.status_before, 'OUT_OF_SERVICE'
+                 FROM expired
+                          JOIN products p ON p.id = expired.product_id)
+SELECT product_id, warehouse_id, is_active, available_quantity, status_before
+FROM expired;
@@ -0,0 +1,26 @@
+SELECT id,
+       stock_item_id,
+       title,
+       current_product_price,
+       currency,
+       logged_at,
+       created_at,
+       old_group_id,
+       new_group_id,
+       old_warehouse_id,
+       new_warehouse_id,
+       quantity_before,
+       quantity_after,
+       old_expiration,
+       new_expiration,
+       old_status,
+       new_status,
+       old_section_id,
+       new_section_id,
+       old_activity,
+       new_activity
+FROM stock_item_history
+WHERE (CAST(:stockItemId AS BIGINT) IS NULL OR stock_item_id = CAST(:stockItemId AS BIGINT))
+  AND (CAST(:from AS TIMESTAMP) IS NULL OR logged_at >= CAST(:from AS TIMESTAMP))
+  AND (CAST(:to AS TIMESTAMP) IS NULL OR logged_at <= CAST(:to AS TIMESTAMP))
+ORDER BY logged_at, id
@@ -0,0 +1,19 @@
+SELECT id,
+       transaction_id,
+       reference,
+       flow_type,
+       purpose,
+       status,
+       amount,
+       currency,
+       beneficiary_id,
+       external_references,
+       created_at,
+       paid_at,
+       payment_provider
+FROM transactions
+WHERE (CAST(:createdFrom AS TIMESTAMP) IS NULL OR created_at >= CAST(:createdFrom AS TIMESTAMP))
+  AND (CAST(:createdTo AS TIMESTAMP) IS NULL OR created_at <= CAST(:createdTo AS TIMESTAMP))
+  AND (CAST(:status AS VARCHAR) IS NULL OR status = CAST(:status AS VARCHAR))
+  AND (CAST(:flowType AS VARCHAR) IS NULL OR flow_type = CAST(:flowType AS VARCHAR))
+ORDER BY created_at, id
@@ -0,0 +1,13 @@
+WITH failed AS (UPDATE payment_initiations
+                SET status       = 'FAILED',
+                    error        = :error,
+                    locked_until = NULL,
+                    completed_at = :now
+                WHERE status = 'PENDING'
+                  AND (id = CAST(:id AS BIGINT) OR (CAST(:id AS BIGINT) IS NULL AND locked_until < :now))
+                RETURNING *),
+     failed_transactions AS (UPDATE transactions
+                             SET status = 'FAILED'
+                             WHERE id IN (SELECT transaction_id FROM failed))
+SELECT *
+FROM failed;
@@ -0,0 +1,4 @@
+SELECT id
+FROM warehouses
+WHERE is_active
+ORDER BY id;
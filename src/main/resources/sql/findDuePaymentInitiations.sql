@@ -0,0 +1,7 @@
+SELECT id, payment_provider
+FROM payment_initiations
+WHERE status = 'PENDING'
+  AND locked_until IS NULL
+  AND next_attempt_at <= :now
+ORDER BY next_attempt_at, id
+LIMIT :batchSize;
@@ -0,0 +1,7 @@
+SELECT warehouse_id, COUNT(*) AS expiring_count
+FROM stock_items
+WHERE expiry_date >= CURRENT_DATE
+  AND expiry_date < CURRENT_DATE + :horizonDays
+  AND status <> 'OUT_OF_SERVICE'
+  AND is_active
+GROUP BY warehouse_id;
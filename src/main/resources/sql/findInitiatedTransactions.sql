@@ -0,0 +1,8 @@
+SELECT id, reference, created_at
+FROM transactions
+WHERE status = 'INITIATED'
+  AND payment_provider = :paymentProvider
+  AND id > :afterId
+  AND created_at BETWEEN :createdAfter AND :createdBefore
+ORDER BY id
+LIMIT :pageSize;
@@ -0,0 +1,29 @@
+WITH backfill AS (SELECT next_id, last_id
+                  FROM daily_item_sales_backfill
+                  WHERE next_id < last_id),
+     sales AS (SELECT sale_date, currency, sold_quantity, total_revenue_amount
+               FROM daily_item_sales
+               WHERE stock_item_id = :stockItemId
+               UNION ALL
+               SELECT sale_date, currency, sold_quantity, total_revenue_amount
+               FROM daily_item_sales_pending
+               WHERE stock_item_id = :stockItemId
+               UNION ALL
+               SELECT DATE(h.logged_at),
+                      h.currency,
+                      h.quantity_before - h.quantity_after,
+                      h.current_product_price * (h.quantity_before - h.quantity_after)
+               FROM stock_item_history h
+                        JOIN backfill ON h.id > backfill.next_id AND h.id <= backfill.last_id
+               WHERE h.stock_item_id = :stockItemId
+                 AND h.quantity_before > h.quantity_after)
+SELECT sale_date,
+       SUM(sold_quantity)        AS sold_quantity,
+       SUM(total_revenue_amount) AS total_revenue_amount,
+       currency
+FROM sales
+WHERE (CAST(:from AS DATE) IS NULL OR sale_date >= CAST(:from AS DATE))
+  AND (CAST(:to AS DATE) IS NULL OR sale_date <= CAST(:to AS DATE))
+GROUP BY sale_date, currency
+ORDER BY sale_date DESC, currency
+LIMIT :limit OFFSET :offset;
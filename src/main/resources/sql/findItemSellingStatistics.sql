@@ -0,0 +1,37 @@
+WITH items AS (SELECT id, product_id
+               FROM stock_items
+               WHERE id = ANY (:stockItemIds)
+                  OR product_id = ANY (:productIds)
+                  OR warehouse_id = ANY (:warehouseIds)),
+     backfill AS (SELECT next_id, last_id
+                  FROM daily_item_sales_backfill
+                  WHERE next_id < last_id),
+     sales AS (SELECT stock_item_id, sale_date, currency, sold_quantity, total_revenue_amount
+               FROM daily_item_sales
+               WHERE stock_item_id IN (SELECT id FROM items)
+               UNION ALL
+               SELECT stock_item_id, sale_date, currency, sold_quantity, total_revenue_amount
+               FROM daily_item_sales_pending
+               WHERE stock_item_id IN (SELECT id FROM items)
+               UNION ALL
+               SELECT h.stock_item_id,
+                      DATE(h.logged_at),
+                      h.currency,
+                      h.quantity_before - h.quantity_after,
+                      h.current_product_price * (h.quantity_before - h.quantity_after)
+               FROM stock_item_history h
+                        JOIN backfill ON h.id > backfill.next_id AND h.id <= backfill.last_id
+               WHERE h.stock_item_id IN (SELECT id FROM items)
+                 AND h.quantity_before > h.quantity_after)
+SELECT items.product_id,
+       CASE WHEN CAST(:groupByProduct AS BOOLEAN) THEN NULL ELSE items.id END AS stock_item_id,
+       sales.sale_date,
+       SUM(sales.sold_quantity)                                             AS sold_quantity,
+       SUM(sales.total_revenue_amount)                                      AS total_revenue_amount,
+       sales.currency
+FROM sales
+         JOIN items ON items.id = sales.stock_item_id
+WHERE (CAST(:from AS DATE) IS NULL OR sales.sale_date >= CAST(:from AS DATE))
+  AND (CAST(:to AS DATE) IS NULL OR sales.sale_date <= CAST(:to AS DATE))
+GROUP BY 1, 2, sales.sale_date, sales.currency
+ORDER BY 1, 2, sales.sale_date DESC, sales.currency;
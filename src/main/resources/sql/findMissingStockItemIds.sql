@@ -0,0 +1,3 @@
+SELECT requested.id
+FROM UNNEST(CAST(:stockItemIds AS BIGINT[])) AS requested(id)
+WHERE NOT EXISTS (SELECT 1 FROM stock_items si WHERE si.id = requested.id);
@@ -0,0 +1,3 @@
+SELECT *
+FROM payment_initiations
+WHERE id = :id;
@@ -0,0 +1,5 @@
+SELECT *
+FROM stock_forecasts
+WHERE warehouse_id = :warehouseId
+  AND (CAST(:maxDaysOfSupply AS NUMERIC) IS NULL OR days_of_supply <= CAST(:maxDaysOfSupply AS NUMERIC))
+ORDER BY days_of_supply NULLS LAST, product_id;
@@ -0,0 +1,6 @@
+SELECT warehouse_id, product_id, SUM(available_quantity) AS available_quantity
+FROM stock_items
+WHERE is_active
+  AND status <> 'OUT_OF_SERVICE'
+GROUP BY warehouse_id, product_id
+HAVING SUM(available_quantity) > 0;
@@ -0,0 +1,15 @@
+SELECT 'PRODUCT' AS reference, id, NULL::BIGINT AS warehouse_id
+FROM products
+WHERE id = ANY (:productIds)
+UNION ALL
+SELECT 'STOCK_ITEM_GROUP', id, NULL::BIGINT
+FROM stock_item_groups
+WHERE id = ANY (:stockItemGroupIds)
+UNION ALL
+SELECT 'WAREHOUSE', id, NULL::BIGINT
+FROM warehouses
+WHERE id = ANY (:warehouseIds)
+UNION ALL
+SELECT 'STORAGE_SECTION', id, warehouse_id
+FROM storage_sections
+WHERE id = ANY (:storageSectionIds);
@@ -0,0 +1,11 @@
+(SELECT id, taken_at, 'PREVIOUS' AS position
+ FROM stock_item_snapshots
+ WHERE taken_at <= :asOf
+ ORDER BY taken_at DESC
+ LIMIT 1)
+UNION ALL
+(SELECT id, taken_at, 'NEXT' AS position
+ FROM stock_item_snapshots
+ WHERE taken_at > :asOf
+ ORDER BY taken_at
+ LIMIT 1);
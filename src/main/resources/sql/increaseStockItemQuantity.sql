@@ -0,0 +1,11 @@
+UPDATE stock_items si
+SET available_quantity = si.available_quantity + :quantity,
+    status             = CASE WHEN si.available_quantity + :quantity = 0 THEN 'OUT_OF_STOCK' ELSE 'AVAILABLE' END,
+    version            = si.version + 1
+FROM (SELECT id, available_quantity, status
+      FROM stock_items
+      WHERE id = :stockItemId
+      FOR UPDATE) previous
+WHERE si.id = previous.id
+RETURNING si.id, si.product_id, si.warehouse_id, si.is_active, previous.available_quantity AS quantity_before, si.available_quantity AS quantity_after,
+    previous.status AS status_before, si.status AS status_after;
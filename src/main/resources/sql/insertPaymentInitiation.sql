@@ -0,0 +1,3 @@
+INSERT INTO payment_initiations (transaction_id, payment_provider, auto_settle, status, next_attempt_at, created_at)
+VALUES (:transactionId, :paymentProvider, :autoSettle, 'PENDING', :createdAt, :createdAt)
+RETURNING *;
@@ -0,0 +1,4 @@
+INSERT INTO stock_items (batch_version, code, product_id, group_id, warehouse_id, expiry_date, available_quantity, status,
+                         is_active, storage_section_id, version)
+VALUES (:batchVersion, :code, :productId, :stockItemGroupId, :warehouseId, :expiryDate, :availableQuantity, :status,
+        :isActive, :storageSectionId, 0)
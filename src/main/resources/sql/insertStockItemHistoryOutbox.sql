@@ -0,0 +1,9 @@
+INSERT INTO stock_item_history_outbox (stock_item_id, title, current_product_price, currency, logged_at,
+                                       old_group_id, new_group_id, old_warehouse_id, new_warehouse_id,
+                                       quantity_before, quantity_after, old_expiration, new_expiration,
+                                       old_status, new_status, old_section_id, new_section_id, old_activity, new_activity)
+VALUES (:stockItemId, :title, :currentProductPrice, :currency, :loggedAt,
+        :oldGroupId, :newGroupId, :oldWarehouseId, :newWarehouseId,
+        :quantityBefore, :quantityAfter, :oldExpiration, :newExpiration,
+        :oldStatus, :newStatus, :oldSectionId, :newSectionId, :oldActivity, :newActivity)
+RETURNING id
@@ -0,0 +1,13 @@
+WITH moved AS (DELETE FROM stock_item_history_outbox
+               WHERE id IN (:ids)
+               RETURNING *)
+INSERT INTO stock_item_history (stock_item_id, title, current_product_price, currency, logged_at,
+                                old_group_id, new_group_id, old_warehouse_id, new_warehouse_id,
+                                quantity_before, quantity_after, old_expiration, new_expiration,
+                                old_status, new_status, old_section_id, new_section_id, old_activity, new_activity, xact_id)
+SELECT stock_item_id, title, current_product_price, currency, logged_at,
+       old_group_id, new_group_id, old_warehouse_id, new_warehouse_id,
+       quantity_before, quantity_after, old_expiration, new_expiration,
+       old_status, new_status, old_section_id, new_section_id, old_activity, new_activity, xact_id
+FROM moved
+ORDER BY id
@@ -0,0 +1,54 @@
+WITH items AS (SELECT si.id,
+                      si.product_id,
+                      p.currency,
+                      CASE WHEN CAST(:partitionBy AS VARCHAR) = 'GROUP' THEN si.group_id ELSE si.warehouse_id END AS partition_id
+               FROM stock_items si
+                        JOIN products p ON p.id = si.product_id
+               WHERE (CARDINALITY(CAST(:warehouseIds AS BIGINT[])) = 0 OR si.warehouse_id = ANY (CAST(:warehouseIds AS BIGINT[])))
+                 AND (CARDINALITY(CAST(:groupIds AS BIGINT[])) = 0 OR si.group_id = ANY (CAST(:groupIds AS BIGINT[])))),
+     backfill AS (SELECT next_id, last_id
+                  FROM daily_item_sales_backfill
+                  WHERE next_id < last_id),
+     sales AS (SELECT stock_item_id, sale_date, currency, sold_quantity, total_revenue_amount
+               FROM daily_item_sales
+               WHERE stock_item_id IN (SELECT id FROM items)
+               UNION ALL
+               SELECT stock_item_id, sale_date, currency, sold_quantity, total_revenue_amount
+               FROM daily_item_sales_pending
+               WHERE stock_item_id IN (SELECT id FROM items)
+               UNION ALL
+               SELECT h.stock_item_id,
+                      DATE(h.logged_at),
+                      h.currency,
+                      h.quantity_before - h.quantity_after,
+                      h.current_product_price * (h.quantity_before - h.quantity_after)
+               FROM stock_item_history h
+                        JOIN backfill ON h.id > backfill.next_id AND h.id <= backfill.last_id
+               WHERE h.stock_item_id IN (SELECT id FROM items)
+                 AND h.quantity_before > h.quantity_after),
+     totals AS (SELECT items.id                                                                             AS stock_item_id,
+                       items.product_id,
+                       items.currency,
+                       items.partition_id,
+                       COALESCE(SUM(sales.sold_quantity), 0)                                                AS sold_quantity,
+                       COALESCE(SUM(sales.total_revenue_amount) FILTER (WHERE sales.currency = items.currency), 0) AS total_revenue_amount
+                FROM items
+                         LEFT JOIN sales ON sales.stock_item_id = items.id
+                    AND (CAST(:from AS DATE) IS NULL OR sales.sale_date >= CAST(:from AS DATE))
+                    AND (CAST(:to AS DATE) IS NULL OR sales.sale_date <= CAST(:to AS DATE))
+                GROUP BY items.id, items.product_id, items.currency, items.partition_id),
+     ranked AS (SELECT totals.*,
+                       ROW_NUMBER() OVER (PARTITION BY partition_id, CASE WHEN CAST(:metric AS VARCHAR) = 'REVENUE' THEN currency END
+                           ORDER BY CASE WHEN CAST(:metric AS VARCHAR) = 'REVENUE' THEN total_revenue_amount ELSE sold_quantity END DESC, stock_item_id) AS top_rank,
+                       ROW_NUMBER() OVER (PARTITION BY partition_id, CASE WHEN CAST(:metric AS VARCHAR) = 'REVENUE' THEN currency END
+                           ORDER BY CASE WHEN CAST(:metric AS VARCHAR) = 'REVENUE' THEN total_revenue_amount ELSE sold_quantity END, stock_item_id) AS bottom_rank
+                FROM totals)
+SELECT *
+FROM (SELECT partition_id, stock_item_id, product_id, currency, sold_quantity, total_revenue_amount, 'TOP' AS direction, top_rank AS rank
+      FROM ranked
+      WHERE top_rank <= :limit
+      UNION ALL
+      SELECT partition_id, stock_item_id, product_id, currency, sold_quantity, total_revenue_amount, 'BOTTOM' AS direction, bottom_rank AS rank
+      FROM ranked
+      WHERE bottom_rank <= :limit) ranks
+ORDER BY partition_id, CASE WHEN CAST(:metric AS VARCHAR) = 'REVENUE' THEN currency END, direction DESC, rank;
@@ -0,0 +1,5 @@
+UPDATE transactions
+SET status  = :status,
+    paid_at = CASE WHEN :status = 'SETTLED' THEN :paidAt ELSE paid_at END
+WHERE id = :id
+  AND status = 'INITIATED';
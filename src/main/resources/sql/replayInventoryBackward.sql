@@ -0,0 +1,51 @@
+WITH created AS (SELECT id
+                 FROM stock_items
+                 WHERE created_at > CAST(:createdAfter AS TIMESTAMP)
+                   AND created_at <= :asOf),
+     snapshot AS (SELECT taken_at, history_snapshot
+                  FROM stock_item_snapshots
+                  WHERE id = CAST(:snapshotId AS BIGINT)),
+     changes AS (SELECT h.stock_item_id,
+                        (ARRAY_AGG(h.quantity_before ORDER BY h.logged_at, h.id) FILTER (WHERE h.quantity_before IS NOT NULL))[1]  AS available_quantity,
+                        (ARRAY_AGG(h.old_warehouse_id ORDER BY h.logged_at, h.id) FILTER (WHERE h.old_warehouse_id IS NOT NULL))[1] AS warehouse_id,
+                        (ARRAY_AGG(h.old_status ORDER BY h.logged_at, h.id) FILTER (WHERE h.old_status IS NOT NULL))[1]          AS status
+                 FROM stock_item_history h
+                          LEFT JOIN snapshot s ON TRUE
+                 WHERE h.logged_at > :asOf
+                   -- Only changes the snapshot holds are undone
+                   AND (CAST(:snapshotId AS BIGINT) IS NULL
+                     OR CASE
+                            WHEN h.xact_id IS NULL OR s.history_snapshot IS NULL THEN h.logged_at <= s.taken_at
+                            ELSE PG_VISIBLE_IN_SNAPSHOT(h.xact_id, s.history_snapshot)
+                        END)
+                   AND (CAST(:createdAfter AS TIMESTAMP) IS NULL OR h.stock_item_id IN (SELECT id FROM created))
+                 GROUP BY h.stock_item_id),
+     source AS (SELECT e.stock_item_id, e.product_id, e.warehouse_id, e.available_quantity, e.status
+                FROM stock_item_snapshot_entries e
+                WHERE e.snapshot_id = CAST(:snapshotId AS BIGINT)
+                  AND (e.warehouse_id = :warehouseId
+                    OR e.stock_item_id IN (SELECT stock_item_id FROM changes WHERE warehouse_id IS NOT NULL))
+                UNION ALL
+                SELECT si.id, si.product_id, si.warehouse_id, si.available_quantity, si.status
+                FROM stock_items si
+                WHERE CAST(:snapshotId AS BIGINT) IS NULL
+                  AND CAST(:createdAfter AS TIMESTAMP) IS NULL
+                  AND (si.warehouse_id = :warehouseId
+                    OR si.id IN (SELECT stock_item_id FROM changes WHERE warehouse_id IS NOT NULL))
+                UNION ALL
+                SELECT si.id, si.product_id, si.warehouse_id, si.available_quantity, si.status
+                FROM stock_items si
+                WHERE si.id IN (SELECT id FROM created)),
+     positions AS (SELECT s.stock_item_id,
+                          s.product_id,
+                          COALESCE(c.warehouse_id, s.warehouse_id)             AS warehouse_id,
+                          COALESCE(c.available_quantity, s.available_quantity) AS available_quantity,
+                          COALESCE(c.status, s.status)                         AS status
+                   FROM source s
+                            JOIN stock_items si ON si.id = s.stock_item_id
+                            LEFT JOIN changes c ON c.stock_item_id = s.stock_item_id
+                   WHERE si.created_at IS NULL
+                      OR si.created_at <= :asOf)
+SELECT stock_item_id, product_id, warehouse_id, available_quantity, status
+FROM positions
+WHERE warehouse_id = :warehouseId;
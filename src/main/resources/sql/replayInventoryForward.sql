@@ -0,0 +1,26 @@
+WITH snapshot AS (SELECT taken_at, history_snapshot
+                  FROM stock_item_snapshots
+                  WHERE id = :snapshotId),
+     changes AS (SELECT h.stock_item_id,
+                        (ARRAY_AGG(h.quantity_after ORDER BY h.logged_at DESC, h.id DESC) FILTER (WHERE h.quantity_after IS NOT NULL))[1]  AS available_quantity,
+                        (ARRAY_AGG(h.new_warehouse_id ORDER BY h.logged_at DESC, h.id DESC) FILTER (WHERE h.new_warehouse_id IS NOT NULL))[1] AS warehouse_id,
+                        (ARRAY_AGG(h.new_status ORDER BY h.logged_at DESC, h.id DESC) FILTER (WHERE h.new_status IS NOT NULL))[1]          AS status
+                 FROM stock_item_history h
+                          CROSS JOIN snapshot s
+                 WHERE h.logged_at <= :asOf
+                   -- Rows written by transactions the snapshot doesn't see, any transaction below its xmin is visible
+                   AND ((h.xact_id >= PG_SNAPSHOT_XMIN(s.history_snapshot) AND NOT PG_VISIBLE_IN_SNAPSHOT(h.xact_id, s.history_snapshot))
+                     OR ((h.xact_id IS NULL OR s.history_snapshot IS NULL) AND h.logged_at > s.taken_at))
+                 GROUP BY h.stock_item_id),
+     positions AS (SELECT e.stock_item_id,
+                          e.product_id,
+                          COALESCE(c.warehouse_id, e.warehouse_id)             AS warehouse_id,
+                          COALESCE(c.available_quantity, e.available_quantity) AS available_quantity,
+                          COALESCE(c.status, e.status)                         AS status
+                   FROM stock_item_snapshot_entries e
+                            LEFT JOIN changes c ON c.stock_item_id = e.stock_item_id
+                   WHERE e.snapshot_id = :snapshotId
+                     AND (e.warehouse_id = :warehouseId OR c.warehouse_id IS NOT NULL))
+SELECT stock_item_id, product_id, warehouse_id, available_quantity, status
+FROM positions
+WHERE warehouse_id = :warehouseId;
@@ -0,0 +1,6 @@
+UPDATE payment_initiations
+SET locked_until    = NULL,
+    next_attempt_at = :nextAttemptAt,
+    error           = :error
+WHERE id = :id
+  AND status = 'PENDING';
@@ -0,0 +1,16 @@
+WITH drained AS (DELETE FROM daily_item_sales_pending
+                 WHERE id IN (SELECT id
+                              FROM daily_item_sales_pending
+                              ORDER BY id
+                              LIMIT :batchSize FOR UPDATE SKIP LOCKED)
+                 RETURNING stock_item_id, sale_date, currency, sold_quantity, total_revenue_amount),
+     upserted AS (INSERT INTO daily_item_sales (stock_item_id, sale_date, currency, sold_quantity, total_revenue_amount)
+                  SELECT stock_item_id, sale_date, currency, SUM(sold_quantity), SUM(total_revenue_amount)
+                  FROM drained
+                  GROUP BY stock_item_id, sale_date, currency
+                  ON CONFLICT (stock_item_id, sale_date, currency)
+                      DO UPDATE SET sold_quantity        = daily_item_sales.sold_quantity + EXCLUDED.sold_quantity,
+                                    total_revenue_amount = daily_item_sales.total_revenue_amount + EXCLUDED.total_revenue_amount
+                  RETURNING 1)
+SELECT COUNT(*)
+FROM drained;
@@ -0,0 +1,5 @@
+UPDATE transactions
+SET status  = :status,
+    paid_at = :paidAt
+WHERE id = :id
+  AND status = 'INITIATED';
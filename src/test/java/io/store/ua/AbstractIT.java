@@ -46,7 +46,8 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// Providers are mocked per test class, so none is reconciled on schedule
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "transaction.reconciliation.providers=")
 @ActiveProfiles({"actuator", "database", "external", "redis", "default", "test"})
 @Testcontainers
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
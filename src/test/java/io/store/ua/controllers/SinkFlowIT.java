@@ -27,6 +27,7 @@ import java.math.BigInteger;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -199,6 +200,43 @@ class SinkFlowIT extends AbstractIT {
                 });
     }
 
+    @Test
+    @DisplayName("enqueueTransactions_success: repeated idempotency key is synchronised once")
+    void enqueueTransactions_success_whenIdempotencyKeyIsRepeated() {
+        TransactionDTO transactionDTO = TransactionDTO.builder()
+                .purpose(TransactionPurpose.STOCK_OUTBOUND_REVENUE.name())
+                .flow(TransactionFlowType.CREDIT.name())
+                .amount(BigInteger.valueOf(100_000))
+                .currency(Currency.UAH.name())
+                .beneficiaryId(generateBeneficiary().getId())
+                .paymentProvider(PaymentProvider.CASH.name())
+                .idempotencyKey(UUID.randomUUID().toString())
+                .build();
+
+        for (int i = 0; i < 2; i++) {
+            ResponseEntity<QueueResponseDTO> response = restClient.exchange("/api/v1/sink/transactions",
+                    HttpMethod.POST,
+                    new HttpEntity<>(transactionDTO, generateHeaders()),
+                    QueueResponseDTO.class);
+
+            assertThat(response.getStatusCode())
+                    .isEqualTo(HttpStatus.ACCEPTED);
+            assertThat(response.getBody())
+                    .isNotNull();
+            assertThat(response.getBody().getKey())
+                    .isEqualTo(transactionDTO.getIdempotencyKey());
+        }
+
+        Awaitility.await()
+                .atMost(Duration.ofSeconds(30))
+                .pollInterval(Duration.ofMillis(500))
+                .until(() -> transactionRepository.count() > 0);
+        Awaitility.await()
+                .during(Duration.ofSeconds(5))
+                .atMost(Duration.ofSeconds(10))
+                .until(() -> transactionRepository.count() == 1);
+    }
+
     @Test
     @DisplayName("enqueueTransactions_fails: non-CASH provider eventually reaches service and fails validation")
     void enqueueTransactions_fails() {
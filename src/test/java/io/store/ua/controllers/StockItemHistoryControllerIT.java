@@ -7,6 +7,7 @@ import io.store.ua.entity.StockItemGroup;
 import io.store.ua.entity.Warehouse;
 import io.store.ua.entity.immutable.StockItemHistory;
 import io.store.ua.enums.Currency;
+import io.store.ua.utility.KeysetCursor;
 import org.junit.jupiter.api.*;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
@@ -16,8 +17,11 @@ import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -175,6 +179,61 @@ class StockItemHistoryControllerIT extends AbstractIT {
                     .contains(saved.getId());
         }
 
+        @Test
+        @DisplayName("findBy_success_walksCursorPagesWithoutDuplicatesOrGaps")
+        void findBy_success_walksCursorPagesWithoutDuplicatesOrGaps() {
+            LocalDateTime tied = LocalDateTime.now(Clock.systemUTC()).truncatedTo(ChronoUnit.MICROS);
+            // Four rows share the sort key, so pages split inside the tie and only the ID tiebreak orders them
+            List<StockItemHistory> saved = stockItemHistoryRepository.saveAll(IntStream.range(0, 7)
+                    .mapToObj(i -> StockItemHistory.builder()
+                            .stockItemId(stockItem.getId())
+                            .title(product.getTitle())
+                            .currentProductPrice(product.getPrice())
+                            .currency(Currency.EUR.name())
+                            .loggedAt(i < 4 ? tied : tied.minusMinutes(i))
+                            .build())
+                    .toList());
+            List<Long> expected = saved.stream()
+                    .sorted(Comparator.comparing(StockItemHistory::getLoggedAt)
+                            .thenComparing(StockItemHistory::getId)
+                            .reversed())
+                    .map(StockItemHistory::getId)
+                    .toList();
+
+            List<Long> walked = new ArrayList<>();
+            List<Integer> pageSizes = new ArrayList<>();
+            String cursor = null;
+
+            do {
+                UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromPath("/api/v1/stockItemsHistory/findBy")
+                        .queryParam("stock_item_id", stockItem.getId())
+                        .queryParam("pageSize", 3);
+
+                if (cursor != null) {
+                    uriBuilder.queryParam("cursor", cursor);
+                }
+
+                ResponseEntity<List<StockItemHistory>> response = restClient.exchange(
+                        uriBuilder.build(true).toUriString(),
+                        HttpMethod.GET,
+                        new HttpEntity<>(authHeaders),
+                        new ParameterizedTypeReference<>() {
+                        }
+                );
+
+                assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+                assertThat(response.getBody()).isNotNull();
+
+                response.getBody().forEach(history -> walked.add(history.getId()));
+                pageSizes.add(response.getBody().size());
+                cursor = response.getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER);
+            } while (cursor != null && pageSizes.size() < 10);
+
+            assertThat(pageSizes).containsExactly(3, 3, 1);
+            assertThat(walked).containsExactlyElementsOf(expected);
+            assertThat(cursor).isNull();
+        }
+
         @Test
         @DisplayName("findBy_fails_invalidPagination_returns4xx")
         void findBy_fails_invalidPagination_returns4xx() {
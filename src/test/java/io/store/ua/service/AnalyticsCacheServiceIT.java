@@ -0,0 +1,111 @@
+package io.store.ua.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.Beneficiary;
+import io.store.ua.entity.StockItem;
+import io.store.ua.enums.Currency;
+import io.store.ua.enums.TransactionFlowType;
+import io.store.ua.models.data.BeneficiaryFinancialFlowStatistic;
+import io.store.ua.models.data.FinancialStatistic;
+import io.store.ua.models.data.ItemSellingStatistic;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalyticsCacheServiceIT extends AbstractIT {
+    @Autowired
+    private AnalyticsService analyticsService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private StockItem stockItem;
+
+    @BeforeEach
+    void setUp() {
+        stockItem = generateStockItem(generateProduct().getId(), generateStockItemGroup(true).getId(), generateWarehouse().getId());
+    }
+
+    private double countRequests(String scope, String result) {
+        return meterRegistry.counter("analytics.cache.requests", "scope", scope, "result", result).count();
+    }
+
+    private BigInteger soldQuantity(ItemSellingStatistic statistic) {
+        return statistic.getStatistics().stream()
+                .map(ItemSellingStatistic.Statistic::getSoldQuantity)
+                .reduce(BigInteger.ZERO, BigInteger::add);
+    }
+
+    @Nested
+    @DisplayName("get(scope: String, ownerId: Long, parameters: String, type: Class<T>, loader: Supplier<T>)")
+    class GetTests {
+        @Test
+        @DisplayName("get_success_repeatedCallIsServedFromCache")
+        void get_success_repeatedCallIsServedFromCache() {
+            insertHistoryRow(stockItem.getId(), BigInteger.TEN, BigInteger.valueOf(7), BigInteger.ONE, LocalDate.now());
+            double misses = countRequests(AnalyticsCacheService.ITEM_SCOPE, "miss");
+            double localHits = countRequests(AnalyticsCacheService.ITEM_SCOPE, "local_hit");
+
+            ItemSellingStatistic first = analyticsService.fetchItemSellingStatistic(stockItem.getId(), null, null, 10, 1);
+            ItemSellingStatistic second = analyticsService.fetchItemSellingStatistic(stockItem.getId(), null, null, 10, 1);
+
+            assertThat(second)
+                    .isEqualTo(first);
+            assertThat(countRequests(AnalyticsCacheService.ITEM_SCOPE, "miss"))
+                    .isEqualTo(misses + 1);
+            assertThat(countRequests(AnalyticsCacheService.ITEM_SCOPE, "local_hit"))
+                    .isEqualTo(localHits + 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("invalidate(scope: String, ownerId: Long)")
+    class InvalidateTests {
+        @Test
+        @DisplayName("invalidate_success_newSaleOfStockItemEvictsItsStatistic")
+        void invalidate_success_newSaleOfStockItemEvictsItsStatistic() {
+            insertHistoryRow(stockItem.getId(), BigInteger.TEN, BigInteger.valueOf(7), BigInteger.ONE, LocalDate.now());
+
+            assertThat(soldQuantity(analyticsService.fetchItemSellingStatistic(stockItem.getId(), null, null, 10, 1)))
+                    .isEqualTo(BigInteger.valueOf(3));
+
+            insertHistoryRow(stockItem.getId(), BigInteger.valueOf(7), BigInteger.valueOf(2), BigInteger.ONE, LocalDate.now());
+
+            Awaitility.await()
+                    .atMost(Duration.ofSeconds(10))
+                    .untilAsserted(() -> assertThat(soldQuantity(analyticsService.fetchItemSellingStatistic(stockItem.getId(), null, null, 10, 1)))
+                            .isEqualTo(BigInteger.valueOf(8)));
+        }
+
+        @Test
+        @DisplayName("invalidate_success_settledTransactionEvictsBeneficiaryStatistic")
+        void invalidate_success_settledTransactionEvictsBeneficiaryStatistic() {
+            Beneficiary beneficiary = generateBeneficiary();
+            generateTransaction(beneficiary.getId(), Currency.EUR.name(), BigInteger.valueOf(100), TransactionFlowType.DEBIT);
+
+            assertThat(analyticsService.fetchBeneficiaryFinancialStatistic(beneficiary.getId(), null, null, 10, 1).getFinancialStatistic())
+                    .singleElement()
+                    .extracting(FinancialStatistic::getTotalDebit)
+                    .isEqualTo(BigInteger.valueOf(100));
+
+            generateTransaction(beneficiary.getId(), Currency.EUR.name(), BigInteger.valueOf(50), TransactionFlowType.DEBIT);
+
+            Awaitility.await()
+                    .atMost(Duration.ofSeconds(10))
+                    .untilAsserted(() -> {
+                        BeneficiaryFinancialFlowStatistic statistic = analyticsService.fetchBeneficiaryFinancialStatistic(beneficiary.getId(), null, null, 10, 1);
+                        assertThat(statistic.getFinancialStatistic().getFirst().getTotalDebit())
+                                .isEqualTo(BigInteger.valueOf(150));
+                    });
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package io.store.ua.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.store.ua.AbstractIT;
 import io.store.ua.entity.Beneficiary;
 import io.store.ua.entity.Product;
 import io.store.ua.entity.StockItem;
 import io.store.ua.entity.Transaction;
+import io.store.ua.entity.cache.CurrencyRate;
 import io.store.ua.entity.immutable.StockItemHistory;
+import io.store.ua.enums.Currency;
+import io.store.ua.enums.SalesRankingMetric;
+import io.store.ua.enums.SalesRankingPartition;
 import io.store.ua.enums.TransactionFlowType;
+import io.store.ua.exceptions.NotFoundException;
 import io.store.ua.models.data.BeneficiaryFinancialFlowStatistic;
 import io.store.ua.models.data.FinancialStatistic;
+import io.store.ua.models.data.ItemSalesRank;
 import io.store.ua.models.data.ItemSellingStatistic;
+import io.store.ua.utility.RegularObjectMapper;
 import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -19,13 +28,19 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 class AnalyticsServiceIT extends AbstractIT {
     @Autowired
@@ -341,4 +356,164 @@ class AnalyticsServiceIT extends AbstractIT {
                     .hasMessageContaining("'from' must not be after 'to'");
         }
     }
+
+    @Nested
+    @DisplayName("streamItemSellingStatistics(stockItemIds: List<Long>, productIds: List<Long>, warehouseIds: List<Long>, from: LocalDate, to: LocalDate, groupByProduct: boolean, outputStream: OutputStream)")
+    class StreamItemSellingStatisticsTests {
+        private List<JsonNode> readSeries(ByteArrayOutputStream outputStream) throws Exception {
+            List<JsonNode> series = new ArrayList<>();
+
+            for (String line : outputStream.toString(StandardCharsets.UTF_8).lines().toList()) {
+                series.add(RegularObjectMapper.INSTANCE.readTree(line));
+            }
+
+            return series;
+        }
+
+        @Test
+        @DisplayName("streamItemSellingStatistics_success_oneSeriesPerStockItemOfWarehouse")
+        void streamItemSellingStatistics_success_oneSeriesPerStockItemOfWarehouse() throws Exception {
+            LocalDate today = LocalDate.now();
+            insertHistoryRow(stockItem.getId(), BigInteger.TEN, BigInteger.valueOf(7), BigInteger.TWO, today);
+            insertHistoryRow(stockItem.getId(), BigInteger.TEN, BigInteger.valueOf(9), BigInteger.TWO, today.minusDays(1));
+            insertHistoryRow(otherStockItem.getId(), BigInteger.TEN, BigInteger.valueOf(5), BigInteger.ONE, today);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            long written = analyticsService.streamItemSellingStatistics(null,
+                    null,
+                    List.of(stockItem.getWarehouseId()),
+                    null,
+                    null,
+                    false,
+                    outputStream);
+
+            List<JsonNode> series = readSeries(outputStream);
+
+            assertThat(written)
+                    .isEqualTo(2);
+            assertThat(series)
+                    .extracting(node -> node.get("stockItemId").asLong())
+                    .containsExactlyInAnyOrder(stockItem.getId(), otherStockItem.getId());
+            assertThat(series)
+                    .filteredOn(node -> node.get("stockItemId").asLong() == stockItem.getId())
+                    .singleElement()
+                    .satisfies(node -> {
+                        assertThat(node.get("productId").asLong()).isEqualTo(product.getId());
+                        assertThat(node.get("statistics").size()).isEqualTo(2);
+                        assertThat(node.get("statistics").get(0).get("soldQuantity").asLong()).isEqualTo(3);
+                    });
+        }
+
+        @Test
+        @DisplayName("streamItemSellingStatistics_success_aggregatesStockItemsOfProduct")
+        void streamItemSellingStatistics_success_aggregatesStockItemsOfProduct() throws Exception {
+            LocalDate today = LocalDate.now();
+            StockItem otherBatch = generateStockItem(product.getId(), stockItem.getStockItemGroupId(), stockItem.getWarehouseId());
+            insertHistoryRow(stockItem.getId(), BigInteger.TEN, BigInteger.valueOf(7), BigInteger.TWO, today);
+            insertHistoryRow(otherBatch.getId(), BigInteger.TEN, BigInteger.valueOf(6), BigInteger.TWO, today);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            analyticsService.streamItemSellingStatistics(null, List.of(product.getId()), null, today, today, true, outputStream);
+
+            assertThat(readSeries(outputStream))
+                    .singleElement()
+                    .satisfies(node -> {
+                        assertThat(node.get("stockItemId").isNull()).isTrue();
+                        assertThat(node.get("productId").asLong()).isEqualTo(product.getId());
+                        assertThat(node.get("statistics").get(0).get("soldQuantity").asLong()).isEqualTo(7);
+                        assertThat(node.get("statistics").get(0).get("totalRevenueAmount").asLong()).isEqualTo(14);
+                    });
+        }
+
+        @Test
+        @DisplayName("streamItemSellingStatistics_fails_whenNoIdsProvided")
+        void streamItemSellingStatistics_fails_whenNoIdsProvided() {
+            assertThatThrownBy(() -> analyticsService.streamItemSellingStatistics(List.of(), null, null, null, null, false, new ByteArrayOutputStream()))
+                    .isInstanceOf(ValidationException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("fetchNormalizedBeneficiaryFinancialStatistic(beneficiaryId: Long, from: LocalDate, to: LocalDate, targetCurrency: String)")
+    class FetchNormalizedBeneficiaryFinancialStatisticTests {
+        @BeforeEach
+        void setUpRates() {
+            currencyRateRepository.saveAll(List.of(CurrencyRate.builder()
+                            .currencyCode(Currency.USD.name())
+                            .baseCurrencyCode(Currency.USD.name())
+                            .rate(new BigDecimal("1.0000"))
+                            .expiryTime(TimeUnit.DAYS.toSeconds(1))
+                            .build(),
+                    CurrencyRate.builder()
+                            .currencyCode(Currency.EUR.name())
+                            .baseCurrencyCode(Currency.USD.name())
+                            .rate(new BigDecimal("0.5000"))
+                            .expiryTime(TimeUnit.DAYS.toSeconds(1))
+                            .build()));
+        }
+
+        @Test
+        @DisplayName("fetchNormalizedBeneficiaryFinancialStatistic_success_sumsAllCurrenciesInTargetCurrency")
+        void fetchNormalizedBeneficiaryFinancialStatistic_success_sumsAllCurrenciesInTargetCurrency() {
+            generateTransaction(beneficiary.getId(), Currency.USD.name(), BigInteger.valueOf(100), TransactionFlowType.DEBIT);
+            generateTransaction(beneficiary.getId(), Currency.EUR.name(), BigInteger.valueOf(50), TransactionFlowType.DEBIT);
+            generateTransaction(beneficiary.getId(), Currency.USD.name(), BigInteger.valueOf(20), TransactionFlowType.CREDIT);
+
+            BeneficiaryFinancialFlowStatistic statistic = analyticsService.fetchNormalizedBeneficiaryFinancialStatistic(beneficiary.getId(), null, null, "usd");
+
+            assertThat(statistic.getBeneficiary().getId())
+                    .isEqualTo(beneficiary.getId());
+            assertThat(statistic.getFinancialStatistic())
+                    .singleElement()
+                    .satisfies(financialStatistic -> {
+                        assertThat(financialStatistic.getCurrency()).isEqualTo(Currency.USD.name());
+                        assertThat(financialStatistic.getTotalDebit()).isEqualTo(BigInteger.valueOf(200));
+                        assertThat(financialStatistic.getTotalCredit()).isEqualTo(BigInteger.valueOf(20));
+                    });
+        }
+
+        @Test
+        @DisplayName("fetchNormalizedBeneficiaryFinancialStatistic_fails_whenTargetCurrencyUnknown")
+        void fetchNormalizedBeneficiaryFinancialStatistic_fails_whenTargetCurrencyUnknown() {
+            assertThatThrownBy(() -> analyticsService.fetchNormalizedBeneficiaryFinancialStatistic(beneficiary.getId(), null, null, "XYZ"))
+                    .isInstanceOf(NotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("rankItemSales(warehouseIds: List<Long>, stockItemGroupIds: List<Long>, partitionBy: SalesRankingPartition, metric: SalesRankingMetric, from: LocalDate, to: LocalDate, limit: int)")
+    class RankItemSalesTests {
+        @Test
+        @DisplayName("rankItemSales_success_ranksBestSellersAndSlowMoversPerWarehouse")
+        void rankItemSales_success_ranksBestSellersAndSlowMoversPerWarehouse() {
+            StockItem idleStockItem = generateStockItem(generateProduct().getId(), stockItem.getStockItemGroupId(), stockItem.getWarehouseId());
+            LocalDate today = LocalDate.now();
+            insertHistoryRow(stockItem.getId(), BigInteger.TEN, BigInteger.valueOf(7), BigInteger.ONE, today);
+            insertHistoryRow(otherStockItem.getId(), BigInteger.TEN, BigInteger.ONE, BigInteger.ONE, today);
+
+            List<ItemSalesRank> ranks = analyticsService.rankItemSales(List.of(stockItem.getWarehouseId()),
+                    null,
+                    SalesRankingPartition.WAREHOUSE,
+                    SalesRankingMetric.QUANTITY,
+                    today.minusDays(1),
+                    today,
+                    2);
+
+            assertThat(ranks)
+                    .extracting(ItemSalesRank::getDirection, ItemSalesRank::getRank, ItemSalesRank::getStockItemId)
+                    .containsExactly(tuple("TOP", 1L, otherStockItem.getId()),
+                            tuple("TOP", 2L, stockItem.getId()),
+                            tuple("BOTTOM", 1L, idleStockItem.getId()),
+                            tuple("BOTTOM", 2L, stockItem.getId()));
+            assertThat(ranks.getFirst().getSoldQuantity())
+                    .isEqualTo(BigInteger.valueOf(9));
+        }
+
+        @Test
+        @DisplayName("rankItemSales_fails_whenNoPartitionIdsProvided")
+        void rankItemSales_fails_whenNoPartitionIdsProvided() {
+            assertThatThrownBy(() -> analyticsService.rankItemSales(null, List.of(), SalesRankingPartition.GROUP, SalesRankingMetric.REVENUE, null, null, 5))
+                    .isInstanceOf(ValidationException.class);
+        }
+    }
 }
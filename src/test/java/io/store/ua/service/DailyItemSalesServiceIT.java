@@ -0,0 +1,147 @@
+package io.store.ua.service;
+
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.StockItem;
+import io.store.ua.models.data.ItemSellingStatistic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class DailyItemSalesServiceIT extends AbstractIT {
+    @Autowired
+    private DailyItemSalesService dailyItemSalesService;
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    private StockItem stockItem;
+
+    @BeforeEach
+    void setUp() {
+        stockItem = generateStockItem(generateProduct().getId(), generateStockItemGroup(true).getId(), generateWarehouse().getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("UPDATE daily_item_sales_backfill SET next_id = last_id");
+    }
+
+    private Map<String, Object> findRollup(LocalDate saleDate) {
+        return jdbcTemplate.queryForMap("SELECT sold_quantity, total_revenue_amount FROM daily_item_sales WHERE stock_item_id = ? AND sale_date = ?",
+                stockItem.getId(),
+                saleDate);
+    }
+
+    /**
+     * Writes a history row the way it existed before the rollup trigger, so only the backfill can pick it up
+     */
+    private long insertHistoryRowWithoutTrigger(long quantityBefore, long quantityAfter, long price, LocalDate date) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (Statement statement = connection.createStatement();
+                 PreparedStatement insert = connection.prepareStatement("""
+                         INSERT INTO stock_item_history (stock_item_id, title, current_product_price, currency, logged_at, quantity_before, quantity_after)
+                         VALUES (?, 'title', ?, 'EUR', ?, ?, ?)
+                         RETURNING id
+                         """)) {
+                statement.execute("SET session_replication_role = replica");
+                insert.setLong(1, stockItem.getId());
+                insert.setLong(2, price);
+                insert.setObject(3, date.atTime(19, 0));
+                insert.setLong(4, quantityBefore);
+                insert.setLong(5, quantityAfter);
+
+                try (ResultSet resultSet = insert.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getLong(1);
+                } finally {
+                    statement.execute("SET session_replication_role = origin");
+                }
+            }
+        });
+    }
+
+    @Nested
+    @DisplayName("rollUpPending()")
+    class RollUpPendingTests {
+        @Test
+        @DisplayName("rollUpPending_success_addsOnlyQuantityDecreasesToRollup")
+        void rollUpPending_success_addsOnlyQuantityDecreasesToRollup() {
+            LocalDate today = LocalDate.now();
+            insertHistoryRow(stockItem.getId(), BigInteger.TEN, BigInteger.valueOf(7), BigInteger.TWO, today);
+            insertHistoryRow(stockItem.getId(), BigInteger.valueOf(7), BigInteger.valueOf(6), BigInteger.TWO, today);
+            insertHistoryRow(stockItem.getId(), BigInteger.valueOf(6), BigInteger.valueOf(60), BigInteger.TWO, today);
+
+            dailyItemSalesService.rollUpPending();
+
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM daily_item_sales_pending WHERE stock_item_id = ?", Long.class, stockItem.getId()))
+                    .isZero();
+            assertThat(findRollup(today))
+                    .containsEntry("sold_quantity", 4L)
+                    .containsEntry("total_revenue_amount", 8L);
+        }
+
+        @Test
+        @DisplayName("rollUpPending_success_statisticIsSameBeforeAndAfterRollup")
+        void rollUpPending_success_statisticIsSameBeforeAndAfterRollup() {
+            LocalDate today = LocalDate.now();
+            insertHistoryRow(stockItem.getId(), BigInteger.TEN, BigInteger.valueOf(8), BigInteger.valueOf(5), today.minusDays(1));
+            dailyItemSalesService.rollUpPending();
+            insertHistoryRow(stockItem.getId(), BigInteger.valueOf(8), BigInteger.valueOf(5), BigInteger.valueOf(5), today.minusDays(1));
+            insertHistoryRow(stockItem.getId(), BigInteger.valueOf(5), BigInteger.ONE, BigInteger.valueOf(5), today);
+
+            ItemSellingStatistic beforeRollup = analyticsService.fetchItemSellingStatistic(stockItem.getId(), null, null, 10, 1);
+            dailyItemSalesService.rollUpPending();
+            ItemSellingStatistic afterRollup = analyticsService.fetchItemSellingStatistic(stockItem.getId(), null, null, 10, 1);
+
+            assertThat(beforeRollup)
+                    .isEqualTo(afterRollup);
+            assertThat(afterRollup.getStatistics())
+                    .extracting(ItemSellingStatistic.Statistic::getStartDate, ItemSellingStatistic.Statistic::getSoldQuantity)
+                    .containsExactly(tuple(today, BigInteger.valueOf(4)),
+                            tuple(today.minusDays(1), BigInteger.valueOf(5)));
+        }
+    }
+
+    @Nested
+    @DisplayName("backfill(maxBatches: int)")
+    class BackfillTests {
+        @Test
+        @DisplayName("backfill_success_rollsUpHistoryWrittenBeforeTrigger")
+        void backfill_success_rollsUpHistoryWrittenBeforeTrigger() {
+            LocalDate saleDate = LocalDate.now().minusDays(30);
+            long firstId = insertHistoryRowWithoutTrigger(20, 15, 3, saleDate);
+            long lastId = insertHistoryRowWithoutTrigger(15, 13, 3, saleDate);
+            jdbcTemplate.update("UPDATE daily_item_sales_backfill SET next_id = ?, last_id = ?", firstId - 1, lastId);
+
+            assertThat(analyticsService.fetchItemSellingStatistic(stockItem.getId(), null, null, 10, 1).getStatistics())
+                    .singleElement()
+                    .extracting(ItemSellingStatistic.Statistic::getSoldQuantity)
+                    .isEqualTo(BigInteger.valueOf(7));
+
+            dailyItemSalesService.backfill(Integer.MAX_VALUE);
+
+            assertThat(findRollup(saleDate))
+                    .containsEntry("sold_quantity", 7L)
+                    .containsEntry("total_revenue_amount", 21L);
+            assertThat(jdbcTemplate.queryForObject("SELECT next_id = last_id FROM daily_item_sales_backfill", Boolean.class))
+                    .isTrue();
+            assertThat(analyticsService.fetchItemSellingStatistic(stockItem.getId(), null, null, 10, 1).getStatistics())
+                    .singleElement()
+                    .extracting(ItemSellingStatistic.Statistic::getSoldQuantity)
+                    .isEqualTo(BigInteger.valueOf(7));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.store.ua.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.Beneficiary;
+import io.store.ua.entity.StockItem;
+import io.store.ua.entity.Transaction;
+import io.store.ua.enums.Currency;
+import io.store.ua.enums.ExportFormat;
+import io.store.ua.enums.TransactionFlowType;
+import io.store.ua.utility.RegularObjectMapper;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExportServiceIT extends AbstractIT {
+    @Autowired
+    private ExportService exportService;
+
+    private StockItem stockItem;
+
+    @BeforeEach
+    void setUp() {
+        stockItem = generateStockItem(generateProduct().getId(), generateStockItemGroup(true).getId(), generateWarehouse().getId());
+    }
+
+    @Nested
+    @DisplayName("exportStockItemHistory(stockItemId: Long, from: LocalDateTime, to: LocalDateTime, format: ExportFormat, outputStream: OutputStream)")
+    class ExportStockItemHistoryTests {
+        @Test
+        @DisplayName("exportStockItemHistory_success_ndjson_oneObjectPerLineInLoggedOrder")
+        void exportStockItemHistory_success_ndjson_oneObjectPerLineInLoggedOrder() throws Exception {
+            LocalDate today = LocalDate.now();
+            insertHistoryRow(stockItem.getId(), BigInteger.TEN, BigInteger.ONE, BigInteger.TWO, today);
+            insertHistoryRow(stockItem.getId(), BigInteger.TEN, BigInteger.TWO, BigInteger.TWO, today.minusDays(3));
+            insertHistoryRow(stockItem.getId(), BigInteger.TEN, BigInteger.ZERO, BigInteger.TWO, today.minusDays(40));
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            long exported = exportService.exportStockItemHistory(stockItem.getId(),
+                    today.minusDays(10).atStartOfDay(),
+                    null,
+                    ExportFormat.NDJSON,
+                    outputStream);
+
+            List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+
+            assertThat(exported)
+                    .isEqualTo(2);
+            assertThat(lines)
+                    .hasSize(2);
+
+            JsonNode first = RegularObjectMapper.INSTANCE.readTree(lines.getFirst());
+
+            assertThat(first.get("stock_item_id").asLong())
+                    .isEqualTo(stockItem.getId());
+            assertThat(first.get("quantity_after").asLong())
+                    .isEqualTo(2);
+            assertThat(first.get("logged_at").asText())
+                    .startsWith(today.minusDays(3).toString());
+            assertThat(first.get("old_group_id").isNull())
+                    .isTrue();
+        }
+
+        @Test
+        @DisplayName("exportStockItemHistory_success_csv_headerAndQuotedValues")
+        void exportStockItemHistory_success_csv_headerAndQuotedValues() {
+            jdbcTemplate.update("""
+                            INSERT INTO stock_item_history (stock_item_id, title, current_product_price, currency, logged_at)
+                            VALUES (?, 'Milk, "fresh"', 100, 'EUR', NOW())
+                            """,
+                    stockItem.getId());
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            exportService.exportStockItemHistory(null, null, null, ExportFormat.CSV, outputStream);
+
+            List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+
+            assertThat(lines)
+                    .hasSize(2);
+            assertThat(lines.getFirst())
+                    .startsWith("id,stock_item_id,title,current_product_price,currency,logged_at");
+            assertThat(lines.getLast())
+                    .contains(",\"Milk, \"\"fresh\"\"\",100,EUR,");
+        }
+
+        @Test
+        @DisplayName("exportStockItemHistory_success_csv_emptyExportHasHeaderOnly")
+        void exportStockItemHistory_success_csv_emptyExportHasHeaderOnly() {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            assertThat(exportService.exportStockItemHistory(stockItem.getId(), null, null, ExportFormat.CSV, outputStream))
+                    .isZero();
+            assertThat(outputStream.toString(StandardCharsets.UTF_8).lines())
+                    .hasSize(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("exportTransactions(createdFrom: LocalDateTime, createdTo: LocalDateTime, status: String, flowType: String, format: ExportFormat, outputStream: OutputStream)")
+    class ExportTransactionsTests {
+        @Test
+        @DisplayName("exportTransactions_success_filtersByFlowType")
+        void exportTransactions_success_filtersByFlowType() throws Exception {
+            Beneficiary beneficiary = generateBeneficiary();
+            Transaction debit = generateTransaction(beneficiary.getId(), Currency.EUR.name(), BigInteger.valueOf(150), TransactionFlowType.DEBIT);
+            generateTransaction(beneficiary.getId(), Currency.EUR.name(), BigInteger.valueOf(70), TransactionFlowType.CREDIT);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            exportService.exportTransactions(null, null, "settled", "debit", ExportFormat.NDJSON, outputStream);
+
+            List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+
+            assertThat(lines)
+                    .singleElement()
+                    .satisfies(line -> {
+                        JsonNode node = RegularObjectMapper.INSTANCE.readTree(line);
+                        assertThat(node.get("transaction_id").asText()).isEqualTo(debit.getTransactionId());
+                        assertThat(node.get("amount").asLong()).isEqualTo(150);
+                    });
+        }
+
+        @Test
+        @DisplayName("exportTransactions_fails_whenFlowTypeInvalid")
+        void exportTransactions_fails_whenFlowTypeInvalid() {
+            assertThatThrownBy(() -> exportService.exportTransactions(null, null, null, "sideways", ExportFormat.CSV, new ByteArrayOutputStream()))
+                    .isInstanceOf(ValidationException.class);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package io.store.ua.service;
+
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.Product;
+import io.store.ua.entity.StockItem;
+import io.store.ua.entity.Warehouse;
+import io.store.ua.entity.immutable.StockItemHistory;
+import io.store.ua.enums.StockItemStatus;
+import io.store.ua.models.data.InventoryPosition;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InventorySnapshotServiceIT extends AbstractIT {
+    @Autowired
+    private InventorySnapshotService inventorySnapshotService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Product product;
+    private Warehouse warehouse;
+    private StockItem stockItem;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM stock_item_snapshots");
+        now = LocalDateTime.now(Clock.systemUTC());
+        product = generateProduct();
+        warehouse = generateWarehouse();
+        stockItem = generateStockItem(product.getId(), generateStockItemGroup(true).getId(), warehouse.getId());
+        jdbcTemplate.update("UPDATE stock_items SET created_at = ? WHERE id = ?", now.minusDays(10), stockItem.getId());
+    }
+
+    private void generateHistory(BigInteger quantityBefore, BigInteger quantityAfter, LocalDateTime loggedAt) {
+        stockItemHistoryRepository.save(StockItemHistory.builder()
+                .stockItemId(stockItem.getId())
+                .title(product.getTitle())
+                .currentProductPrice(product.getPrice())
+                .currency(product.getCurrency())
+                .quantityBefore(quantityBefore)
+                .quantityAfter(quantityAfter)
+                .loggedAt(loggedAt)
+                .build());
+    }
+
+    @Nested
+    @DisplayName("findInventoryAsOf(warehouseId: Long, asOf: LocalDateTime)")
+    class FindInventoryAsOfTests {
+        @Test
+        @DisplayName("findInventoryAsOf_success_replaysBackwardFromCurrentStock")
+        void findInventoryAsOf_success_replaysBackwardFromCurrentStock() {
+            generateHistory(BigInteger.valueOf(900), stockItem.getAvailableQuantity(), now.minusDays(2));
+
+            assertThat(inventorySnapshotService.findInventoryAsOf(warehouse.getId(), now.minusDays(3)))
+                    .containsExactly(new InventoryPosition(stockItem.getId(),
+                            product.getId(),
+                            warehouse.getId(),
+                            BigInteger.valueOf(900),
+                            StockItemStatus.AVAILABLE));
+            assertThat(inventorySnapshotService.findInventoryAsOf(warehouse.getId(), now.minusDays(1)))
+                    .singleElement()
+                    .extracting(InventoryPosition::availableQuantity)
+                    .isEqualTo(stockItem.getAvailableQuantity());
+        }
+
+        @Test
+        @DisplayName("findInventoryAsOf_success_replaysForwardFromEarlierSnapshot")
+        void findInventoryAsOf_success_replaysForwardFromEarlierSnapshot() {
+            long snapshotId = inventorySnapshotService.takeSnapshot();
+            jdbcTemplate.update("UPDATE stock_item_snapshots SET taken_at = ? WHERE id = ?", now.minusDays(5), snapshotId);
+            jdbcTemplate.update("UPDATE stock_items SET available_quantity = 999 WHERE id = ?", stockItem.getId());
+            generateHistory(stockItem.getAvailableQuantity(), BigInteger.valueOf(7), now.minusDays(4));
+
+            assertThat(inventorySnapshotService.findInventoryAsOf(warehouse.getId(), now.minusDays(3)))
+                    .singleElement()
+                    .extracting(InventoryPosition::availableQuantity)
+                    .isEqualTo(BigInteger.valueOf(7));
+        }
+
+        @Test
+        @DisplayName("findInventoryAsOf_success_replaysHistoryCommittedAfterSnapshotWithEarlierTimestamp")
+        void findInventoryAsOf_success_replaysHistoryCommittedAfterSnapshotWithEarlierTimestamp() {
+            long snapshotId = inventorySnapshotService.takeSnapshot();
+            jdbcTemplate.update("UPDATE stock_item_snapshots SET taken_at = ? WHERE id = ?", now.minusDays(3), snapshotId);
+            jdbcTemplate.update("UPDATE stock_items SET available_quantity = 999 WHERE id = ?", stockItem.getId());
+            generateHistory(stockItem.getAvailableQuantity(), BigInteger.valueOf(7), now.minusDays(4));
+
+            assertThat(inventorySnapshotService.findInventoryAsOf(warehouse.getId(), now.minusDays(2)))
+                    .singleElement()
+                    .extracting(InventoryPosition::availableQuantity)
+                    .isEqualTo(BigInteger.valueOf(7));
+        }
+
+        @Test
+        @DisplayName("findInventoryAsOf_success_replaysChangeInFlightWhileSnapshotIsTaken")
+        void findInventoryAsOf_success_replaysChangeInFlightWhileSnapshotIsTaken() throws Exception {
+            CountDownLatch written = new CountDownLatch(1);
+            CountDownLatch snapshotTaken = new CountDownLatch(1);
+            // Takes a history ID first and commits only after the snapshot is taken
+            CompletableFuture<Void> inFlight = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(ignore -> {
+                generateHistory(stockItem.getAvailableQuantity(), BigInteger.valueOf(7), now.minusDays(4));
+                jdbcTemplate.update("UPDATE stock_items SET available_quantity = 7 WHERE id = ?", stockItem.getId());
+                written.countDown();
+
+                try {
+                    assertThat(snapshotTaken.await(10, TimeUnit.SECONDS)).isTrue();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }));
+
+            assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+            // Committed with a higher history ID before the snapshot
+            generateHistory(stockItem.getAvailableQuantity(), stockItem.getAvailableQuantity(), now.minusDays(6));
+            long snapshotId = inventorySnapshotService.takeSnapshot();
+            snapshotTaken.countDown();
+            inFlight.get(10, TimeUnit.SECONDS);
+
+            jdbcTemplate.update("UPDATE stock_item_snapshots SET taken_at = ? WHERE id = ?", now.minusDays(5), snapshotId);
+
+            assertThat(jdbcTemplate.queryForObject("SELECT available_quantity FROM stock_item_snapshot_entries WHERE snapshot_id = ? AND stock_item_id = ?",
+                    Long.class, snapshotId, stockItem.getId()))
+                    .isEqualTo(stockItem.getAvailableQuantity().longValueExact());
+            assertThat(inventorySnapshotService.findInventoryAsOf(warehouse.getId(), now.minusDays(3)))
+                    .singleElement()
+                    .extracting(InventoryPosition::availableQuantity)
+                    .isEqualTo(BigInteger.valueOf(7));
+        }
+
+        @Test
+        @DisplayName("findInventoryAsOf_success_excludesStockItemsCreatedLater")
+        void findInventoryAsOf_success_excludesStockItemsCreatedLater() {
+            jdbcTemplate.update("UPDATE stock_items SET created_at = ? WHERE id = ?", now.minusHours(1), stockItem.getId());
+
+            assertThat(inventorySnapshotService.findInventoryAsOf(warehouse.getId(), now.minusDays(1)))
+                    .isEmpty();
+        }
+
+        @Test
+        @DisplayName("findInventoryAsOf_fails_whenPointInTimeIsInFuture")
+        void findInventoryAsOf_fails_whenPointInTimeIsInFuture() {
+            assertThatThrownBy(() -> inventorySnapshotService.findInventoryAsOf(warehouse.getId(), now.plusDays(1)))
+                    .isInstanceOf(ValidationException.class);
+        }
+    }
+}
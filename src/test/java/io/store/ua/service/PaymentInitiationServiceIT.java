@@ -0,0 +1,172 @@
+package io.store.ua.service;
+
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.Beneficiary;
+import io.store.ua.entity.Transaction;
+import io.store.ua.enums.Currency;
+import io.store.ua.enums.PaymentInitiationStatus;
+import io.store.ua.enums.PaymentProvider;
+import io.store.ua.enums.TransactionPurpose;
+import io.store.ua.enums.TransactionStatus;
+import io.store.ua.exceptions.HealthCheckException;
+import io.store.ua.models.data.PaymentInitiation;
+import io.store.ua.models.dto.TransactionDTO;
+import io.store.ua.service.external.DataTransAPIService;
+import io.store.ua.service.external.LiqPayAPIService;
+import io.store.ua.utility.CodeGenerator;
+import jakarta.validation.ValidationException;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigInteger;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentInitiationServiceIT extends AbstractIT {
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private PaymentInitiationService paymentInitiationService;
+    @MockitoBean
+    private DataTransAPIService dataTransService;
+    @MockitoBean
+    private LiqPayAPIService liqPayService;
+
+    private TransactionDTO transactionDTO;
+
+    @BeforeEach
+    void setUp() {
+        when(dataTransService.provider()).thenReturn(PaymentProvider.DATA_TRANS);
+        when(liqPayService.provider()).thenReturn(PaymentProvider.LIQ_PAY);
+
+        Beneficiary beneficiary = generateBeneficiary();
+        transactionDTO = TransactionDTO.builder()
+                .purpose(TransactionPurpose.SALARY.name())
+                .amount(BigInteger.valueOf(10_000))
+                .currency(Currency.EUR.name())
+                .beneficiaryId(beneficiary.getId())
+                .paymentProvider(PaymentProvider.DATA_TRANS.name())
+                .build();
+    }
+
+    private PaymentInitiation awaitStatus(Long id, PaymentInitiationStatus status) {
+        Awaitility.await()
+                .atMost(Duration.ofSeconds(10))
+                .until(() -> paymentInitiationService.findById(id).getStatus() == status);
+
+        return paymentInitiationService.findById(id);
+    }
+
+    @Nested
+    @DisplayName("initiateOutcomingPaymentAsync(transactionDTO: TransactionDTO, autoSettle: Boolean)")
+    class InitiateOutcomingPaymentAsyncTests {
+        @Test
+        @DisplayName("initiateOutcomingPaymentAsync_success_returnsPendingAndCompletesWithProviderResult")
+        void initiateOutcomingPaymentAsync_success_returnsPendingAndCompletesWithProviderResult() {
+            String reference = CodeGenerator.TransactionCodeGenerator.generate(PaymentProvider.DATA_TRANS);
+            doAnswer(invocation -> {
+                Transaction transaction = invocation.getArgument(0);
+                transaction.setTransactionId(reference);
+                transaction.setReference(reference);
+                transaction.setStatus(TransactionStatus.INITIATED);
+                return transaction;
+            }).when(dataTransService).initiateOutcomingPayment(any(), anyBoolean());
+
+            PaymentInitiation paymentInitiation = transactionService.initiateOutcomingPaymentAsync(transactionDTO, false);
+
+            assertThat(paymentInitiation.getStatus()).isEqualTo(PaymentInitiationStatus.PENDING);
+            assertThat(paymentInitiation.getTransaction().getStatus()).isEqualTo(TransactionStatus.PENDING);
+
+            PaymentInitiation completed = awaitStatus(paymentInitiation.getId(), PaymentInitiationStatus.COMPLETED);
+
+            assertThat(completed.getAttempts()).isEqualTo(1);
+            assertThat(completed.getTransaction().getStatus()).isEqualTo(TransactionStatus.INITIATED);
+            assertThat(completed.getTransaction().getTransactionId()).isEqualTo(reference);
+            assertThat(completed.getTransaction().getReference()).isEqualTo(reference);
+        }
+
+        @Test
+        @DisplayName("initiateOutcomingPaymentAsync_success_failsTransactionWhenProviderRejects")
+        void initiateOutcomingPaymentAsync_success_failsTransactionWhenProviderRejects() {
+            doThrow(new IllegalStateException("Declined"))
+                    .when(dataTransService).initiateOutcomingPayment(any(), anyBoolean());
+
+            PaymentInitiation failed = awaitStatus(transactionService.initiateOutcomingPaymentAsync(transactionDTO, false).getId(),
+                    PaymentInitiationStatus.FAILED);
+
+            assertThat(failed.getError()).isEqualTo("Declined");
+            assertThat(failed.getTransaction().getStatus()).isEqualTo(TransactionStatus.FAILED);
+        }
+
+        @Test
+        @DisplayName("initiateOutcomingPaymentAsync_success_postponesWhenProviderIsUnavailable")
+        void initiateOutcomingPaymentAsync_success_postponesWhenProviderIsUnavailable() {
+            doThrow(new HealthCheckException())
+                    .when(dataTransService).initiateOutcomingPayment(any(), anyBoolean());
+
+            Long id = transactionService.initiateOutcomingPaymentAsync(transactionDTO, false).getId();
+
+            Awaitility.await()
+                    .atMost(Duration.ofSeconds(10))
+                    .until(() -> paymentInitiationService.findById(id).getError() != null);
+
+            PaymentInitiation postponed = paymentInitiationService.findById(id);
+            assertThat(postponed.getStatus()).isEqualTo(PaymentInitiationStatus.PENDING);
+            assertThat(postponed.getTransaction().getStatus()).isEqualTo(TransactionStatus.PENDING);
+            assertThat(jdbcTemplate.queryForObject("SELECT next_attempt_at > created_at FROM payment_initiations WHERE id = ?", Boolean.class, id))
+                    .isTrue();
+        }
+
+        @Test
+        @DisplayName("initiateOutcomingPaymentAsync_fails_whenProviderDoesNotSupportAutoSettle")
+        void initiateOutcomingPaymentAsync_fails_whenProviderDoesNotSupportAutoSettle() {
+            when(liqPayService.supportsSettlementOnInitiation()).thenCallRealMethod();
+            transactionDTO.setPaymentProvider(PaymentProvider.LIQ_PAY.name());
+            long initialCount = transactionRepository.count();
+            Long initialInitiations = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payment_initiations", Long.class);
+
+            assertThatThrownBy(() -> transactionService.initiateOutcomingPaymentAsync(transactionDTO, true))
+                    .isInstanceOf(ValidationException.class);
+
+            assertThat(transactionRepository.count()).isEqualTo(initialCount);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payment_initiations", Long.class)).isEqualTo(initialInitiations);
+            verify(liqPayService, never()).initiateOutcomingPayment(any(), anyBoolean());
+        }
+    }
+
+    @Nested
+    @DisplayName("recover()")
+    class RecoverTests {
+        @Test
+        @DisplayName("recover_success_failsInitiationWhoseLeaseExpired")
+        void recover_success_failsInitiationWhoseLeaseExpired() {
+            doThrow(new HealthCheckException())
+                    .when(dataTransService).initiateOutcomingPayment(any(), anyBoolean());
+            Long id = transactionService.initiateOutcomingPaymentAsync(transactionDTO, false).getId();
+            Awaitility.await()
+                    .atMost(Duration.ofSeconds(10))
+                    .until(() -> paymentInitiationService.findById(id).getError() != null);
+            jdbcTemplate.update("UPDATE payment_initiations SET locked_until = NOW() AT TIME ZONE 'UTC' - INTERVAL '1 minute' WHERE id = ?", id);
+
+            paymentInitiationService.recover();
+
+            PaymentInitiation failed = paymentInitiationService.findById(id);
+            assertThat(failed.getStatus()).isEqualTo(PaymentInitiationStatus.FAILED);
+            assertThat(failed.getTransaction().getStatus()).isEqualTo(TransactionStatus.FAILED);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.store.ua.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.store.ua.AbstractIT;
+import io.store.ua.producers.SinkProducer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SinkDeduplicationServiceIT extends AbstractIT {
+    @Autowired
+    private SinkDeduplicationService sinkDeduplicationService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double countMessages(String result) {
+        return meterRegistry.counter("sink.deduplication.messages", "topic", SinkProducer.TRANSACTION_TOPIC, "result", result).count();
+    }
+
+    @Nested
+    @DisplayName("claim(topic: String, key: String)")
+    class ClaimTests {
+        @Test
+        @DisplayName("claim_success_dropsKeyMarkedAsDone")
+        void claim_success_dropsKeyMarkedAsDone() {
+            String key = UUID.randomUUID().toString();
+            double accepted = countMessages("accepted");
+            double duplicates = countMessages("duplicate");
+
+            assertThat(sinkDeduplicationService.claim(SinkProducer.TRANSACTION_TOPIC, key)).isTrue();
+            sinkDeduplicationService.complete(SinkProducer.TRANSACTION_TOPIC, key, true);
+
+            assertThat(sinkDeduplicationService.claim(SinkProducer.TRANSACTION_TOPIC, key)).isFalse();
+            assertThat(sinkDeduplicationService.claim(SinkProducer.SHIPMENT_TOPIC, key)).isTrue();
+            assertThat(countMessages("accepted")).isEqualTo(accepted + 1);
+            assertThat(countMessages("duplicate")).isEqualTo(duplicates + 1);
+        }
+
+        @Test
+        @DisplayName("claim_success_letsRedeliveryThroughWhileKeyIsProcessing")
+        void claim_success_letsRedeliveryThroughWhileKeyIsProcessing() {
+            String key = UUID.randomUUID().toString();
+            double inFlight = countMessages("in_flight");
+
+            assertThat(sinkDeduplicationService.claim(SinkProducer.TRANSACTION_TOPIC, key)).isTrue();
+            assertThat(sinkDeduplicationService.claim(SinkProducer.TRANSACTION_TOPIC, key)).isTrue();
+
+            assertThat(countMessages("in_flight")).isEqualTo(inFlight + 1);
+        }
+
+        @Test
+        @DisplayName("claim_success_acceptsMessageWithoutKey")
+        void claim_success_acceptsMessageWithoutKey() {
+            assertThat(sinkDeduplicationService.claim(SinkProducer.TRANSACTION_TOPIC, null)).isTrue();
+            assertThat(sinkDeduplicationService.claim(SinkProducer.TRANSACTION_TOPIC, null)).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("release(topic: String, key: String)")
+    class ReleaseTests {
+        @Test
+        @DisplayName("release_success_letsRedeliveryThrough")
+        void release_success_letsRedeliveryThrough() {
+            String key = UUID.randomUUID().toString();
+            sinkDeduplicationService.claim(SinkProducer.TRANSACTION_TOPIC, key);
+            sinkDeduplicationService.complete(SinkProducer.TRANSACTION_TOPIC, key, true);
+
+            sinkDeduplicationService.release(SinkProducer.TRANSACTION_TOPIC, key);
+
+            assertThat(sinkDeduplicationService.claim(SinkProducer.TRANSACTION_TOPIC, key)).isTrue();
+        }
+    }
+}
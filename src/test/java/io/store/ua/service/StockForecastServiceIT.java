@@ -0,0 +1,122 @@
+package io.store.ua.service;
+
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.Product;
+import io.store.ua.entity.StockItem;
+import io.store.ua.entity.Warehouse;
+import io.store.ua.models.data.StockForecast;
+import io.store.ua.models.data.StockItemsLowSupplyMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockForecastServiceIT extends AbstractIT {
+    @Autowired
+    private StockForecastService stockForecastService;
+
+    private Product product;
+    private Warehouse warehouse;
+    private StockItem stockItem;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM stock_forecasts");
+        product = generateProduct();
+        warehouse = generateWarehouse();
+        stockItem = generateStockItem(product.getId(), generateStockItemGroup(true).getId(), warehouse.getId());
+        jdbcTemplate.update("UPDATE stock_items SET available_quantity = 10 WHERE id = ?", stockItem.getId());
+    }
+
+    private void generateOutflow(long soldQuantity, LocalDate date) {
+        insertHistoryRow(stockItem.getId(), BigInteger.valueOf(soldQuantity + 10), BigInteger.TEN, BigInteger.ONE, date);
+    }
+
+    private StockForecast findForecast() {
+        return stockForecastService.findForecasts(warehouse.getId(), null)
+                .stream()
+                .filter(forecast -> forecast.getProductId().equals(product.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private List<StockItemsLowSupplyMessage> forecastWarehouse() {
+        return stockForecastService.forecast()
+                .stream()
+                .filter(message -> message.getWarehouseId().equals(warehouse.getId()))
+                .toList();
+    }
+
+    @Nested
+    @DisplayName("forecast()")
+    class ForecastTests {
+        @Test
+        @DisplayName("forecast_success_storesDaysOfSupplyAndReorderPoint")
+        void forecast_success_storesDaysOfSupplyAndReorderPoint() {
+            generateOutflow(30, LocalDate.now().minusDays(1));
+            generateOutflow(26, LocalDate.now().minusDays(3));
+            generateOutflow(1000, LocalDate.now().minusDays(60));
+
+            stockForecastService.forecast();
+
+            StockForecast forecast = findForecast();
+            assertThat(forecast.getAvailableQuantity())
+                    .isEqualTo(BigInteger.TEN);
+            assertThat(forecast.getAverageDailyOutflow())
+                    .isEqualByComparingTo("2");
+            assertThat(forecast.getDaysOfSupply())
+                    .isEqualByComparingTo("5");
+            assertThat(forecast.getReorderPoint())
+                    .isEqualTo(BigInteger.valueOf(20));
+        }
+
+        @Test
+        @DisplayName("forecast_success_leavesDaysOfSupplyEmptyWithoutOutflow")
+        void forecast_success_leavesDaysOfSupplyEmptyWithoutOutflow() {
+            assertThat(forecastWarehouse())
+                    .isEmpty();
+            assertThat(findForecast().getDaysOfSupply())
+                    .isNull();
+        }
+
+        @Test
+        @DisplayName("forecast_success_pushesOnlyProductsThatJustRanLow")
+        void forecast_success_pushesOnlyProductsThatJustRanLow() {
+            generateOutflow(56, LocalDate.now().minusDays(1));
+
+            assertThat(forecastWarehouse())
+                    .singleElement()
+                    .extracting(StockItemsLowSupplyMessage::getForecasts)
+                    .satisfies(forecasts -> assertThat(forecasts)
+                            .extracting(StockForecast::getProductId)
+                            .containsExactly(product.getId()));
+            assertThat(forecastWarehouse())
+                    .isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("findForecasts(warehouseId: Long, maxDaysOfSupply: BigDecimal)")
+    class FindForecastsTests {
+        @Test
+        @DisplayName("findForecasts_success_filtersByMaxDaysOfSupply")
+        void findForecasts_success_filtersByMaxDaysOfSupply() {
+            generateOutflow(56, LocalDate.now().minusDays(1));
+            stockForecastService.forecast();
+
+            assertThat(stockForecastService.findForecasts(warehouse.getId(), BigDecimal.valueOf(5)))
+                    .extracting(StockForecast::getProductId)
+                    .containsExactly(product.getId());
+            assertThat(stockForecastService.findForecasts(warehouse.getId(), BigDecimal.valueOf(4)))
+                    .isEmpty();
+        }
+    }
+}
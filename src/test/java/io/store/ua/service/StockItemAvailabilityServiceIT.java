@@ -0,0 +1,120 @@
+package io.store.ua.service;
+
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.Product;
+import io.store.ua.entity.StockItem;
+import io.store.ua.entity.StockItemGroup;
+import io.store.ua.entity.Warehouse;
+import io.store.ua.models.data.ProductAvailability;
+import io.store.ua.models.dto.StockItemDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockItemAvailabilityServiceIT extends AbstractIT {
+    @Autowired
+    private StockItemAvailabilityService stockItemAvailabilityService;
+    @Autowired
+    private StockItemService stockItemService;
+
+    private Product product;
+    private StockItemGroup stockItemGroup;
+    private Warehouse warehouseA;
+    private Warehouse warehouseB;
+
+    @BeforeEach
+    void setUp() {
+        product = generateProduct();
+        stockItemGroup = generateStockItemGroup(true);
+        warehouseA = generateWarehouse();
+        warehouseB = generateWarehouse();
+    }
+
+    private StockItem create(Warehouse warehouse, long quantity) {
+        return stockItemService.create(StockItemDTO.builder()
+                .productId(product.getId())
+                .stockItemGroupId(stockItemGroup.getId())
+                .warehouseId(warehouse.getId())
+                .availableQuantity(BigInteger.valueOf(quantity))
+                .build());
+    }
+
+    @Nested
+    @DisplayName("reconcile()")
+    class ReconcileTests {
+        @Test
+        @DisplayName("reconcile_success_sumsActiveBatchesPerWarehouse")
+        void reconcile_success_sumsActiveBatchesPerWarehouse() {
+            StockItem first = generateStockItem(product.getId(), stockItemGroup.getId(), warehouseA.getId());
+            StockItem second = generateStockItem(product.getId(), stockItemGroup.getId(), warehouseA.getId());
+            StockItem inactive = generateStockItem(product.getId(), stockItemGroup.getId(), warehouseB.getId());
+            inactive.setIsActive(false);
+            stockItemRepository.save(inactive);
+
+            stockItemAvailabilityService.reconcile();
+
+            assertThat(stockItemAvailabilityService.findAvailableQuantity(warehouseA.getId(), product.getId()))
+                    .isEqualByComparingTo(first.getAvailableQuantity().add(second.getAvailableQuantity()));
+            assertThat(stockItemAvailabilityService.findAvailableQuantity(warehouseB.getId(), product.getId()))
+                    .isEqualByComparingTo(BigInteger.ZERO);
+            assertThat(stockItemAvailabilityService.findAvailability(product.getId(), null))
+                    .extracting(ProductAvailability::warehouseId)
+                    .containsExactly(warehouseA.getId());
+        }
+    }
+
+    @Nested
+    @DisplayName("registerChange(before: ProductAvailability, after: ProductAvailability)")
+    class RegisterChangeTests {
+        @Test
+        @DisplayName("registerChange_success_followsCreateUpdateAndQuantityChanges")
+        void registerChange_success_followsCreateUpdateAndQuantityChanges() {
+            stockItemAvailabilityService.reconcile();
+
+            StockItem stockItem = create(warehouseA, 10);
+            create(warehouseB, 4);
+
+            assertThat(stockItemAvailabilityService.findAvailableQuantity(warehouseA.getId(), product.getId()))
+                    .isEqualByComparingTo(BigInteger.TEN);
+
+            stockItemService.decreaseAvailableQuantity(stockItem.getId(), BigInteger.valueOf(3));
+
+            assertThat(stockItemAvailabilityService.findAvailableQuantity(warehouseA.getId(), product.getId()))
+                    .isEqualByComparingTo(BigInteger.valueOf(7));
+
+            stockItemService.update(StockItemDTO.builder()
+                    .stockItemId(stockItem.getId())
+                    .switchOff(true)
+                    .build());
+
+            assertThat(stockItemAvailabilityService.findAvailability(product.getId(), List.of(warehouseA.getId(), warehouseB.getId())))
+                    .containsExactly(new ProductAvailability(warehouseA.getId(), product.getId(), BigInteger.ZERO),
+                            new ProductAvailability(warehouseB.getId(), product.getId(), BigInteger.valueOf(4)));
+        }
+
+        @Test
+        @DisplayName("registerChange_success_keepsSignedSumWhenChangesArriveOutOfOrder")
+        void registerChange_success_keepsSignedSumWhenChangesArriveOutOfOrder() {
+            stockItemAvailabilityService.reconcile();
+
+            stockItemAvailabilityService.registerChange(new ProductAvailability(warehouseA.getId(), product.getId(), BigInteger.valueOf(6)), null);
+
+            assertThat(stockItemAvailabilityService.findAvailableQuantity(warehouseA.getId(), product.getId()))
+                    .isEqualByComparingTo(BigInteger.ZERO);
+            assertThat(stockItemAvailabilityService.findAvailability(product.getId(), null))
+                    .isEmpty();
+
+            stockItemAvailabilityService.registerChange(null, new ProductAvailability(warehouseA.getId(), product.getId(), BigInteger.TEN));
+
+            assertThat(stockItemAvailabilityService.findAvailableQuantity(warehouseA.getId(), product.getId()))
+                    .isEqualByComparingTo(BigInteger.valueOf(4));
+        }
+    }
+}
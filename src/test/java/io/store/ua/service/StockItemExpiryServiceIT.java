@@ -0,0 +1,136 @@
+package io.store.ua.service;
+
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.Product;
+import io.store.ua.entity.StockItem;
+import io.store.ua.entity.StockItemGroup;
+import io.store.ua.entity.Warehouse;
+import io.store.ua.entity.immutable.StockItemHistory;
+import io.store.ua.enums.StockItemStatus;
+import io.store.ua.models.data.StockItemsExpiredMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class StockItemExpiryServiceIT extends AbstractIT {
+    @Autowired
+    private StockItemExpiryService stockItemExpiryService;
+    @Autowired
+    private StockItemAvailabilityService stockItemAvailabilityService;
+
+    private Product product;
+    private StockItemGroup stockItemGroup;
+    private Warehouse warehouseA;
+    private Warehouse warehouseB;
+
+    @BeforeEach
+    void setUp() {
+        product = generateProduct();
+        stockItemGroup = generateStockItemGroup(true);
+        warehouseA = generateWarehouse();
+        warehouseB = generateWarehouse();
+    }
+
+    private StockItem generateStockItem(Warehouse warehouse, LocalDate expiryDate, StockItemStatus status) {
+        StockItem stockItem = generateStockItem(product.getId(), stockItemGroup.getId(), warehouse.getId());
+        stockItem.setExpiryDate(expiryDate);
+        stockItem.setStatus(status);
+
+        return stockItemRepository.save(stockItem);
+    }
+
+    @Nested
+    @DisplayName("sweep(horizonDays: int)")
+    class SweepTests {
+        @Test
+        @DisplayName("sweep_success_takesExpiredOutOfServiceAndAggregatesPerWarehouse")
+        void sweep_success_takesExpiredOutOfServiceAndAggregatesPerWarehouse() {
+            LocalDate today = LocalDate.now();
+            StockItem firstExpired = generateStockItem(warehouseA, today.minusDays(3), StockItemStatus.AVAILABLE);
+            StockItem secondExpired = generateStockItem(warehouseA, today.minusDays(1), StockItemStatus.OUT_OF_STOCK);
+            StockItem thirdExpired = generateStockItem(warehouseB, today.minusDays(10), StockItemStatus.AVAILABLE);
+            StockItem fresh = generateStockItem(warehouseB, today.plusDays(5), StockItemStatus.AVAILABLE);
+            StockItem alreadyOutOfService = generateStockItem(warehouseB, today.minusDays(2), StockItemStatus.OUT_OF_SERVICE);
+
+            List<StockItemsExpiredMessage> messages = stockItemExpiryService.sweep(0);
+
+            assertThat(messages)
+                    .extracting(StockItemsExpiredMessage::getWarehouseId, StockItemsExpiredMessage::getExpiredCount)
+                    .containsExactlyInAnyOrder(
+                            tuple(warehouseA.getId(), 2L),
+                            tuple(warehouseB.getId(), 1L));
+            assertThat(stockItemRepository.findAllById(List.of(firstExpired.getId(), secondExpired.getId(), thirdExpired.getId())))
+                    .allMatch(stockItem -> stockItem.getStatus() == StockItemStatus.OUT_OF_SERVICE);
+            assertThat(stockItemRepository.findById(fresh.getId()).orElseThrow().getStatus())
+                    .isEqualTo(StockItemStatus.AVAILABLE);
+
+            List<StockItemHistory> history = stockItemHistoryRepository.findAll();
+
+            assertThat(history)
+                    .extracting(StockItemHistory::getStockItemId)
+                    .containsExactlyInAnyOrder(firstExpired.getId(), secondExpired.getId(), thirdExpired.getId())
+                    .doesNotContain(alreadyOutOfService.getId());
+            assertThat(history)
+                    .allMatch(entry -> entry.getNewStatus() == StockItemStatus.OUT_OF_SERVICE)
+                    .allMatch(entry -> entry.getTitle().equals(product.getTitle()));
+        }
+
+        @Test
+        @DisplayName("sweep_success_horizonReportsSoonExpiringAndKeepsThemInService")
+        void sweep_success_horizonReportsSoonExpiringAndKeepsThemInService() {
+            LocalDate today = LocalDate.now();
+            StockItem expired = generateStockItem(warehouseA, today.minusDays(1), StockItemStatus.AVAILABLE);
+            StockItem soonExpiring = generateStockItem(warehouseA, today.plusDays(2), StockItemStatus.AVAILABLE);
+            StockItem expiringToday = generateStockItem(warehouseB, today, StockItemStatus.AVAILABLE);
+            StockItem later = generateStockItem(warehouseA, today.plusDays(30), StockItemStatus.AVAILABLE);
+
+            List<StockItemsExpiredMessage> messages = stockItemExpiryService.sweep(7);
+
+            assertThat(messages)
+                    .extracting(StockItemsExpiredMessage::getWarehouseId,
+                            StockItemsExpiredMessage::getExpiredCount,
+                            StockItemsExpiredMessage::getExpiringCount)
+                    .containsExactlyInAnyOrder(
+                            tuple(warehouseA.getId(), 1L, 1L),
+                            tuple(warehouseB.getId(), 0L, 1L));
+            assertThat(stockItemRepository.findById(expired.getId()).orElseThrow().getStatus())
+                    .isEqualTo(StockItemStatus.OUT_OF_SERVICE);
+            assertThat(stockItemRepository.findAllById(List.of(soonExpiring.getId(), expiringToday.getId(), later.getId())))
+                    .allMatch(stockItem -> stockItem.getStatus() == StockItemStatus.AVAILABLE);
+            assertThat(stockItemHistoryRepository.findAll())
+                    .extracting(StockItemHistory::getStockItemId)
+                    .containsExactly(expired.getId());
+        }
+
+        @Test
+        @DisplayName("sweep_success_releasesAvailability")
+        void sweep_success_releasesAvailability() {
+            LocalDate today = LocalDate.now();
+            generateStockItem(warehouseA, today.minusDays(1), StockItemStatus.AVAILABLE);
+            StockItem fresh = generateStockItem(warehouseA, today.plusDays(10), StockItemStatus.AVAILABLE);
+            stockItemAvailabilityService.reconcile();
+
+            stockItemExpiryService.sweep(0);
+
+            assertThat(stockItemAvailabilityService.findAvailableQuantity(warehouseA.getId(), product.getId()))
+                    .isEqualByComparingTo(fresh.getAvailableQuantity());
+        }
+
+        @Test
+        @DisplayName("sweep_success_nothingExpired_pushesNothing")
+        void sweep_success_nothingExpired_pushesNothing() {
+            generateStockItem(warehouseA, LocalDate.now().plusDays(3), StockItemStatus.AVAILABLE);
+
+            assertThat(stockItemExpiryService.sweep(0)).isEmpty();
+            assertThat(stockItemHistoryRepository.count()).isZero();
+        }
+    }
+}
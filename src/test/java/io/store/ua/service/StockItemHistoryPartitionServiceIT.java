@@ -0,0 +1,98 @@
+package io.store.ua.service;
+
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.Product;
+import io.store.ua.entity.StockItem;
+import io.store.ua.entity.immutable.StockItemHistory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockItemHistoryPartitionServiceIT extends AbstractIT {
+    @Autowired
+    private StockItemHistoryPartitionService stockItemHistoryPartitionService;
+
+    private Product product;
+    private StockItem stockItem;
+
+    @BeforeEach
+    void setUp() {
+        product = generateProduct();
+        stockItem = generateStockItem(product.getId(), generateStockItemGroup(true).getId(), generateWarehouse().getId());
+    }
+
+    private StockItemHistory generateHistory(LocalDateTime loggedAt) {
+        return stockItemHistoryRepository.save(StockItemHistory.builder()
+                .stockItemId(stockItem.getId())
+                .title(product.getTitle())
+                .currentProductPrice(product.getPrice())
+                .currency(product.getCurrency())
+                .quantityBefore(BigInteger.TEN)
+                .quantityAfter(BigInteger.ONE)
+                .loggedAt(loggedAt)
+                .build());
+    }
+
+    private String findPartition(StockItemHistory stockItemHistory) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::REGCLASS::TEXT FROM stock_item_history WHERE id = ?",
+                String.class,
+                stockItemHistory.getId());
+    }
+
+    @Nested
+    @DisplayName("createPartitions(from: LocalDate, to: LocalDate)")
+    class CreatePartitionsTests {
+        @Test
+        @DisplayName("createPartitions_success_currentMonthIsPartitioned")
+        void createPartitions_success_currentMonthIsPartitioned() {
+            StockItemHistory stockItemHistory = generateHistory(LocalDateTime.now());
+
+            assertThat(findPartition(stockItemHistory))
+                    .isEqualTo("stock_item_history_%s".formatted(LocalDate.now().toString().substring(0, 7).replace('-', '_')));
+        }
+
+        @Test
+        @DisplayName("createPartitions_success_movesRowsOutOfDefaultPartition")
+        void createPartitions_success_movesRowsOutOfDefaultPartition() {
+            StockItemHistory stockItemHistory = generateHistory(LocalDateTime.of(2090, 5, 10, 12, 0));
+
+            assertThat(findPartition(stockItemHistory))
+                    .isEqualTo("stock_item_history_default");
+            assertThat(stockItemHistoryPartitionService.createPartitions(LocalDate.of(2090, 5, 1), LocalDate.of(2090, 5, 31)))
+                    .isEqualTo(1);
+            assertThat(findPartition(stockItemHistory))
+                    .isEqualTo("stock_item_history_2090_05");
+            assertThat(stockItemHistoryPartitionService.createPartitions(LocalDate.of(2090, 5, 1), LocalDate.of(2090, 5, 31)))
+                    .isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("detachPartitions(cutoff: LocalDate)")
+    class DetachPartitionsTests {
+        @Test
+        @DisplayName("detachPartitions_success_detachesOldMonthsOnly")
+        void detachPartitions_success_detachesOldMonthsOnly() {
+            StockItemHistory old = generateHistory(LocalDateTime.of(1995, 3, 10, 8, 0));
+            StockItemHistory recent = generateHistory(LocalDateTime.of(1995, 4, 2, 8, 0));
+            stockItemHistoryPartitionService.createPartitions(LocalDate.of(1995, 3, 1), LocalDate.of(1995, 4, 1));
+
+            assertThat(stockItemHistoryPartitionService.detachPartitions(LocalDate.of(1995, 4, 1)))
+                    .containsExactly("stock_item_history_1995_03");
+            assertThat(stockItemHistoryRepository.findById(old.getId()))
+                    .isEmpty();
+            assertThat(stockItemHistoryRepository.findById(recent.getId()))
+                    .isPresent();
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM archived_stock_item_history_1995_03", Long.class))
+                    .isEqualTo(1);
+        }
+    }
+}
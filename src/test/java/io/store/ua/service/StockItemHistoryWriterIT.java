@@ -0,0 +1,167 @@
+package io.store.ua.service;
+
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.Product;
+import io.store.ua.entity.StockItem;
+import io.store.ua.entity.immutable.StockItemHistory;
+import io.store.ua.enums.StockItemStatus;
+import io.store.ua.models.dto.StockItemDTO;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestPropertySource(properties = {
+        "stockItem.history.writeBehind.enabled=true",
+        "stockItem.history.writeBehind.recoveryMinAgeSeconds=3600"
+})
+class StockItemHistoryWriterIT extends AbstractIT {
+    @Autowired
+    private StockItemHistoryWriter stockItemHistoryWriter;
+    @Autowired
+    private StockItemService stockItemService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Product product;
+    private StockItem stockItem;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM stock_item_history_outbox");
+        product = generateProduct();
+        stockItem = generateStockItem(product.getId(), generateStockItemGroup(true).getId(), generateWarehouse().getId());
+    }
+
+    private long countOutbox() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_item_history_outbox", Long.class);
+    }
+
+    private StockItemHistory buildHistory() {
+        return StockItemHistory.builder()
+                .stockItemId(stockItem.getId())
+                .title(product.getTitle())
+                .currentProductPrice(product.getPrice())
+                .currency(product.getCurrency())
+                .loggedAt(LocalDateTime.now())
+                .oldStatus(StockItemStatus.AVAILABLE)
+                .newStatus(StockItemStatus.OUT_OF_SERVICE)
+                .build();
+    }
+
+    private void insertOutboxRow() {
+        jdbcTemplate.update("""
+                        INSERT INTO stock_item_history_outbox (stock_item_id, title, current_product_price, currency, logged_at, old_status, new_status)
+                        VALUES (?, ?, ?, ?, ?, ?, ?)
+                        """,
+                stockItem.getId(),
+                product.getTitle(),
+                product.getPrice().longValueExact(),
+                product.getCurrency(),
+                LocalDateTime.now(),
+                StockItemStatus.AVAILABLE.name(),
+                StockItemStatus.OUT_OF_SERVICE.name());
+    }
+
+    @Nested
+    @DisplayName("enqueue(stockItemHistory: StockItemHistory)")
+    class EnqueueTests {
+        @Test
+        @DisplayName("enqueue_success_writerMovesRowsToHistory")
+        void enqueue_success_writerMovesRowsToHistory() {
+            stockItemService.update(StockItemDTO.builder()
+                    .stockItemId(stockItem.getId())
+                    .availableQuantity(stockItem.getAvailableQuantity().add(BigInteger.TEN))
+                    .build());
+
+            Awaitility.await()
+                    .atMost(Duration.ofSeconds(10))
+                    .pollInterval(Duration.ofMillis(100))
+                    .untilAsserted(() -> assertThat(stockItemHistoryRepository.countByStockItemId(stockItem.getId()))
+                            .isEqualTo(1));
+
+            StockItemHistory history = stockItemHistoryRepository.findAll().getFirst();
+
+            assertThat(history.getTitle())
+                    .isEqualTo(product.getTitle());
+            assertThat(history.getQuantityAfter())
+                    .isEqualTo(stockItem.getAvailableQuantity().add(BigInteger.TEN));
+            assertThat(countOutbox())
+                    .isZero();
+        }
+
+        @Test
+        @DisplayName("enqueue_success_rollsBackWithCallerTransaction")
+        void enqueue_success_rollsBackWithCallerTransaction() {
+            transactionTemplate.executeWithoutResult(status -> {
+                stockItemHistoryWriter.enqueue(buildHistory());
+
+                assertThat(countOutbox())
+                        .isEqualTo(1);
+
+                status.setRollbackOnly();
+            });
+
+            assertThat(countOutbox())
+                    .isZero();
+            Awaitility.await()
+                    .during(Duration.ofMillis(500))
+                    .atMost(Duration.ofSeconds(1))
+                    .untilAsserted(() -> assertThat(stockItemHistoryRepository.countByStockItemId(stockItem.getId()))
+                            .isZero());
+        }
+
+        @Test
+        @DisplayName("enqueue_fails_whenOutboxRowCantBeWritten")
+        void enqueue_fails_whenOutboxRowCantBeWritten() {
+            StockItemHistory stockItemHistory = buildHistory();
+            stockItemHistory.setTitle(null);
+
+            assertThatThrownBy(() -> stockItemHistoryWriter.enqueue(stockItemHistory))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+            assertThat(countOutbox())
+                    .isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("recover(minAgeSeconds: long)")
+    class RecoverTests {
+        @Test
+        @DisplayName("recover_success_movesRowsLeftInOutbox")
+        void recover_success_movesRowsLeftInOutbox() {
+            insertOutboxRow();
+
+            assertThat(stockItemHistoryWriter.recover(0))
+                    .isEqualTo(1);
+            assertThat(countOutbox())
+                    .isZero();
+            assertThat(stockItemHistoryRepository.findAll())
+                    .singleElement()
+                    .satisfies(history -> assertThat(history.getNewStatus()).isEqualTo(StockItemStatus.OUT_OF_SERVICE));
+        }
+
+        @Test
+        @DisplayName("recover_success_skipsRowsYoungerThanMinAge")
+        void recover_success_skipsRowsYoungerThanMinAge() {
+            insertOutboxRow();
+
+            assertThat(stockItemHistoryWriter.recover(3600))
+                    .isZero();
+            assertThat(countOutbox())
+                    .isEqualTo(1);
+        }
+    }
+}
@@ -6,7 +6,11 @@ import io.store.ua.entity.immutable.StockItemHistory;
 import io.store.ua.enums.StockItemStatus;
 import io.store.ua.exceptions.BusinessException;
 import io.store.ua.exceptions.NotFoundException;
+import io.store.ua.models.data.StockItemQuantityChange;
+import io.store.ua.models.data.StockItemSummary;
+import io.store.ua.models.data.StockItemSummaryVersionGroup;
 import io.store.ua.models.data.StockItemVersionGroup;
+import io.store.ua.models.dto.StockItemActionResultDTO;
 import io.store.ua.models.dto.StockItemDTO;
 import io.store.ua.utility.CodeGenerator;
 import jakarta.validation.ValidationException;
@@ -23,6 +27,11 @@ import java.math.BigInteger;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -409,9 +418,124 @@ class StockItemServiceIT extends AbstractIT {
                     .extracting(StockItem::getId)
                     .containsExactly(otherVersion.getId());
         }
+
+        @Test
+        @DisplayName("findVersionBatch_success_pagesOverWholeGroups")
+        void findVersionBatch_success_pagesOverWholeGroups() {
+            List<StockItem> productAVersions = IntStream.range(0, 3)
+                    .mapToObj(i -> generateStockItem(productA, stockItemGroupA, warehouseA, true, i + 1, null))
+                    .toList();
+            StockItem productBVersion = generateStockItem(productB, stockItemGroupA, warehouseA, true, 1, null);
+
+            List<StockItemVersionGroup> firstPage = stockItemService.findVersionBatch(List.of(warehouseA.getId()),
+                    List.of(productA.getId(), productB.getId()),
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    1,
+                    1);
+            List<StockItemVersionGroup> secondPage = stockItemService.findVersionBatch(List.of(warehouseA.getId()),
+                    List.of(productA.getId(), productB.getId()),
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    1,
+                    2);
+
+            StockItemVersionGroup productAGroup = productA.getId() < productB.getId() ? firstPage.getFirst() : secondPage.getFirst();
+            StockItemVersionGroup productBGroup = productA.getId() < productB.getId() ? secondPage.getFirst() : firstPage.getFirst();
+
+            assertThat(firstPage).hasSize(1);
+            assertThat(secondPage).hasSize(1);
+            assertThat(productAGroup.baseVersion().getId())
+                    .isEqualTo(productAVersions.getFirst().getId());
+            assertThat(productAGroup.otherVersions())
+                    .extracting(StockItem::getId)
+                    .containsExactly(productAVersions.get(1).getId(), productAVersions.get(2).getId());
+            assertThat(productBGroup.baseVersion().getId())
+                    .isEqualTo(productBVersion.getId());
+            assertThat(productBGroup.otherVersions())
+                    .isEmpty();
+        }
     }
 
 
+    @Nested
+    @DisplayName("findSummaryBy(...) / findSummaryVersionBatch(...)")
+    class FindSummaryTests {
+        @Test
+        @DisplayName("findSummaryBy_success_returnsFlatRowsWithProductCodeAndTitle")
+        void findSummaryBy_success_returnsFlatRowsWithProductCodeAndTitle() {
+            StockItem stockItem = generateStockItem(productA, stockItemGroupA, warehouseA, true, 7, section0WarehouseA.getId());
+            generateStockItem(productB, stockItemGroupA, warehouseB, true, 3, null);
+
+            List<StockItemSummary> summaries = stockItemService.findSummaryBy(List.of(warehouseA.getId()),
+                    null,
+                    null,
+                    List.of(StockItemStatus.AVAILABLE.name()),
+                    null,
+                    null,
+                    true,
+                    true,
+                    null,
+                    20,
+                    1);
+
+            assertThat(summaries)
+                    .singleElement()
+                    .satisfies(summary -> {
+                        assertThat(summary.id()).isEqualTo(stockItem.getId());
+                        assertThat(summary.code()).isEqualTo(stockItem.getCode());
+                        assertThat(summary.productCode()).isEqualTo(productA.getCode());
+                        assertThat(summary.productTitle()).isEqualTo(productA.getTitle());
+                        assertThat(summary.storageSectionId()).isEqualTo(section0WarehouseA.getId());
+                        assertThat(summary.availableQuantity()).isEqualByComparingTo(BigInteger.valueOf(7));
+                        assertThat(summary.status()).isEqualTo(StockItemStatus.AVAILABLE);
+                    });
+        }
+
+        @Test
+        @DisplayName("findSummaryVersionBatch_success_groupsByProductAndWarehouse")
+        void findSummaryVersionBatch_success_groupsByProductAndWarehouse() {
+            StockItem baseVersion = generateStockItem(productA, stockItemGroupA, warehouseA, true, 1, null);
+            StockItem secondVersion = generateStockItem(productA, stockItemGroupA, warehouseA, true, 2, null);
+            StockItem otherProduct = generateStockItem(productB, stockItemGroupA, warehouseA, true, 3, null);
+
+            List<StockItemSummaryVersionGroup> groups = stockItemService.findSummaryVersionBatch(List.of(warehouseA.getId()),
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    20,
+                    1);
+
+            assertThat(groups)
+                    .hasSize(2);
+            assertThat(groups)
+                    .filteredOn(group -> group.baseVersion().productId().equals(productA.getId()))
+                    .singleElement()
+                    .satisfies(group -> {
+                        assertThat(group.baseVersion().id()).isEqualTo(baseVersion.getId());
+                        assertThat(group.otherVersions())
+                                .extracting(StockItemSummary::id)
+                                .containsExactly(secondVersion.getId());
+                    });
+            assertThat(groups)
+                    .filteredOn(group -> group.baseVersion().productId().equals(productB.getId()))
+                    .singleElement()
+                    .satisfies(group -> assertThat(group.baseVersion().id()).isEqualTo(otherProduct.getId()));
+        }
+    }
+
     @Nested
     @DisplayName("findById(id: Long)")
     class FindByIdTests {
@@ -492,6 +616,31 @@ class StockItemServiceIT extends AbstractIT {
                     .isEqualTo(section1WarehouseA.getId());
         }
 
+        @Test
+        @DisplayName("create_success_concurrentCreatesGetDistinctBatchVersions")
+        void create_success_concurrentCreatesGetDistinctBatchVersions() {
+            generateStockItem(productC, stockItemGroupA, warehouseC, true, 1, null);
+
+            ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+            try {
+                List<CompletableFuture<StockItem>> futures = IntStream.range(0, 16)
+                        .mapToObj(i -> CompletableFuture.supplyAsync(() -> stockItemService.create(StockItemDTO.builder()
+                                .productId(productC.getId())
+                                .stockItemGroupId(stockItemGroupA.getId())
+                                .warehouseId(warehouseC.getId())
+                                .availableQuantity(BigInteger.ONE)
+                                .build()), executorService))
+                        .toList();
+
+                assertThat(futures.stream().map(CompletableFuture::join).map(StockItem::getBatchVersion))
+                        .doesNotHaveDuplicates()
+                        .containsExactlyInAnyOrderElementsOf(LongStream.rangeClosed(2, 17).boxed().toList());
+            } finally {
+                executorService.shutdownNow();
+            }
+        }
+
         @Test
         @DisplayName("create_fails_whenNullPayload")
         void create_fails_whenNullPayload() {
@@ -500,6 +649,94 @@ class StockItemServiceIT extends AbstractIT {
         }
     }
 
+    @Nested
+    @DisplayName("createAll(stockItemDTOs: List<StockItemDTO>)")
+    class CreateAllTests {
+        @Test
+        @DisplayName("createAll_success_insertsRowsAndAllocatesBatchVersions")
+        void createAll_success_insertsRowsAndAllocatesBatchVersions() {
+            generateStockItem(productA, stockItemGroupA, warehouseA, true, 5, null);
+
+            List<StockItemDTO> stockItemDTOs = IntStream.range(0, 3)
+                    .mapToObj(i -> StockItemDTO.builder()
+                            .productId(productA.getId())
+                            .stockItemGroupId(stockItemGroupA.getId())
+                            .warehouseId(warehouseA.getId())
+                            .availableQuantity(BigInteger.valueOf(i))
+                            .storageSectionId(section0WarehouseA.getId())
+                            .build())
+                    .toList();
+
+            List<StockItemActionResultDTO> results = stockItemService.createAll(stockItemDTOs);
+
+            assertThat(results)
+                    .hasSize(3)
+                    .allMatch(StockItemActionResultDTO::getSuccess);
+            assertThat(results)
+                    .extracting(result -> result.getStockItem().getBatchVersion())
+                    .containsExactly(2L, 3L, 4L);
+            assertThat(results.getFirst().getStockItem().getStatus())
+                    .isEqualTo(StockItemStatus.OUT_OF_STOCK);
+
+            StockItem persisted = stockItemRepository.findById(results.getLast().getStockItem().getId())
+                    .orElseThrow();
+
+            assertThat(persisted.getAvailableQuantity())
+                    .isEqualByComparingTo(BigInteger.TWO);
+            assertThat(persisted.getStorageSectionId())
+                    .isEqualTo(section0WarehouseA.getId());
+            assertThat(stockItemRepository.countStockItemByProductIdAndWarehouseId(productA.getId(), warehouseA.getId()))
+                    .isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("createAll_success_reportsFailedRowsAndInsertsOthers")
+        void createAll_success_reportsFailedRowsAndInsertsOthers() {
+            StockItemDTO valid = StockItemDTO.builder()
+                    .productId(productB.getId())
+                    .stockItemGroupId(stockItemGroupB.getId())
+                    .warehouseId(warehouseB.getId())
+                    .availableQuantity(BigInteger.TEN)
+                    .build();
+            StockItemDTO missingQuantity = StockItemDTO.builder()
+                    .productId(productB.getId())
+                    .stockItemGroupId(stockItemGroupB.getId())
+                    .warehouseId(warehouseB.getId())
+                    .build();
+            StockItemDTO foreignSection = StockItemDTO.builder()
+                    .productId(productB.getId())
+                    .stockItemGroupId(stockItemGroupB.getId())
+                    .warehouseId(warehouseB.getId())
+                    .availableQuantity(BigInteger.ONE)
+                    .storageSectionId(section0WarehouseA.getId())
+                    .build();
+            StockItemDTO unknownProduct = StockItemDTO.builder()
+                    .productId(Long.MAX_VALUE)
+                    .stockItemGroupId(stockItemGroupB.getId())
+                    .warehouseId(warehouseB.getId())
+                    .availableQuantity(BigInteger.ONE)
+                    .build();
+
+            List<StockItemActionResultDTO> results = stockItemService.createAll(Arrays.asList(valid, missingQuantity, null, foreignSection, unknownProduct));
+
+            assertThat(results)
+                    .extracting(StockItemActionResultDTO::getSuccess)
+                    .containsExactly(true, false, false, false, false);
+            assertThat(results.get(1).getError())
+                    .isInstanceOf(ValidationException.class);
+            assertThat(results.get(2).getError())
+                    .isInstanceOf(ValidationException.class);
+            assertThat(results.get(3).getError())
+                    .isInstanceOf(BusinessException.class);
+            assertThat(results.get(4).getError())
+                    .isInstanceOf(NotFoundException.class);
+            assertThat(results.getFirst().getStockItem().getBatchVersion())
+                    .isEqualTo(1L);
+            assertThat(stockItemRepository.countStockItemByProductIdAndWarehouseId(productB.getId(), warehouseB.getId()))
+                    .isEqualTo(1);
+        }
+    }
+
     @Nested
     @DisplayName("update(stockItemDTO: StockItemDTO)")
     class UpdateTests {
@@ -1010,4 +1247,242 @@ class StockItemServiceIT extends AbstractIT {
                     .isEqualTo(BigInteger.valueOf(9));
         }
     }
+
+    @Nested
+    @DisplayName("decreaseAvailableQuantity(stockItemId: Long, quantity: BigInteger)")
+    class DecreaseAvailableQuantityTests {
+        @Test
+        @DisplayName("decreaseAvailableQuantity_success_decrementsQuantity_and_historyCreated")
+        void decreaseAvailableQuantity_success_decrementsQuantity_and_historyCreated() {
+            StockItem stockItem = generateStockItem(productA,
+                    stockItemGroupA,
+                    warehouseA,
+                    true,
+                    10,
+                    null);
+
+            StockItemQuantityChange quantityChange = stockItemService.decreaseAvailableQuantity(stockItem.getId(), BigInteger.valueOf(4));
+
+            StockItem updated = stockItemRepository.findById(stockItem.getId()).orElseThrow();
+            StockItemHistory stockItemHistory = fetchLatestHistory(stockItem.getId());
+
+            assertThat(quantityChange.quantityBefore())
+                    .isEqualTo(BigInteger.valueOf(10));
+            assertThat(quantityChange.quantityAfter())
+                    .isEqualTo(BigInteger.valueOf(6));
+            assertThat(updated.getAvailableQuantity())
+                    .isEqualByComparingTo(BigInteger.valueOf(6));
+            assertThat(updated.getVersion())
+                    .isGreaterThan(stockItem.getVersion());
+            assertThat(stockItemHistory.getQuantityBefore())
+                    .isEqualTo(BigInteger.valueOf(10));
+            assertThat(stockItemHistory.getQuantityAfter())
+                    .isEqualTo(BigInteger.valueOf(6));
+        }
+
+        @Test
+        @DisplayName("decreaseAvailableQuantity_success_toZero_setsOutOfStock")
+        void decreaseAvailableQuantity_success_toZero_setsOutOfStock() {
+            StockItem stockItem = generateStockItem(productA,
+                    stockItemGroupA,
+                    warehouseA,
+                    true,
+                    3,
+                    null);
+
+            StockItemQuantityChange quantityChange = stockItemService.decreaseAvailableQuantity(stockItem.getId(), BigInteger.valueOf(3));
+
+            assertThat(quantityChange.isOutOfStock())
+                    .isTrue();
+            assertThat(stockItemRepository.findById(stockItem.getId()).orElseThrow().getStatus())
+                    .isEqualTo(StockItemStatus.OUT_OF_STOCK);
+        }
+
+        @Test
+        @DisplayName("decreaseAvailableQuantity_success_concurrentDecrements_noLostUpdates")
+        void decreaseAvailableQuantity_success_concurrentDecrements_noLostUpdates() {
+            int threads = 64;
+            StockItem stockItem = generateStockItem(productA,
+                    stockItemGroupA,
+                    warehouseA,
+                    true,
+                    threads / 2,
+                    null);
+
+            ExecutorService executorService = Executors.newFixedThreadPool(16);
+            List<CompletableFuture<Boolean>> futures = IntStream.range(0, threads)
+                    .mapToObj(ignore -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            stockItemService.decreaseAvailableQuantity(stockItem.getId(), BigInteger.ONE);
+                            return true;
+                        } catch (BusinessException e) {
+                            return false;
+                        }
+                    }, executorService))
+                    .toList();
+
+            long succeeded = futures.stream().filter(CompletableFuture::join).count();
+            executorService.shutdown();
+
+            assertThat(succeeded)
+                    .isEqualTo(threads / 2);
+            assertThat(stockItemRepository.findById(stockItem.getId()).orElseThrow().getAvailableQuantity())
+                    .isEqualByComparingTo(BigInteger.ZERO);
+        }
+
+        @Test
+        @DisplayName("decreaseAvailableQuantity_fails_whenQuantityGreaterThanAvailable")
+        void decreaseAvailableQuantity_fails_whenQuantityGreaterThanAvailable() {
+            StockItem stockItem = generateStockItem(productA,
+                    stockItemGroupA,
+                    warehouseA,
+                    true,
+                    2,
+                    null);
+
+            assertThatThrownBy(() -> stockItemService.decreaseAvailableQuantity(stockItem.getId(), BigInteger.valueOf(3)))
+                    .isInstanceOf(BusinessException.class);
+            assertThat(stockItemRepository.findById(stockItem.getId()).orElseThrow().getAvailableQuantity())
+                    .isEqualByComparingTo(BigInteger.valueOf(2));
+        }
+
+        @Test
+        @DisplayName("decreaseAvailableQuantity_fails_whenItemNotFound")
+        void decreaseAvailableQuantity_fails_whenItemNotFound() {
+            assertThatThrownBy(() -> stockItemService.decreaseAvailableQuantity(Long.MAX_VALUE, BigInteger.ONE))
+                    .isInstanceOf(NotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("adjustAvailableQuantities(stockItemDTOs: List<StockItemDTO>)")
+    class AdjustAvailableQuantitiesTests {
+        private StockItemDTO count(StockItem stockItem, long quantity) {
+            return StockItemDTO.builder()
+                    .stockItemId(stockItem.getId())
+                    .availableQuantity(BigInteger.valueOf(quantity))
+                    .build();
+        }
+
+        @Test
+        @DisplayName("adjustAvailableQuantities_success_updatesChangedRowsAndWritesHistory")
+        void adjustAvailableQuantities_success_updatesChangedRowsAndWritesHistory() {
+            StockItem increased = generateStockItem(productA, stockItemGroupA, warehouseA, true, 5, null);
+            StockItem emptied = generateStockItem(productA, stockItemGroupA, warehouseA, true, 7, null);
+            StockItem unchanged = generateStockItem(productB, stockItemGroupA, warehouseB, true, 3, null);
+            StockItem refilled = generateStockItem(productB, stockItemGroupA, warehouseB, true, 0, null);
+
+            List<StockItemQuantityChange> quantityChanges = stockItemService.adjustAvailableQuantities(List.of(count(increased, 12),
+                    count(emptied, 0),
+                    count(unchanged, 3),
+                    count(refilled, 4)));
+
+            assertThat(quantityChanges)
+                    .extracting(StockItemQuantityChange::stockItemId)
+                    .containsExactlyInAnyOrder(increased.getId(), emptied.getId(), refilled.getId());
+            assertThat(quantityChanges)
+                    .filteredOn(StockItemQuantityChange::isOutOfStock)
+                    .extracting(StockItemQuantityChange::stockItemId)
+                    .containsExactly(emptied.getId());
+
+            StockItem persistedEmptied = stockItemRepository.findById(emptied.getId()).orElseThrow();
+            StockItem persistedRefilled = stockItemRepository.findById(refilled.getId()).orElseThrow();
+
+            assertThat(stockItemRepository.findById(increased.getId()).orElseThrow().getAvailableQuantity())
+                    .isEqualByComparingTo(BigInteger.valueOf(12));
+            assertThat(persistedEmptied.getStatus())
+                    .isEqualTo(StockItemStatus.OUT_OF_STOCK);
+            assertThat(persistedEmptied.getVersion())
+                    .isGreaterThan(emptied.getVersion());
+            assertThat(persistedRefilled.getStatus())
+                    .isEqualTo(StockItemStatus.AVAILABLE);
+            assertThat(fetchHistoryCount(unchanged.getId()))
+                    .isZero();
+
+            StockItemHistory history = fetchLatestHistory(emptied.getId());
+
+            assertThat(history.getQuantityBefore())
+                    .isEqualTo(BigInteger.valueOf(7));
+            assertThat(history.getQuantityAfter())
+                    .isEqualTo(BigInteger.ZERO);
+            assertThat(history.getNewStatus())
+                    .isEqualTo(StockItemStatus.OUT_OF_STOCK);
+            assertThat(history.getTitle())
+                    .isEqualTo(productA.getTitle());
+        }
+
+        @Test
+        @DisplayName("adjustAvailableQuantities_success_keepsOutOfServiceStatus")
+        void adjustAvailableQuantities_success_keepsOutOfServiceStatus() {
+            StockItem stockItem = generateStockItem(productA, stockItemGroupA, warehouseA, true, 5, null);
+            stockItem.setStatus(StockItemStatus.OUT_OF_SERVICE);
+            StockItem outOfService = stockItemRepository.save(stockItem);
+
+            stockItemService.adjustAvailableQuantities(List.of(count(outOfService, 9)));
+
+            StockItem persisted = stockItemRepository.findById(outOfService.getId()).orElseThrow();
+
+            assertThat(persisted.getAvailableQuantity())
+                    .isEqualByComparingTo(BigInteger.valueOf(9));
+            assertThat(persisted.getStatus())
+                    .isEqualTo(StockItemStatus.OUT_OF_SERVICE);
+        }
+
+        @Test
+        @DisplayName("adjustAvailableQuantities_success_handlesLargeCount")
+        void adjustAvailableQuantities_success_handlesLargeCount() {
+            List<StockItemDTO> stockItemDTOs = IntStream.range(0, 2_000)
+                    .mapToObj(i -> StockItemDTO.builder()
+                            .productId(productA.getId())
+                            .stockItemGroupId(stockItemGroupA.getId())
+                            .warehouseId(warehouseA.getId())
+                            .availableQuantity(BigInteger.TEN)
+                            .build())
+                    .toList();
+            List<StockItemDTO> counts = stockItemService.createAll(stockItemDTOs).stream()
+                    .map(result -> count(result.getStockItem(), 20))
+                    .toList();
+
+            List<StockItemQuantityChange> quantityChanges = stockItemService.adjustAvailableQuantities(counts);
+
+            assertThat(quantityChanges)
+                    .hasSize(counts.size())
+                    .allMatch(quantityChange -> quantityChange.quantityAfter().equals(BigInteger.valueOf(20)));
+            assertThat(stockItemHistoryRepository.count())
+                    .isEqualTo(counts.size());
+        }
+
+        @Test
+        @DisplayName("adjustAvailableQuantities_fails_whenItemNotFound_andNothingChanged")
+        void adjustAvailableQuantities_fails_whenItemNotFound_andNothingChanged() {
+            StockItem stockItem = generateStockItem(productA, stockItemGroupA, warehouseA, true, 5, null);
+
+            assertThatThrownBy(() -> stockItemService.adjustAvailableQuantities(List.of(count(stockItem, 1),
+                    StockItemDTO.builder()
+                            .stockItemId(Long.MAX_VALUE)
+                            .availableQuantity(BigInteger.ONE)
+                            .build())))
+                    .isInstanceOf(NotFoundException.class);
+            assertThat(stockItemRepository.findById(stockItem.getId()).orElseThrow().getAvailableQuantity())
+                    .isEqualByComparingTo(BigInteger.valueOf(5));
+        }
+
+        @Test
+        @DisplayName("adjustAvailableQuantities_fails_whenItemCountedTwice")
+        void adjustAvailableQuantities_fails_whenItemCountedTwice() {
+            StockItem stockItem = generateStockItem(productA, stockItemGroupA, warehouseA, true, 5, null);
+
+            assertThatThrownBy(() -> stockItemService.adjustAvailableQuantities(List.of(count(stockItem, 1), count(stockItem, 2))))
+                    .isInstanceOf(ValidationException.class);
+        }
+
+        @Test
+        @DisplayName("adjustAvailableQuantities_fails_whenQuantityNegative")
+        void adjustAvailableQuantities_fails_whenQuantityNegative() {
+            StockItem stockItem = generateStockItem(productA, stockItemGroupA, warehouseA, true, 5, null);
+
+            assertThatThrownBy(() -> stockItemService.adjustAvailableQuantities(List.of(count(stockItem, -1))))
+                    .isInstanceOf(ValidationException.class);
+        }
+    }
 }
@@ -58,6 +58,26 @@ class TagServiceIT extends AbstractIT {
                     .containsExactlyInAnyOrder(first.getName(), second.getName());
         }
 
+        @Test
+        @DisplayName("findBy_success_nameWithWildcards_matchesLiterally")
+        @Transactional
+        void findBy_success_nameWithWildcards_matchesLiterally() {
+            Tag discount = tagRepository.save(Tag.builder()
+                    .name("sale_50%")
+                    .isActive(true)
+                    .build());
+            tagRepository.save(Tag.builder()
+                    .name("sale 500")
+                    .isActive(true)
+                    .build());
+
+            List<Tag> result = tagService.findBy("e_50%", null, 10, 1);
+
+            assertThat(result)
+                    .extracting(Tag::getName)
+                    .containsExactly(discount.getName());
+        }
+
         @Test
         @DisplayName("findBy_success_isActiveOnly_true")
         @Transactional
@@ -182,4 +182,28 @@ class TransactionAdapterServiceIT extends AbstractIT {
                     .settlePayment(any());
         }
     }
+
+    @Nested
+    @DisplayName("supportsPaymentStatusCheck(provider: PaymentProvider)")
+    class SupportsPaymentStatusCheckTests {
+        @Test
+        @DisplayName("supportsPaymentStatusCheck_success: only providers whose service checks payment statuses are supported")
+        void supportsPaymentStatusCheck_success() {
+            when(dataTransService.provider())
+                    .thenReturn(PaymentProvider.DATA_TRANS);
+            when(liqPayService.provider())
+                    .thenReturn(PaymentProvider.LIQ_PAY);
+            when(dataTransService.supportsPaymentStatusCheck())
+                    .thenCallRealMethod();
+            when(liqPayService.supportsPaymentStatusCheck())
+                    .thenCallRealMethod();
+
+            assertThat(transactionAdapterService.supportsPaymentStatusCheck(PaymentProvider.LIQ_PAY))
+                    .isTrue();
+            assertThat(transactionAdapterService.supportsPaymentStatusCheck(PaymentProvider.DATA_TRANS))
+                    .isFalse();
+            assertThat(transactionAdapterService.supportsPaymentStatusCheck(PaymentProvider.CASH))
+                    .isFalse();
+        }
+    }
 }
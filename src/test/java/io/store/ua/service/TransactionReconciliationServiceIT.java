@@ -0,0 +1,119 @@
+package io.store.ua.service;
+
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.Transaction;
+import io.store.ua.enums.Currency;
+import io.store.ua.enums.PaymentProvider;
+import io.store.ua.enums.TransactionFlowType;
+import io.store.ua.enums.TransactionStatus;
+import io.store.ua.exceptions.HealthCheckException;
+import io.store.ua.service.external.LiqPayAPIService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@TestPropertySource(properties = {
+        "transaction.reconciliation.pageSize=5",
+        "transaction.reconciliation.maxRequestsPerSecond=1000"
+})
+class TransactionReconciliationServiceIT extends AbstractIT {
+    @Autowired
+    private TransactionReconciliationService transactionReconciliationService;
+    @MockitoBean
+    private LiqPayAPIService liqPayService;
+
+    private Long beneficiaryId;
+
+    @BeforeEach
+    void setUp() {
+        when(liqPayService.provider()).thenReturn(PaymentProvider.LIQ_PAY);
+        beneficiaryId = generateBeneficiary().getId();
+    }
+
+    private Transaction generateInitiatedTransaction(String createdAgo) {
+        Transaction transaction = generateTransaction(beneficiaryId, Currency.UAH.name(), BigInteger.valueOf(1_000), TransactionFlowType.DEBIT);
+        jdbcTemplate.update("UPDATE transactions SET status = 'INITIATED', payment_provider = 'LIQ_PAY', paid_at = NULL, created_at = NOW() AT TIME ZONE 'UTC' - CAST(? AS INTERVAL) WHERE id = ?",
+                createdAgo,
+                transaction.getId());
+
+        return transaction;
+    }
+
+    private Transaction reload(Transaction transaction) {
+        return transactionRepository.findById(transaction.getId()).orElseThrow();
+    }
+
+    @Nested
+    @DisplayName("reconcile(paymentProvider: PaymentProvider)")
+    class ReconcileTests {
+        @Test
+        @DisplayName("reconcile_success_appliesProviderStatusesAcrossPages")
+        void reconcile_success_appliesProviderStatusesAcrossPages() {
+            List<Transaction> settled = IntStream.range(0, 12)
+                    .mapToObj(ignore -> generateInitiatedTransaction("1 hour"))
+                    .toList();
+            Transaction failed = generateInitiatedTransaction("1 hour");
+            Transaction initiated = generateInitiatedTransaction("1 hour");
+
+            when(liqPayService.checkPaymentStatus(any())).thenReturn(TransactionStatus.SETTLED);
+            when(liqPayService.checkPaymentStatus(argThat(transaction -> transaction.getId().equals(failed.getId()))))
+                    .thenReturn(TransactionStatus.FAILED);
+            when(liqPayService.checkPaymentStatus(argThat(transaction -> transaction.getId().equals(initiated.getId()))))
+                    .thenReturn(TransactionStatus.INITIATED);
+
+            int updated = transactionReconciliationService.reconcile(PaymentProvider.LIQ_PAY);
+
+            assertThat(updated).isEqualTo(settled.size() + 1);
+            assertThat(settled).allSatisfy(transaction -> {
+                Transaction reloaded = reload(transaction);
+                assertThat(reloaded.getStatus()).isEqualTo(TransactionStatus.SETTLED);
+                assertThat(reloaded.getPaidAt()).isNotNull();
+            });
+            assertThat(reload(failed).getStatus()).isEqualTo(TransactionStatus.FAILED);
+            assertThat(reload(failed).getPaidAt()).isNull();
+            assertThat(reload(initiated).getStatus()).isEqualTo(TransactionStatus.INITIATED);
+        }
+
+        @Test
+        @DisplayName("reconcile_success_skipsTransactionsOutsideOfAgeBounds")
+        void reconcile_success_skipsTransactionsOutsideOfAgeBounds() {
+            Transaction fresh = generateInitiatedTransaction("1 second");
+            Transaction abandoned = generateInitiatedTransaction("60 days");
+            when(liqPayService.checkPaymentStatus(any())).thenReturn(TransactionStatus.SETTLED);
+
+            int updated = transactionReconciliationService.reconcile(PaymentProvider.LIQ_PAY);
+
+            assertThat(updated).isZero();
+            assertThat(reload(fresh).getStatus()).isEqualTo(TransactionStatus.INITIATED);
+            assertThat(reload(abandoned).getStatus()).isEqualTo(TransactionStatus.INITIATED);
+            verify(liqPayService, never()).checkPaymentStatus(any());
+        }
+
+        @Test
+        @DisplayName("reconcile_success_leavesTransactionsInitiatedWhenProviderIsUnavailable")
+        void reconcile_success_leavesTransactionsInitiatedWhenProviderIsUnavailable() {
+            Transaction transaction = generateInitiatedTransaction("1 hour");
+            when(liqPayService.checkPaymentStatus(any())).thenThrow(new HealthCheckException());
+
+            int updated = transactionReconciliationService.reconcile(PaymentProvider.LIQ_PAY);
+
+            assertThat(updated).isZero();
+            assertThat(reload(transaction).getStatus()).isEqualTo(TransactionStatus.INITIATED);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import io.store.ua.models.api.external.response.LPInitiatePaymentResponse;
 import io.store.ua.models.api.external.response.LPResponse;
 import io.store.ua.models.data.CheckoutFinancialInformation;
 import io.store.ua.models.data.ExternalReferences;
+import io.store.ua.models.dto.TransactionActionResultDTO;
 import io.store.ua.models.dto.TransactionDTO;
 import io.store.ua.service.external.DataTransAPIService;
 import io.store.ua.service.external.LiqPayAPIService;
@@ -600,6 +601,112 @@ class TransactionServiceIT extends AbstractIT {
         }
     }
 
+    @Nested
+    @DisplayName("settlePayments(...)")
+    class SettlePaymentsTests {
+        private Transaction saveTransaction(TransactionStatus status) {
+            var reference = RandomStringUtils.secure().nextAlphanumeric(33);
+
+            return transactionRepository.save(Transaction.builder()
+                    .transactionId(reference)
+                    .reference(reference)
+                    .flowType(TransactionFlowType.CREDIT)
+                    .purpose(TransactionPurpose.OTHER)
+                    .status(status)
+                    .amount(BigInteger.valueOf(1_000))
+                    .currency(Currency.USD.name())
+                    .beneficiaryId(beneficiary.getId())
+                    .externalReferences(ExternalReferences.builder()
+                            .reference(reference)
+                            .transactionId(reference)
+                            .build())
+                    .paymentProvider(PaymentProvider.DATA_TRANS)
+                    .build());
+        }
+
+        private TransactionDTO settleDTO(String transactionId) {
+            return TransactionDTO.builder()
+                    .transactionId(transactionId)
+                    .paymentProvider(PaymentProvider.DATA_TRANS.name())
+                    .build();
+        }
+
+        @Test
+        @DisplayName("settlePayments_success: settles every transaction and reports the failed ones without failing the batch")
+        void settlePayments_success() {
+            when(dataTransService.provider()).thenReturn(PaymentProvider.DATA_TRANS);
+            when(liqPayService.provider()).thenReturn(PaymentProvider.LIQ_PAY);
+            when(dataTransService.settlePayment(any(Transaction.class))).thenCallRealMethod();
+
+            List<Transaction> initiated = List.of(saveTransaction(TransactionStatus.INITIATED), saveTransaction(TransactionStatus.INITIATED));
+            Transaction declined = saveTransaction(TransactionStatus.INITIATED);
+            Transaction settled = saveTransaction(TransactionStatus.SETTLED);
+            String missingTransactionId = RandomStringUtils.secure().nextAlphanumeric(33);
+
+            when(dataTransService.settlePaymentAPICall(anyString(), any(BigInteger.class), anyString(), anyString()))
+                    .thenReturn(new DataTransTransaction());
+            when(dataTransService.settlePaymentAPICall(anyString(), any(BigInteger.class), eq(declined.getTransactionId()), anyString()))
+                    .thenThrow(new IllegalStateException("Declined"));
+
+            List<TransactionActionResultDTO> results = transactionService.settlePayments(List.of(
+                    settleDTO(initiated.get(0).getTransactionId()),
+                    settleDTO(initiated.get(1).getTransactionId()),
+                    settleDTO(initiated.get(1).getTransactionId()),
+                    settleDTO(declined.getTransactionId()),
+                    settleDTO(settled.getTransactionId()),
+                    settleDTO(missingTransactionId),
+                    settleDTO(null)));
+
+            assertThat(results).hasSize(6);
+            assertThat(results)
+                    .filteredOn(TransactionActionResultDTO::getSuccess)
+                    .extracting(result -> result.getTransaction().getTransactionId())
+                    .containsExactlyInAnyOrder(initiated.get(0).getTransactionId(), initiated.get(1).getTransactionId());
+            assertThat(results)
+                    .filteredOn(result -> !result.getSuccess())
+                    .extracting(result -> result.getError().getClass())
+                    .containsExactlyInAnyOrder(IllegalStateException.class,
+                            BusinessException.class,
+                            NotFoundException.class,
+                            ValidationException.class);
+            assertThat(initiated).allSatisfy(transaction -> {
+                Transaction persisted = transactionRepository.findById(transaction.getId()).orElseThrow();
+                assertThat(persisted.getStatus()).isEqualTo(TransactionStatus.SETTLED);
+                assertThat(persisted.getPaidAt()).isNotNull();
+            });
+            assertThat(transactionRepository.findById(declined.getId()).orElseThrow().getStatus())
+                    .isEqualTo(TransactionStatus.INITIATED);
+
+            verify(dataTransService, times(3)).settlePayment(any(Transaction.class));
+            verify(liqPayService, never()).settlePayment(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("synchroniseTransaction(...)")
+    class SynchroniseTransactionTests {
+        @Test
+        @DisplayName("synchroniseTransaction_success: repeated idempotency key is stored once")
+        void synchroniseTransaction_success_whenIdempotencyKeyIsRepeated() {
+            TransactionDTO transactionDTO = TransactionDTO.builder()
+                    .purpose(TransactionPurpose.STOCK_OUTBOUND_REVENUE.name())
+                    .flow(TransactionFlowType.CREDIT.name())
+                    .amount(BigInteger.valueOf(1_000))
+                    .currency(Currency.UAH.name())
+                    .beneficiaryId(beneficiary.getId())
+                    .paymentProvider(PaymentProvider.CASH.name())
+                    .idempotencyKey(RandomStringUtils.secure().nextAlphanumeric(32))
+                    .build();
+
+            assertThat(transactionService.synchroniseTransaction(transactionDTO)).isTrue();
+            assertThat(transactionService.synchroniseTransaction(transactionDTO)).isFalse();
+
+            assertThat(transactionRepository.findAll())
+                    .singleElement()
+                    .satisfies(transaction -> assertThat(transaction.getIdempotencyKey()).isEqualTo(transactionDTO.getIdempotencyKey()));
+        }
+    }
+
     @Nested
     @DisplayName("cancelPayment(...)")
     class CancelPaymentTests {
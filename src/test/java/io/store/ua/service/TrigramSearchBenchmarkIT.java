@@ -0,0 +1,82 @@
+package io.store.ua.service;
+
+import io.store.ua.AbstractIT;
+import io.store.ua.entity.Product;
+import io.store.ua.entity.StockItemGroup;
+import io.store.ua.entity.Warehouse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds 1M stock items and measures code substring search latency, run with -Dbenchmark=true
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TrigramSearchBenchmarkIT extends AbstractIT {
+    private static final int ROWS = 1_000_000;
+    private static final int RUNS = 50;
+
+    @Autowired
+    private StockItemService stockItemService;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM stock_items WHERE code LIKE 'BM-%'");
+    }
+
+    @Test
+    @DisplayName("findBy_codePart_isServedByTrigramIndex_atMillionRows")
+    void findBy_codePart_isServedByTrigramIndex_atMillionRows() {
+        Product product = generateProduct();
+        StockItemGroup stockItemGroup = generateStockItemGroup(true);
+        Warehouse warehouse = generateWarehouse();
+
+        jdbcTemplate.update("""
+                INSERT INTO stock_items (batch_version, code, product_id, group_id, warehouse_id, available_quantity, status, is_active)
+                SELECT series, 'BM-' || UPPER(MD5(series::TEXT)), ?, ?, ?, series % 100, 'AVAILABLE', TRUE
+                FROM GENERATE_SERIES(1, ?) series
+                """, product.getId(), stockItemGroup.getId(), warehouse.getId(), ROWS);
+        jdbcTemplate.execute("ANALYZE stock_items");
+
+        String codePart = jdbcTemplate.queryForObject("SELECT SUBSTRING(code FROM 10 FOR 6) FROM stock_items WHERE code LIKE 'BM-%' LIMIT 1", String.class);
+
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN ANALYZE SELECT id FROM stock_items WHERE LOWER(code) LIKE ?",
+                String.class,
+                "%" + codePart.toLowerCase() + "%"));
+
+        log.info("Trigram search plan at {} rows:\n{}", ROWS, plan);
+
+        assertThat(plan)
+                .contains("idx_stock_items_code_trgm");
+
+        long[] latencies = new long[RUNS];
+
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+
+            stockItemService.findBy(null, null, null, null, null, codePart, null, null, 50, 1);
+
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(latencies);
+
+        log.info("StockItemService.findBy(codePart) over {} rows: p50 {} µs, p95 {} µs, max {} µs",
+                ROWS,
+                latencies[RUNS / 2] / 1_000,
+                latencies[RUNS * 95 / 100] / 1_000,
+                latencies[RUNS - 1] / 1_000);
+
+        assertThat(stockItemService.findBy(null, null, null, null, null, codePart, null, null, 50, 1))
+                .isNotEmpty();
+    }
+}
@@ -1,6 +1,8 @@
 package io.store.ua.service.external;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.store.ua.models.api.external.response.CloudinaryImageUploadResponse;
+import io.store.ua.utility.CircuitBreakerRegistry;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -18,7 +20,11 @@ import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest(classes = CloudinaryAPIService.class)
+@SpringBootTest(classes = {
+        CloudinaryAPIService.class,
+        CircuitBreakerRegistry.class,
+        SimpleMeterRegistry.class
+})
 @ActiveProfiles("external")
 @TestPropertySource(properties = {
         "cloudinary.cloud=${CLOUDINARY_CLOUD_NAME}",
@@ -2,8 +2,10 @@ package io.store.ua.service.external;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.Uploader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.store.ua.exceptions.HealthCheckException;
 import io.store.ua.models.api.external.response.CloudinaryImageUploadResponse;
+import io.store.ua.utility.CircuitBreakerRegistry;
 import jakarta.validation.ValidationException;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +13,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.util.ReflectionUtils;
 
@@ -41,7 +44,8 @@ class CloudinaryAPIServiceTest {
                 RandomStringUtils.secure().nextAlphanumeric(30),
                 RandomStringUtils.secure().nextAlphanumeric(10),
                 MAX_SIZE_MB,
-                ROOT_FOLDER
+                ROOT_FOLDER,
+                new CircuitBreakerRegistry(new SimpleMeterRegistry(), new MockEnvironment())
         );
 
         uploader = Mockito.mock(Uploader.class);
@@ -1,10 +1,12 @@
 package io.store.ua.service.external;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.store.ua.configuration.ApplicationExecutorConfiguration;
 import io.store.ua.entity.User;
 import io.store.ua.entity.cache.CurrencyRate;
 import io.store.ua.enums.UserRole;
 import io.store.ua.enums.UserStatus;
+import io.store.ua.utility.CircuitBreakerRegistry;
 import io.store.ua.utility.HttpRequestService;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,7 +28,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 @SpringBootTest(classes = {
         ApplicationExecutorConfiguration.class,
         OpenExchangeRateAPIService.class,
-        HttpRequestService.class
+        HttpRequestService.class,
+        CircuitBreakerRegistry.class,
+        SimpleMeterRegistry.class
 })
 @ActiveProfiles("external")
 @TestPropertySource(properties = {
@@ -0,0 +1,146 @@
+package io.store.ua.utilities;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.store.ua.exceptions.HealthCheckException;
+import io.store.ua.utility.CircuitBreaker;
+import io.store.ua.utility.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private CircuitBreaker circuitBreaker(Duration slowCallDuration, Duration openDuration) {
+        return new CircuitBreaker("test",
+                new CircuitBreaker.Config(4, 4, 50, slowCallDuration, 50, openDuration, 2),
+                meterRegistry);
+    }
+
+    private void fail(CircuitBreaker circuitBreaker) {
+        assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+            throw new IllegalStateException("provider failure");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void execute_opensWhenFailureRateIsReached_andRejectsWithoutCalling() {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ofSeconds(10), Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+
+        circuitBreaker.execute(calls::incrementAndGet);
+        circuitBreaker.execute(calls::incrementAndGet);
+        fail(circuitBreaker);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        fail(circuitBreaker);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.isCallPermitted()).isFalse();
+        assertThatThrownBy(() -> circuitBreaker.execute(calls::incrementAndGet))
+                .isInstanceOf(HealthCheckException.class);
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("external.calls.rejected").tag("provider", "test").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_opensWhenSlowCallRateIsReached() {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ZERO, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.execute(() -> true);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void execute_closesAfterSuccessfulProbes() {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ofSeconds(10), Duration.ZERO);
+
+        for (int i = 0; i < 4; i++) {
+            fail(circuitBreaker);
+        }
+
+        circuitBreaker.execute(() -> true);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        circuitBreaker.execute(() -> true);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void execute_reopensAfterFailedProbe() {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ofSeconds(10), Duration.ZERO);
+
+        for (int i = 0; i < 4; i++) {
+            fail(circuitBreaker);
+        }
+
+        fail(circuitBreaker);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void executeAsync_limitsConcurrentProbes() {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ofSeconds(10), Duration.ZERO);
+
+        for (int i = 0; i < 4; i++) {
+            fail(circuitBreaker);
+        }
+
+        CompletableFuture<Boolean> firstProbe = new CompletableFuture<>();
+        CompletableFuture<Boolean> secondProbe = new CompletableFuture<>();
+        circuitBreaker.executeAsync(() -> firstProbe);
+        circuitBreaker.executeAsync(() -> secondProbe);
+
+        assertThatThrownBy(() -> circuitBreaker.executeAsync(() -> CompletableFuture.completedFuture(true)))
+                .isInstanceOf(HealthCheckException.class);
+
+        firstProbe.complete(true);
+        secondProbe.complete(true);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void forceOpen_keepsCircuitOpenUntilClosed() {
+        CircuitBreaker circuitBreaker = circuitBreaker(Duration.ofSeconds(10), Duration.ZERO);
+
+        circuitBreaker.forceOpen();
+
+        assertThat(circuitBreaker.isCallPermitted()).isFalse();
+        assertThatThrownBy(() -> circuitBreaker.execute(() -> true))
+                .isInstanceOf(HealthCheckException.class);
+
+        circuitBreaker.close();
+
+        assertThat(circuitBreaker.execute(() -> true)).isTrue();
+    }
+
+    @Test
+    void circuitBreaker_isSeparatePerProvider() {
+        CircuitBreakerRegistry circuitBreakerRegistry = new CircuitBreakerRegistry(meterRegistry, new MockEnvironment());
+
+        circuitBreakerRegistry.circuitBreaker("dataTrans").forceOpen();
+
+        assertThat(circuitBreakerRegistry.circuitBreaker("dataTrans").isCallPermitted()).isFalse();
+        assertThat(circuitBreakerRegistry.circuitBreaker("cloudinary").isCallPermitted()).isTrue();
+        assertThat(meterRegistry.get("external.circuit_breaker.state")
+                .tags("provider", "dataTrans", "state", "open")
+                .gauge()
+                .value()).isEqualTo(1);
+    }
+}
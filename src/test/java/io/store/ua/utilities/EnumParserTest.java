@@ -0,0 +1,22 @@
+package io.store.ua.utilities;
+
+import io.store.ua.enums.ExportFormat;
+import io.store.ua.utility.EnumParser;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EnumParserTest {
+    @Test
+    void parse_ignoresCaseAndSurroundingWhitespace() {
+        assertEquals(ExportFormat.CSV, EnumParser.parse(" csv ", ExportFormat.class, "export format"));
+    }
+
+    @Test
+    void parse_throwsValidationException_whenValueUnknownOrMissing() {
+        assertThrows(ValidationException.class, () -> EnumParser.parse("xml", ExportFormat.class, "export format"));
+        assertThrows(ValidationException.class, () -> EnumParser.parse(null, ExportFormat.class, "export format"));
+    }
+}
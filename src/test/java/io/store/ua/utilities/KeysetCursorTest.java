@@ -0,0 +1,69 @@
+package io.store.ua.utilities;
+
+import io.store.ua.utility.KeysetCursor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class KeysetCursorTest {
+    @Test
+    @SuppressWarnings("unchecked")
+    void seek_usesDecodedSortKeyAndId_descending() {
+        LocalDateTime loggedAt = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000);
+        String cursor = KeysetCursor.encode(loggedAt, 42L);
+
+        CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class);
+        Path<LocalDateTime> sortPath = mock(Path.class);
+        Path<Long> idPath = mock(Path.class);
+
+        KeysetCursor.seek(criteriaBuilder, sortPath, idPath, cursor, true);
+
+        verify(criteriaBuilder).lessThan(sortPath, loggedAt);
+        verify(criteriaBuilder).equal(sortPath, loggedAt);
+        verify(criteriaBuilder).lessThan(eq(idPath), eq(42L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void seek_byIdOnly_usesDecodedId() {
+        CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class);
+        Path<Long> idPath = mock(Path.class);
+
+        KeysetCursor.seek(criteriaBuilder, idPath, KeysetCursor.encode(17L));
+
+        verify(criteriaBuilder).greaterThan(idPath, 17L);
+    }
+
+    @Test
+    void respond_setsNextCursor_onlyWhenPageIsFull() {
+        List<Long> fullPage = List.of(1L, 2L, 3L);
+
+        ResponseEntity<List<Long>> full = KeysetCursor.respond(fullPage, 3, Function.identity());
+        ResponseEntity<List<Long>> partial = KeysetCursor.respond(fullPage, 4, Function.identity());
+
+        assertEquals(KeysetCursor.encode(3L), full.getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER));
+        assertNull(partial.getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER));
+        assertEquals(fullPage, full.getBody());
+    }
+
+    @Test
+    void seek_fails_whenCursorIsMalformed() {
+        CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class);
+
+        assertThrows(ValidationException.class, () -> KeysetCursor.seek(criteriaBuilder, null, "%%%"));
+        assertThrows(ValidationException.class, () -> KeysetCursor.seek(criteriaBuilder, null, Base64.getUrlEncoder().encodeToString("abc".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(ValidationException.class, () -> KeysetCursor.seek(criteriaBuilder, null, null, KeysetCursor.encode("not-a-date", 1L), false));
+    }
+}
@@ -0,0 +1,50 @@
+package io.store.ua.utilities;
+
+import io.store.ua.utility.LongLongHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+    @Test
+    void putGetAddTo_success() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        map.put(0, 5);
+        map.put(-1, 7);
+
+        assertEquals(5, map.get(0, -1));
+        assertEquals(7, map.get(-1, -1));
+        assertEquals(-1, map.get(42, -1));
+        assertEquals(12, map.addTo(0, 7));
+        assertEquals(3, map.addTo(42, 3));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void remove_keepsOtherKeysReachable_whenMatchesRandomizedReference() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(2_000);
+
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key) != null, map.remove(key));
+            } else {
+                long value = random.nextLong();
+                reference.put(key, value);
+                map.put(key, value);
+            }
+        }
+
+        assertEquals(reference.size(), map.size());
+        reference.forEach((key, value) -> assertEquals(value, map.get(key, 0)));
+        map.forEach((key, value) -> assertEquals(reference.get(key), value));
+    }
+}